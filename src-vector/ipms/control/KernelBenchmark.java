@@ -0,0 +1,62 @@
+// ========== KernelBenchmark.java ==========
+package ipms.control;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares scalar and Vector API column kernels on synthetic 1M-row columns.
+ * Run with --add-modules jdk.incubator.vector.
+ */
+public class KernelBenchmark {
+    private static final int ROWS = 1_000_000;
+    private static final int WARMUP = 50;
+    private static final int RUNS = 200;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        byte[] status = new byte[ROWS];
+        int[] major = new int[ROWS];
+        for (int r = 0; r < ROWS; r++) {
+            status[r] = (byte) random.nextInt(4);
+            major[r] = random.nextInt(40);
+        }
+        long[] all = new long[(ROWS + 63) >>> 6];
+        Arrays.fill(all, -1L);
+
+        ColumnKernels scalar = new ScalarColumnKernels();
+        ColumnKernels vector = new VectorColumnKernels();
+
+        if (!Arrays.equals(scalar.matchBytes(status, (byte) 1, ROWS), vector.matchBytes(status, (byte) 1, ROWS))
+                || !Arrays.equals(scalar.matchInts(major, 7, ROWS), vector.matchInts(major, 7, ROWS))) {
+            throw new IllegalStateException("Vector kernels disagree with scalar kernels");
+        }
+
+        System.out.printf("%-28s %12s %12s %8s%n", "Kernel (1M rows)", "Scalar (us)", "Vector (us)", "Speedup");
+        report("matchBytes (status filter)",
+                time(() -> scalar.matchBytes(status, (byte) 1, ROWS)),
+                time(() -> vector.matchBytes(status, (byte) 1, ROWS)));
+        report("matchInts (major filter)",
+                time(() -> scalar.matchInts(major, 7, ROWS)),
+                time(() -> vector.matchInts(major, 7, ROWS)));
+        report("countBytes (status counts)",
+                time(() -> scalar.countBytes(status, all, ROWS, 4)),
+                time(() -> vector.countBytes(status, all, ROWS, 4)));
+    }
+
+    private static double time(Runnable kernel) {
+        for (int i = 0; i < WARMUP; i++) {
+            kernel.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            kernel.run();
+        }
+        return (System.nanoTime() - start) / 1000.0 / RUNS;
+    }
+
+    private static void report(String name, double scalarMicros, double vectorMicros) {
+        System.out.printf("%-28s %12.1f %12.1f %7.1fx%n",
+                name, scalarMicros, vectorMicros, scalarMicros / vectorMicros);
+    }
+}
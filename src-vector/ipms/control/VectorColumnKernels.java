@@ -0,0 +1,51 @@
+// ========== VectorColumnKernels.java ==========
+package ipms.control;
+
+import jdk.incubator.vector.*;
+
+/**
+ * SIMD implementation of the column kernels using the Vector API.
+ * Compares a full vector of rows per instruction (e.g. 32 bytes or 8 ints
+ * on AVX2) and writes the lane mask straight into the row bitmap.
+ * Optional: compile and run with --add-modules jdk.incubator.vector.
+ */
+public class VectorColumnKernels implements ColumnKernels {
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public long[] matchBytes(byte[] column, byte value, int size) {
+        long[] words = new long[(size + 63) >>> 6];
+        int lanes = BYTES.length();
+        int bound = BYTES.loopBound(size);
+        int r = 0;
+        for (; r < bound; r += lanes) {
+            long bits = ByteVector.fromArray(BYTES, column, r).eq(value).toLong();
+            words[r >>> 6] |= bits << (r & 63); // Lane counts divide 64, so never straddles a word
+        }
+        for (; r < size; r++) {
+            if (column[r] == value) {
+                words[r >>> 6] |= 1L << r;
+            }
+        }
+        return words;
+    }
+
+    @Override
+    public long[] matchInts(int[] column, int value, int size) {
+        long[] words = new long[(size + 63) >>> 6];
+        int lanes = INTS.length();
+        int bound = INTS.loopBound(size);
+        int r = 0;
+        for (; r < bound; r += lanes) {
+            long bits = IntVector.fromArray(INTS, column, r).eq(value).toLong();
+            words[r >>> 6] |= bits << (r & 63);
+        }
+        for (; r < size; r++) {
+            if (column[r] == value) {
+                words[r >>> 6] |= 1L << r;
+            }
+        }
+        return words;
+    }
+}
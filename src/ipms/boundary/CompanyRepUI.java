@@ -14,6 +14,7 @@ public class CompanyRepUI {
     private final Scanner scanner;
     private final InternshipManager internshipManager;
     private final ApplicationManager applicationManager;
+    private final AdmissionController admissionController;
     private final AuthenticationManager authManager;
 
     public CompanyRepUI(CompanyRepresentative representative, Scanner scanner) {
@@ -21,6 +22,7 @@ public class CompanyRepUI {
         this.scanner = scanner;
         this.internshipManager = InternshipManager.getInstance();
         this.applicationManager = ApplicationManager.getInstance();
+        this.admissionController = AdmissionController.getInstance();
         this.authManager = AuthenticationManager.getInstance();
     }
 
@@ -89,9 +91,15 @@ public class CompanyRepUI {
         System.out.println("Slots: " + numSlots);
 
         if (InputValidator.getConfirmation(scanner, "\nConfirm creation?")) {
-            InternshipOpportunity internship = internshipManager.createInternship(
-                    title, description, level, preferredMajor, openingDate, closingDate,
-                    representative.getCompanyName(), representative, numSlots);
+            InternshipOpportunity internship;
+            try {
+                internship = AdmissionController.await(admissionController.createInternship(
+                        title, description, level, preferredMajor, openingDate, closingDate,
+                        representative.getCompanyName(), representative, numSlots));
+            } catch (SystemBusyException | SaveFailedException e) {
+                System.out.println("\n✗ " + e.getMessage());
+                return;
+            }
 
             System.out.println("\n✓ Internship opportunity created!");
             System.out.println("Opportunity ID: " + internship.getOpportunityID());
@@ -239,18 +247,44 @@ public class CompanyRepUI {
         for (int i = 0; i < pendingApps.size(); i++) {
             Application app = pendingApps.get(i);
             Student student = app.getStudent();
-            System.out.printf("%d. %s - Year %d, %s (Applied: %s)%n",
+            System.out.printf("%d. %s - Year %d, %s (Applied: %s)%s%n",
                     i + 1, student.getName(), student.getYearOfStudy(),
-                    student.getMajor(), app.getApplicationDate());
+                    student.getMajor(), app.getApplicationDate(),
+                    app.isWaitlisted() ? " [WAITLISTED" + (app.getWaitlistRank() > 0
+                            ? " #" + app.getWaitlistRank() : "") + "]" : "");
         }
 
-        int appChoice = InputValidator.getIntInput(scanner,
-                "\nSelect application to review (0 to cancel): ", 0, pendingApps.size());
+        System.out.println("\n1. Select applications to review");
+        System.out.println("2. Shortlist top applicants");
+        System.out.println("3. Cancel");
+
+        int mode = InputValidator.getIntInput(scanner, "\nEnter choice: ", 1, 3);
+
+        if (mode == 3)
+            return;
 
-        if (appChoice == 0)
+        if (mode == 2) {
+            shortlistApplications(selected, pendingApps.size());
             return;
+        }
 
-        Application selectedApp = pendingApps.get(appChoice - 1);
+        List<Integer> appChoices = InputValidator.getSelectionInput(scanner,
+                "\nSelect applications to review (e.g. 1,3,5-7 or 'all', 0 to cancel): ",
+                pendingApps.size());
+
+        if (appChoices.isEmpty())
+            return;
+
+        if (appChoices.size() > 1) {
+            List<Application> selectedApps = new ArrayList<>();
+            for (int index : appChoices) {
+                selectedApps.add(pendingApps.get(index - 1));
+            }
+            reviewSelectedApplications(selectedApps);
+            return;
+        }
+
+        Application selectedApp = pendingApps.get(appChoices.get(0) - 1);
         Student student = selectedApp.getStudent();
 
         System.out.println("\n--- Application Details ---");
@@ -263,18 +297,52 @@ public class CompanyRepUI {
 
         System.out.println("\n1. Approve");
         System.out.println("2. Reject");
-        System.out.println("3. Cancel");
+        System.out.println(selectedApp.isWaitlisted() ? "3. Change Waitlist Rank" : "3. Add to Waitlist");
+        System.out.println("4. Cancel");
 
-        int decision = InputValidator.getIntInput(scanner, "\nEnter choice: ", 1, 3);
+        int decision = InputValidator.getIntInput(scanner, "\nEnter choice: ", 1, 4);
 
-        if (decision == 3)
+        if (decision == 4)
+            return;
+
+        if (decision == 3) {
+            List<Application> waitlist = applicationManager.getWaitlist(selected);
+            waitlist.remove(selectedApp);
+            System.out.println("\n--- Current Waitlist ---");
+            if (waitlist.isEmpty()) {
+                System.out.println("(empty)");
+            }
+            int maxRank = waitlist.size() + 1;
+            for (int i = 0; i < waitlist.size(); i++) {
+                Application app = waitlist.get(i);
+                maxRank = Math.max(maxRank, app.getWaitlistRank() + 1);
+                System.out.printf("%d. %s (Rank: %s, Applied: %s)%n", i + 1, app.getStudent().getName(),
+                        app.getWaitlistRank() > 0 ? app.getWaitlistRank() : "-", app.getApplicationDate());
+            }
+            int rank = InputValidator.getIntInput(scanner,
+                    "\nRank for this application (1 = offered first; equal ranks go by application date): ",
+                    1, maxRank);
+            try {
+                AdmissionController.await(admissionController.waitlistApplication(representative, selectedApp, rank));
+            } catch (SystemBusyException | SaveFailedException e) {
+                System.out.println("\n✗ " + e.getMessage());
+                return;
+            }
+            System.out.println("\n✓ Application placed on the waitlist at rank " + rank + "!");
+            System.out.println("It will be offered a slot automatically when a placement is withdrawn.");
             return;
+        }
 
         boolean approve = (decision == 1);
         String action = approve ? "approve" : "reject";
 
         if (InputValidator.getConfirmation(scanner, "Confirm " + action + " this application?")) {
-            applicationManager.reviewApplication(selectedApp, approve);
+            try {
+                AdmissionController.await(admissionController.reviewApplication(representative, selectedApp, approve));
+            } catch (SystemBusyException | SaveFailedException e) {
+                System.out.println("\n✗ " + e.getMessage());
+                return;
+            }
             System.out.println("\n✓ Application " + (approve ? "approved" : "rejected") + "!");
 
             if (approve) {
@@ -283,6 +351,84 @@ public class CompanyRepUI {
         }
     }
 
+    /**
+     * Approve or reject several applications at once
+     */
+    private void reviewSelectedApplications(List<Application> selectedApps) {
+        System.out.println("\n--- Selected Applications ---");
+        for (Application app : selectedApps) {
+            System.out.printf("   %s - %s%n", app.getApplicationID(), app.getStudent().getName());
+        }
+
+        System.out.println("\n1. Approve all selected");
+        System.out.println("2. Reject all selected");
+        System.out.println("3. Cancel");
+
+        int decision = InputValidator.getIntInput(scanner, "\nEnter choice: ", 1, 3);
+
+        if (decision == 3)
+            return;
+
+        boolean approve = (decision == 1);
+        String action = approve ? "approve" : "reject";
+
+        if (InputValidator.getConfirmation(scanner,
+                "Confirm " + action + " " + selectedApps.size() + " applications?")) {
+            try {
+                AdmissionController.await(admissionController.reviewApplications(representative, selectedApps, approve));
+            } catch (SystemBusyException | SaveFailedException e) {
+                System.out.println("\n✗ " + e.getMessage());
+                return;
+            }
+            System.out.println("\n✓ " + selectedApps.size() + " applications "
+                    + (approve ? "approved" : "rejected") + "!");
+        }
+    }
+
+    /**
+     * Approve the top N applicants by a chosen ordering
+     */
+    private void shortlistApplications(InternshipOpportunity internship, int pendingCount) {
+        System.out.println("\nShortlist Ordering:");
+        ShortlistOrder[] orders = ShortlistOrder.values();
+        for (int i = 0; i < orders.length; i++) {
+            System.out.printf("%d. %s%n", i + 1, orders[i]);
+        }
+        ShortlistOrder order = orders[InputValidator.getIntInput(scanner,
+                "Enter choice: ", 1, orders.length) - 1];
+
+        int n = InputValidator.getIntInput(scanner,
+                "Number of applicants to approve (1-" + pendingCount + "): ", 1, pendingCount);
+
+        List<Application> shortlist = applicationManager.shortlist(internship, n, order);
+
+        System.out.println("\n--- Shortlist ---");
+        for (int i = 0; i < shortlist.size(); i++) {
+            Application app = shortlist.get(i);
+            Student student = app.getStudent();
+            System.out.printf("%d. %s - Year %d (Applied: %s)%n",
+                    i + 1, student.getName(), student.getYearOfStudy(), app.getApplicationDate());
+        }
+
+        if (!InputValidator.getConfirmation(scanner, "\nApprove these " + shortlist.size() + " applications?"))
+            return;
+
+        boolean rejectOthers = shortlist.size() < pendingCount
+                && InputValidator.getConfirmation(scanner, "Reject the remaining pending applications?");
+
+        try {
+            shortlist = AdmissionController.await(
+                    admissionController.reviewShortlist(representative, internship, n, order, rejectOthers));
+        } catch (SystemBusyException | SaveFailedException e) {
+            System.out.println("\n✗ " + e.getMessage());
+            return;
+        }
+        System.out.println("\n✓ " + shortlist.size() + " applications approved!");
+        if (rejectOthers) {
+            System.out.println("Remaining pending applications were rejected.");
+        }
+    }
+
     /**
      * Toggle visibility of an internship
      */
@@ -326,8 +472,12 @@ public class CompanyRepUI {
         String newState = selected.isVisible() ? "HIDDEN" : "VISIBLE";
 
         if (InputValidator.getConfirmation(scanner, "Set visibility to " + newState + "?")) {
-            internshipManager.toggleVisibility(selected);
-            System.out.println("\n✓ Visibility updated to: " + newState);
+            try {
+                AdmissionController.await(admissionController.toggleVisibility(representative, selected));
+                System.out.println("\n✓ Visibility updated to: " + newState);
+            } catch (SystemBusyException | SaveFailedException e) {
+                System.out.println("\n✗ " + e.getMessage());
+            }
         }
     }
 
@@ -4,7 +4,7 @@ package ipms.boundary;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Scanner;
+import java.util.*;
 
 /**
  * Utility class for input validation
@@ -60,6 +60,45 @@ public class InputValidator {
         }
     }
     
+    /**
+     * Get a multi-selection such as "1,3,5-7" or "all" (0 to cancel)
+     * 
+     * @return Selected numbers in ascending order, empty if cancelled
+     */
+    public static List<Integer> getSelectionInput(Scanner sc, String prompt, int max) {
+        while (true) {
+            System.out.print(prompt);
+            String input = sc.nextLine().trim().toLowerCase();
+            if (input.equals("0")) {
+                return new ArrayList<>();
+            }
+            if (input.equals("all")) {
+                List<Integer> all = new ArrayList<>();
+                for (int i = 1; i <= max; i++) {
+                    all.add(i);
+                }
+                return all;
+            }
+            try {
+                SortedSet<Integer> selected = new TreeSet<>();
+                for (String part : input.split(",")) {
+                    String[] range = part.trim().split("-");
+                    int from = Integer.parseInt(range[0].trim());
+                    int to = range.length > 1 ? Integer.parseInt(range[1].trim()) : from;
+                    if (range.length > 2 || from < 1 || to > max || from > to) {
+                        throw new NumberFormatException();
+                    }
+                    for (int i = from; i <= to; i++) {
+                        selected.add(i);
+                    }
+                }
+                return new ArrayList<>(selected);
+            } catch (NumberFormatException e) {
+                System.out.printf("Invalid selection. Use numbers 1-%d, e.g. 1,3,5-7 or 'all'.%n", max);
+            }
+        }
+    }
+    
     /**
      * Get yes/no confirmation
      */
@@ -17,6 +17,7 @@ public class MainUI {
         this.scanner = new Scanner(System.in);
         this.authManager = AuthenticationManager.getInstance();
         this.userManager = UserManager.getInstance();
+        ArchiveManager.getInstance().archiveColdEntities(); // Keep past semesters out of the working set
     }
 
     /**
@@ -90,8 +91,8 @@ public class MainUI {
         if (foundUser == null) {
             System.out.println("ERROR: User '" + userID + "' NOT FOUND in UserManager");
             System.out.println("Available users:");
-            for (User u : userManager.getUsersByType(User.class)) {
-                System.out.println("  - " + u.getUserID());
+            for (String id : userManager.getUserIDs()) {
+                System.out.println("  - " + id);
             }
         } else {
             System.out.println("User found: " + foundUser.getName());
@@ -144,6 +145,13 @@ public class MainUI {
      * Main entry point
      */
     public static void main(String[] args) {
+        try {
+            StringDictionary.getInstance(); // Every saved code depends on it
+            TextSegment.getInstance(); // Saved descriptions and reasons live in it
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
         MainUI mainUI = new MainUI();
         mainUI.start();
     }
@@ -3,7 +3,12 @@ package ipms.boundary;
 
 import ipms.control.*;
 import ipms.entity.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * User interface for Career Center Staff operations
@@ -14,8 +19,12 @@ public class StaffUI {
     private final UserManager userManager;
     private final InternshipManager internshipManager;
     private final ApplicationManager applicationManager;
+    private final AdmissionController admissionController;
     private final AuthenticationManager authManager;
     private final ReportGenerator reportGenerator;
+    private final PlacementAllocator placementAllocator;
+    private final BulkApprovalManager bulkApprovalManager;
+    private final ReportExporter reportExporter;
 
     public StaffUI(CareerCenterStaff staff, Scanner scanner) {
         this.staff = staff;
@@ -23,8 +32,12 @@ public class StaffUI {
         this.userManager = UserManager.getInstance();
         this.internshipManager = InternshipManager.getInstance();
         this.applicationManager = ApplicationManager.getInstance();
+        this.admissionController = AdmissionController.getInstance();
         this.authManager = AuthenticationManager.getInstance();
         this.reportGenerator = new ReportGenerator();
+        this.placementAllocator = new PlacementAllocator();
+        this.bulkApprovalManager = BulkApprovalManager.getInstance();
+        this.reportExporter = new ReportExporter();
     }
 
     /**
@@ -33,7 +46,7 @@ public class StaffUI {
     public void displayMenu() {
         while (authManager.isLoggedIn()) {
             staff.displayMenu();
-            int choice = InputValidator.getIntInput(scanner, "\nEnter choice: ", 1, 7);
+            int choice = InputValidator.getIntInput(scanner, "\nEnter choice: ", 1, 9);
 
             switch (choice) {
                 case 1 -> approveCompanyRepresentatives();
@@ -41,8 +54,10 @@ public class StaffUI {
                 case 3 -> approveWithdrawalRequests();
                 case 4 -> generateReports();
                 case 5 -> viewAllInternships();
-                case 6 -> changePassword();
-                case 7 -> {
+                case 6 -> allocatePlacements();
+                case 7 -> undoBulkApproval();
+                case 8 -> changePassword();
+                case 9 -> {
                     authManager.logout();
                     return;
                 }
@@ -77,11 +92,30 @@ public class StaffUI {
         }
 
         int choice = InputValidator.getIntInput(scanner,
-                "\nSelect representative to review (0 to cancel): ", 0, pendingReps.size());
+                "\nSelect representative to review (0 to cancel, -1 for bulk approval): ",
+                -1, pendingReps.size());
 
         if (choice == 0)
             return;
 
+        if (choice == -1) {
+            String domain = InputValidator.getStringInput(scanner,
+                    "Approve all pending representatives with email domain (e.g. company.com): ");
+            Predicate<CompanyRepresentative> rule = BulkApprovalManager.emailDomain(domain);
+            long matches = pendingReps.stream().filter(rule).count();
+            if (matches == 0) {
+                System.out.println("\nNo pending representatives from @" + domain + ".");
+            } else if (InputValidator.getConfirmation(scanner, "Approve " + matches + " representatives?")) {
+                try {
+                    int approved = AdmissionController.await(admissionController.approveRepresentatives(staff, rule));
+                    System.out.println("\n✓ " + approved + " representatives approved!");
+                } catch (SystemBusyException | SaveFailedException e) {
+                    System.out.println("\n✗ " + e.getMessage());
+                }
+            }
+            return;
+        }
+
         CompanyRepresentative selected = pendingReps.get(choice - 1);
 
         System.out.println("\n1. Approve");
@@ -93,14 +127,18 @@ public class StaffUI {
         if (decision == 3)
             return;
 
-        if (decision == 1) {
-            selected.setApproved(true);
-            userManager.saveUsers();
-            System.out.println("\n✓ Representative approved!");
-            System.out.println(selected.getName() + " can now login to the system.");
-        } else {
-            System.out.println("\n✓ Representative rejected.");
-            System.out.println("Note: Account remains in system but cannot login.");
+        try {
+            if (decision == 1) {
+                AdmissionController.await(admissionController.approveRepresentative(staff, selected));
+                System.out.println("\n✓ Representative approved!");
+                System.out.println(selected.getName() + " can now login to the system.");
+            } else {
+                AdmissionController.await(admissionController.rejectRepresentative(staff, selected));
+                System.out.println("\n✓ Representative rejected.");
+                System.out.println("Note: Account remains in system but cannot login.");
+            }
+        } catch (SystemBusyException | SaveFailedException e) {
+            System.out.println("\n✗ " + e.getMessage());
         }
     }
 
@@ -134,11 +172,29 @@ public class StaffUI {
         }
 
         int choice = InputValidator.getIntInput(scanner,
-                "\nSelect internship to review (0 to cancel): ", 0, pendingInternships.size());
+                "\nSelect internship to review (0 to cancel, -1 for bulk approval): ",
+                -1, pendingInternships.size());
 
         if (choice == 0)
             return;
 
+        if (choice == -1) {
+            Predicate<InternshipOpportunity> rule = BulkApprovalManager.fromApprovedCompany();
+            long matches = pendingInternships.stream().filter(rule).count();
+            if (matches == 0) {
+                System.out.println("\nNo pending internships from approved companies.");
+            } else if (InputValidator.getConfirmation(scanner,
+                    "Approve all " + matches + " pending internships from approved companies?")) {
+                try {
+                    int approved = AdmissionController.await(admissionController.approveInternships(staff, rule));
+                    System.out.println("\n✓ " + approved + " internships approved and made visible!");
+                } catch (SystemBusyException | SaveFailedException e) {
+                    System.out.println("\n✗ " + e.getMessage());
+                }
+            }
+            return;
+        }
+
         InternshipOpportunity selected = pendingInternships.get(choice - 1);
 
         System.out.println("\n1. Approve");
@@ -150,13 +206,17 @@ public class StaffUI {
         if (decision == 3)
             return;
 
-        if (decision == 1) {
-            internshipManager.approveInternship(selected);
-            System.out.println("\n✓ Internship approved!");
-            System.out.println("Status changed to APPROVED and made visible to students.");
-        } else {
-            internshipManager.rejectInternship(selected);
-            System.out.println("\n✓ Internship rejected.");
+        try {
+            if (decision == 1) {
+                AdmissionController.await(admissionController.approveInternship(staff, selected));
+                System.out.println("\n✓ Internship approved!");
+                System.out.println("Status changed to APPROVED and made visible to students.");
+            } else {
+                AdmissionController.await(admissionController.rejectInternship(staff, selected));
+                System.out.println("\n✓ Internship rejected.");
+            }
+        } catch (SystemBusyException | SaveFailedException e) {
+            System.out.println("\n✗ " + e.getMessage());
         }
     }
 
@@ -192,11 +252,31 @@ public class StaffUI {
         }
 
         int choice = InputValidator.getIntInput(scanner,
-                "\nSelect request to review (0 to cancel): ", 0, pendingWithdrawals.size());
+                "\nSelect request to review (0 to cancel, -1 for bulk approval): ",
+                -1, pendingWithdrawals.size());
 
         if (choice == 0)
             return;
 
+        if (choice == -1) {
+            boolean onlyBeforePlacement = InputValidator.getConfirmation(scanner,
+                    "Only approve requests made before placement?");
+            Predicate<WithdrawalRequest> rule = onlyBeforePlacement
+                    ? BulkApprovalManager.beforePlacement() : req -> true;
+            long matches = pendingWithdrawals.stream().filter(rule).count();
+            if (matches == 0) {
+                System.out.println("\nNo matching withdrawal requests.");
+            } else if (InputValidator.getConfirmation(scanner, "Approve " + matches + " withdrawal requests?")) {
+                try {
+                    int approved = AdmissionController.await(admissionController.approveWithdrawals(staff, rule));
+                    System.out.println("\n✓ " + approved + " withdrawal requests approved!");
+                } catch (SystemBusyException | SaveFailedException e) {
+                    System.out.println("\n✗ " + e.getMessage());
+                }
+            }
+            return;
+        }
+
         WithdrawalRequest selected = pendingWithdrawals.get(choice - 1);
 
         System.out.println("\n1. Approve");
@@ -208,14 +288,18 @@ public class StaffUI {
         if (decision == 3)
             return;
 
-        if (decision == 1) {
-            applicationManager.approveWithdrawal(selected);
-            System.out.println("\n✓ Withdrawal request approved!");
-            System.out.println("Application has been withdrawn.");
-        } else {
-            applicationManager.rejectWithdrawal(selected);
-            System.out.println("\n✓ Withdrawal request rejected.");
-            System.out.println("Application remains active.");
+        try {
+            if (decision == 1) {
+                AdmissionController.await(admissionController.approveWithdrawal(staff, selected));
+                System.out.println("\n✓ Withdrawal request approved!");
+                System.out.println("Application has been withdrawn.");
+            } else {
+                AdmissionController.await(admissionController.rejectWithdrawal(staff, selected));
+                System.out.println("\n✓ Withdrawal request rejected.");
+                System.out.println("Application remains active.");
+            }
+        } catch (SystemBusyException | SaveFailedException e) {
+            System.out.println("\n✗ " + e.getMessage());
         }
     }
 
@@ -226,15 +310,24 @@ public class StaffUI {
         System.out.println("\n=== GENERATE REPORTS ===");
         System.out.println("1. Internship Opportunities Report (with filters)");
         System.out.println("2. Application Statistics Report");
-        System.out.println("3. Back");
+        System.out.println("3. Placement Analytics (top postings, funnel, trends)");
+        System.out.println("4. Export Reports / Data to File");
+        System.out.println("5. Back");
 
-        int choice = InputValidator.getIntInput(scanner, "\nEnter choice: ", 1, 3);
+        int choice = InputValidator.getIntInput(scanner, "\nEnter choice: ", 1, 5);
 
-        if (choice == 3)
+        if (choice == 5)
             return;
 
         if (choice == 1) {
             generateInternshipReport();
+        } else if (choice == 3) {
+            int topK = InputValidator.getIntInput(scanner, "Show top how many? (1-50): ", 1, 50);
+            reportGenerator.generatePlacementAnalyticsReport(topK, 14);
+            System.out.println("\nPress Enter to continue...");
+            scanner.nextLine();
+        } else if (choice == 4) {
+            exportReports();
         } else {
             reportGenerator.generateApplicationReport();
             System.out.println("\nPress Enter to continue...");
@@ -242,10 +335,62 @@ public class StaffUI {
         }
     }
 
+    /**
+     * Export a report or raw data dump to a CSV or JSON file
+     */
+    private void exportReports() {
+        System.out.println("\n=== EXPORT ===");
+        System.out.println("1. Internship Opportunities Report (with filters)");
+        System.out.println("2. Application Statistics Report");
+        System.out.println("3. All Internships (raw)");
+        System.out.println("4. All Applications (raw)");
+        System.out.println("5. All Withdrawal Requests (raw)");
+        System.out.println("6. Back");
+
+        int choice = InputValidator.getIntInput(scanner, "\nEnter choice: ", 1, 6);
+
+        if (choice == 6)
+            return;
+
+        FilterStrategy filter = choice == 1 ? selectReportFilter() : null;
+
+        System.out.println("\nSelect Format:");
+        System.out.println("1. CSV");
+        System.out.println("2. JSON");
+        ReportExporter.Format format = ReportExporter.Format.values()[
+                InputValidator.getIntInput(scanner, "Enter choice: ", 1, 2) - 1];
+
+        String[] names = {"internship_report", "application_report", "internships",
+                "applications", "withdrawals"};
+        Path path = Paths.get("data", "exports", names[choice - 1] + "." + format.getExtension());
+
+        try {
+            long rows = switch (choice) {
+                case 1 -> reportExporter.exportInternshipReport(path, format, filter);
+                case 2 -> reportExporter.exportApplicationReport(path, format);
+                case 3 -> reportExporter.exportInternships(path, format);
+                case 4 -> reportExporter.exportApplications(path, format);
+                default -> reportExporter.exportWithdrawals(path, format);
+            };
+            System.out.println("\n✓ Exported " + rows + " rows to " + path);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("\n✗ Export failed: " + e.getMessage());
+        }
+    }
+
     /**
      * Generate internship report with filters
      */
     private void generateInternshipReport() {
+        reportGenerator.generateInternshipReport(selectReportFilter());
+        System.out.println("\nPress Enter to continue...");
+        scanner.nextLine();
+    }
+
+    /**
+     * Ask staff which filter to report on
+     */
+    private FilterStrategy selectReportFilter() {
         System.out.println("\n=== INTERNSHIP REPORT FILTERS ===");
         System.out.println("1. No Filter (All Internships)");
         System.out.println("2. Filter by Status");
@@ -267,9 +412,7 @@ public class StaffUI {
             case 6 -> filter = createCompositeFilter();
         }
 
-        reportGenerator.generateInternshipReport(filter);
-        System.out.println("\nPress Enter to continue...");
-        scanner.nextLine();
+        return filter;
     }
 
     private FilterStrategy createStatusFilter() {
@@ -351,7 +494,8 @@ public class StaffUI {
             System.out.printf("   Title: %s%n", opp.getTitle());
             System.out.printf("   Company: %s%n", opp.getCompanyName());
             System.out.printf("   Level: %s | Major: %s%n", opp.getLevel(), opp.getPreferredMajor());
-            System.out.printf("   Status: %s | Visible: %s%n", opp.getStatus(), opp.isVisible());
+            System.out.printf("   Status: %s | Phase: %s | Visible: %s%n",
+                    opp.getStatus(), internshipManager.getLifecycle().phaseOf(opp), opp.isVisible());
             System.out.printf("   Slots: %d/%d%n", opp.getFilledSlots(), opp.getNumSlots());
             System.out.printf("   Applications: %d%n", opp.getApplications().size());
             System.out.println("   " + "-".repeat(60));
@@ -361,6 +505,77 @@ public class StaffUI {
         scanner.nextLine();
     }
 
+    /**
+     * Run batch placement allocation over open applications
+     */
+    private void allocatePlacements() {
+        System.out.println("\n=== BATCH PLACEMENT ALLOCATION ===");
+        System.out.println("Students rank applications in submission order;");
+        System.out.println("internships rank applicants first come, first served.");
+
+        Map<Student, List<Application>> studentPrefs = placementAllocator.defaultStudentPreferences();
+
+        if (studentPrefs.isEmpty()) {
+            System.out.println("No open applications to allocate.");
+            return;
+        }
+
+        Map<Student, Application> matching = placementAllocator.computeMatching(
+                studentPrefs, placementAllocator.defaultRepRankings());
+
+        System.out.println("Students considered: " + studentPrefs.size());
+        System.out.println("Placements proposed: " + matching.size());
+        System.out.println();
+
+        for (Application app : matching.values()) {
+            System.out.printf("   %s -> %s (%s)%n", app.getStudent().getName(),
+                    app.getOpportunity().getTitle(), app.getOpportunity().getCompanyName());
+        }
+
+        if (matching.isEmpty() || !InputValidator.getConfirmation(scanner, "\nCommit these placements?"))
+            return;
+
+        boolean committed;
+        try {
+            committed = AdmissionController.await(admissionController.commitPlacements(staff, matching.values()));
+        } catch (SystemBusyException | SaveFailedException e) {
+            System.out.println("\n✗ " + e.getMessage());
+            return;
+        }
+        if (committed) {
+            System.out.println("\n✓ " + matching.size() + " placements committed.");
+        } else {
+            System.out.println("\n✗ Allocation not committed. Please run it again.");
+        }
+    }
+
+    /**
+     * Undo the most recent bulk approval
+     */
+    private void undoBulkApproval() {
+        System.out.println("\n=== UNDO LAST BULK APPROVAL ===");
+
+        if (!bulkApprovalManager.canUndo()) {
+            System.out.println("No bulk approvals to undo in this session.");
+            return;
+        }
+
+        if (InputValidator.getConfirmation(scanner, "Undo the last bulk approval?")) {
+            String undone;
+            try {
+                undone = AdmissionController.await(admissionController.undoBulkApproval(staff));
+            } catch (SystemBusyException | SaveFailedException e) {
+                System.out.println("\n✗ " + e.getMessage());
+                return;
+            }
+            if (undone != null) {
+                System.out.println("\n✓ Undone: " + undone);
+            } else {
+                System.out.println("\n✗ Data has changed since the bulk approval; it can no longer be undone.");
+            }
+        }
+    }
+
     /**
      * Change password
      */
@@ -12,15 +12,17 @@ public class StudentUI {
     private final Student student;
     private final Scanner scanner;
     private final InternshipManager internshipManager;
-    private final ApplicationManager applicationManager;
+    private final AdmissionController admissionController;
     private final AuthenticationManager authManager;
+    private final ArchiveManager archiveManager;
 
     public StudentUI(Student student, Scanner scanner) {
         this.student = student;
         this.scanner = scanner;
         this.internshipManager = InternshipManager.getInstance();
-        this.applicationManager = ApplicationManager.getInstance();
+        this.admissionController = AdmissionController.getInstance();
         this.authManager = AuthenticationManager.getInstance();
+        this.archiveManager = ArchiveManager.getInstance();
     }
 
     /**
@@ -107,7 +109,13 @@ public class StudentUI {
         System.out.println("Company: " + selected.getCompanyName());
 
         if (InputValidator.getConfirmation(scanner, "\nConfirm application?")) {
-            Application app = applicationManager.submitApplication(student, selected);
+            Application app;
+            try {
+                app = AdmissionController.await(admissionController.submitApplication(student, selected));
+            } catch (SystemBusyException | SaveFailedException e) {
+                System.out.println("\n✗ " + e.getMessage());
+                return;
+            }
             if (app != null) {
                 System.out.println("\n✓ Application submitted successfully!");
                 System.out.println("Application ID: " + app.getApplicationID());
@@ -124,30 +132,42 @@ public class StudentUI {
         System.out.println("\n=== MY APPLICATIONS ===");
 
         List<Application> applications = student.getApplications();
+        int archived = student.getArchivedApplicationCount();
 
-        if (applications.isEmpty()) {
+        if (applications.isEmpty() && archived == 0) {
             System.out.println("You have not applied for any internships yet.");
             return;
         }
 
-        System.out.println("Total Applications: " + applications.size());
+        System.out.println("Total Applications: " + (applications.size() + archived));
         System.out.println();
 
         for (int i = 0; i < applications.size(); i++) {
-            Application app = applications.get(i);
-            System.out.printf("%d. Application ID: %s%n", i + 1, app.getApplicationID());
-            System.out.printf("   Internship: %s%n", app.getOpportunity().getTitle());
-            System.out.printf("   Company: %s%n", app.getOpportunity().getCompanyName());
-            System.out.printf("   Status: %s%n", app.getStatus());
-            System.out.printf("   Applied On: %s%n", app.getApplicationDate());
-
-            if (app.getWithdrawalRequest() != null) {
-                System.out.printf("   Withdrawal Status: %s%n",
-                        app.getWithdrawalRequest().getStatus());
+            printApplication(i + 1, applications.get(i));
+        }
+
+        if (archived > 0 && InputValidator.getConfirmation(scanner,
+                "Show " + archived + " archived applications from past semesters?")) {
+            List<Application> history = archiveManager.getArchivedApplications(student);
+            for (int i = 0; i < history.size(); i++) {
+                printApplication(applications.size() + i + 1, history.get(i));
             }
+        }
+    }
 
-            System.out.println("   " + "-".repeat(50));
+    private void printApplication(int number, Application app) {
+        System.out.printf("%d. Application ID: %s%n", number, app.getApplicationID());
+        System.out.printf("   Internship: %s%n", app.getOpportunity().getTitle());
+        System.out.printf("   Company: %s%n", app.getOpportunity().getCompanyName());
+        System.out.printf("   Status: %s%n", app.getStatus());
+        System.out.printf("   Applied On: %s%n", app.getApplicationDate());
+
+        if (app.getWithdrawalRequest() != null) {
+            System.out.printf("   Withdrawal Status: %s%n",
+                    app.getWithdrawalRequest().getStatus());
         }
+
+        System.out.println("   " + "-".repeat(50));
     }
 
     /**
@@ -194,10 +214,14 @@ public class StudentUI {
         System.out.println("\n⚠ WARNING: Accepting this placement will withdraw all other applications.");
 
         if (InputValidator.getConfirmation(scanner, "Confirm acceptance?")) {
-            if (applicationManager.acceptPlacement(student, selected)) {
-                System.out.println("\n✓ Placement accepted successfully!");
-                System.out.println("Congratulations on your internship at " +
-                        selected.getOpportunity().getCompanyName());
+            try {
+                if (AdmissionController.await(admissionController.acceptPlacement(student, selected))) {
+                    System.out.println("\n✓ Placement accepted successfully!");
+                    System.out.println("Congratulations on your internship at " +
+                            selected.getOpportunity().getCompanyName());
+                }
+            } catch (SystemBusyException | SaveFailedException e) {
+                System.out.println("\n✗ " + e.getMessage());
             }
         }
     }
@@ -242,7 +266,13 @@ public class StudentUI {
         String reason = InputValidator.getStringInput(scanner, "Reason for withdrawal: ");
 
         if (InputValidator.getConfirmation(scanner, "Confirm withdrawal request?")) {
-            WithdrawalRequest request = applicationManager.requestWithdrawal(selected, reason);
+            WithdrawalRequest request;
+            try {
+                request = AdmissionController.await(admissionController.requestWithdrawal(selected, reason));
+            } catch (SystemBusyException | SaveFailedException e) {
+                System.out.println("\n✗ " + e.getMessage());
+                return;
+            }
             System.out.println("\n✓ Withdrawal request submitted.");
             System.out.println("Request ID: " + request.getRequestID());
             System.out.println("Pending approval from Career Center Staff.");
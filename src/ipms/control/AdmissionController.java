@@ -0,0 +1,239 @@
+// ========== AdmissionController.java (SINGLETON) ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the command pipeline.
+ * Each user has a token bucket limiting how fast they can submit
+ * mutations, and a global bound caps mutations in flight. Requests over
+ * either limit are turned away at once with "busy, retry in N s" rather
+ * than queueing, so latency stays bounded and readers are not starved
+ * when demand exceeds what the writer can commit.
+ * Each command takes the acting user, which the managers record in the
+ * audit log.
+ * Implements SINGLETON pattern
+ */
+public class AdmissionController {
+    private static final int BURST = 5;               // Tokens a user can spend at once
+    private static final double REFILL_PER_SECOND = 0.5;
+    private static final int MAX_IN_FLIGHT = 512;
+
+    private static AdmissionController instance;
+    private final CommandPipeline pipeline;
+    private final Map<String, TokenBucket> buckets;
+    private final Semaphore inFlight;
+    private final AtomicLong admitted;
+    private final AtomicLong rateLimited;
+    private final AtomicLong overloaded;
+
+    /**
+     * Token bucket refilled continuously at a fixed rate
+     */
+    private static class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerSecond / 1e9;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * Take a token if one is available
+         *
+         * @return 0 if taken, otherwise nanoseconds until one will be
+         */
+        synchronized long tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / refillPerNano);
+        }
+
+        synchronized void refund() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+    }
+
+    private AdmissionController() {
+        this.pipeline = CommandPipeline.getInstance();
+        this.buckets = new ConcurrentHashMap<>();
+        this.inFlight = new Semaphore(MAX_IN_FLIGHT);
+        this.admitted = new AtomicLong();
+        this.rateLimited = new AtomicLong();
+        this.overloaded = new AtomicLong();
+    }
+
+    public static synchronized AdmissionController getInstance() {
+        if (instance == null) {
+            instance = new AdmissionController();
+        }
+        return instance;
+    }
+
+    /**
+     * Wait for an admitted request's outcome
+     *
+     * @throws SystemBusyException if the request was turned away
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Application> submitApplication(Student student, InternshipOpportunity internship) {
+        return admit(student, () -> pipeline.submitApplication(student, internship));
+    }
+
+    public CompletableFuture<Void> reviewApplication(User reviewer, Application app, boolean approve) {
+        return admit(reviewer, () -> pipeline.reviewApplication(reviewer, app, approve));
+    }
+
+    public CompletableFuture<Void> reviewApplications(User reviewer, Collection<Application> apps, boolean approve) {
+        return admit(reviewer, () -> pipeline.reviewApplications(reviewer, apps, approve));
+    }
+
+    public CompletableFuture<List<Application>> reviewShortlist(User reviewer, InternshipOpportunity internship,
+            int n, ShortlistOrder order, boolean rejectOthers) {
+        return admit(reviewer, () -> pipeline.reviewShortlist(reviewer, internship, n, order, rejectOthers));
+    }
+
+    public CompletableFuture<Void> waitlistApplication(User reviewer, Application app, int rank) {
+        return admit(reviewer, () -> pipeline.waitlistApplication(reviewer, app, rank));
+    }
+
+    public CompletableFuture<Boolean> acceptPlacement(Student student, Application app) {
+        return admit(student, () -> pipeline.acceptPlacement(student, app));
+    }
+
+    public CompletableFuture<WithdrawalRequest> requestWithdrawal(Application app, String reason) {
+        return admit(app.getStudent(), () -> pipeline.requestWithdrawal(app, reason));
+    }
+
+    public CompletableFuture<Void> approveWithdrawal(User staff, WithdrawalRequest request) {
+        return admit(staff, () -> pipeline.approveWithdrawal(staff, request));
+    }
+
+    public CompletableFuture<Void> rejectWithdrawal(User staff, WithdrawalRequest request) {
+        return admit(staff, () -> pipeline.rejectWithdrawal(staff, request));
+    }
+
+    public CompletableFuture<Boolean> commitPlacements(User staff, Collection<Application> placements) {
+        return admit(staff, () -> pipeline.commitPlacements(staff, placements));
+    }
+
+    public CompletableFuture<InternshipOpportunity> createInternship(String title, String description,
+            InternshipLevel level, String preferredMajor, LocalDate openingDate, LocalDate closingDate,
+            String companyName, CompanyRepresentative rep, int numSlots) {
+        return admit(rep, () -> pipeline.createInternship(title, description, level, preferredMajor,
+                openingDate, closingDate, companyName, rep, numSlots));
+    }
+
+    public CompletableFuture<Void> approveInternship(User staff, InternshipOpportunity internship) {
+        return admit(staff, () -> pipeline.approveInternship(staff, internship));
+    }
+
+    public CompletableFuture<Void> rejectInternship(User staff, InternshipOpportunity internship) {
+        return admit(staff, () -> pipeline.rejectInternship(staff, internship));
+    }
+
+    public CompletableFuture<Void> toggleVisibility(User rep, InternshipOpportunity internship) {
+        return admit(rep, () -> pipeline.toggleVisibility(rep, internship));
+    }
+
+    public CompletableFuture<Void> approveRepresentative(User staff, CompanyRepresentative rep) {
+        return admit(staff, () -> pipeline.approveRepresentative(staff, rep));
+    }
+
+    public CompletableFuture<Void> rejectRepresentative(User staff, CompanyRepresentative rep) {
+        return admit(staff, () -> pipeline.rejectRepresentative(staff, rep));
+    }
+
+    public CompletableFuture<Integer> approveRepresentatives(User staff, Predicate<CompanyRepresentative> rule) {
+        return admit(staff, () -> pipeline.approveRepresentatives(staff, rule));
+    }
+
+    public CompletableFuture<Integer> approveInternships(User staff, Predicate<InternshipOpportunity> rule) {
+        return admit(staff, () -> pipeline.approveInternships(staff, rule));
+    }
+
+    public CompletableFuture<Integer> approveWithdrawals(User staff, Predicate<WithdrawalRequest> rule) {
+        return admit(staff, () -> pipeline.approveWithdrawals(staff, rule));
+    }
+
+    public CompletableFuture<String> undoBulkApproval(User staff) {
+        return admit(staff, () -> pipeline.undoBulkApproval(staff));
+    }
+
+    public long getAdmitted() { return admitted.get(); }
+    public long getRateLimited() { return rateLimited.get(); }
+    public long getOverloaded() { return overloaded.get(); }
+    public int getInFlight() { return MAX_IN_FLIGHT - inFlight.availablePermits(); }
+
+    /**
+     * Admit a command if the user has a token and there is room in flight;
+     * otherwise fail fast with a retry hint
+     */
+    private <T> CompletableFuture<T> admit(User user, Supplier<CompletableFuture<T>> command) {
+        TokenBucket bucket = buckets.computeIfAbsent(user.getUserID(),
+                id -> new TokenBucket(BURST, REFILL_PER_SECOND));
+        long wait = bucket.tryAcquire();
+        if (wait > 0) {
+            rateLimited.incrementAndGet();
+            return CompletableFuture.failedFuture(new SystemBusyException(toSeconds(wait)));
+        }
+        if (!inFlight.tryAcquire()) {
+            bucket.refund(); // Not the user's fault
+            overloaded.incrementAndGet();
+            return CompletableFuture.failedFuture(new SystemBusyException(estimateDrainSeconds()));
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = command.get();
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        admitted.incrementAndGet();
+        return future.whenComplete((result, failure) -> inFlight.release());
+    }
+
+    /**
+     * Estimate how long the writer needs to work through the current queue
+     */
+    private long estimateDrainSeconds() {
+        double throughput = pipeline.getThroughput();
+        if (throughput <= 0) {
+            return 1;
+        }
+        return Math.max(1, (long) Math.ceil(pipeline.getQueueLength() / throughput));
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + 999_999_999L));
+    }
+}
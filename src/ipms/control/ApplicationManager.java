@@ -3,27 +3,115 @@ package ipms.control;
 
 import ipms.entity.*;
 import java.io.*;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Manages all internship applications
+ * Applications are partitioned into shards by the company of the
+ * internship; each shard has its own lock, indexes and file, and only
+ * shards touched by a change are saved.
+ * In event-sourced mode (-Dipms.eventSourced=true) changes are appended to
+ * an event log instead, and the shards are saved only as periodic
+ * checkpoints; startup loads the last checkpoint and replays the events
+ * logged since. Once the flag is turned off, the next start replays the
+ * log one last time, saves the result to the shards and retires the log.
+ * With a heap budget (-Dipms.applicationHeapMB=N), each shard keeps its
+ * share of it resident and pages the least recently used applications out
+ * to data/pages; nothing here holds every application at once.
  * Implements SINGLETON pattern
  */
 public class ApplicationManager {
     private static ApplicationManager instance;
-    private List<Application> applications;
-    private List<WithdrawalRequest> withdrawalRequests;
+    private static final int SHARD_COUNT = 8;
+    private static final String SHARDS_DIRECTORY = "data/applications";
+    private static final String LEGACY_APPLICATIONS_FILE = "data/applications.dat";
+    private static final String QUARANTINE_DIRECTORY = "data/quarantine";
+    private static final String PLACEMENT_JOURNAL_FILE = "data/placements.journal";
+    private static final String EVENTS_DIRECTORY = "data/events";
+    private static final String PAGES_DIRECTORY = "data/pages";
+    private static final long HEAP_BUDGET_MB = Long.getLong("ipms.applicationHeapMB", 0); // 0 for no limit
+    private static final boolean EVENT_SOURCED = Boolean.getBoolean("ipms.eventSourced");
+    private static final int CHECKPOINT_INTERVAL = 1000; // Events between checkpoints
+    private static final long SHUTDOWN_DRAIN_MILLIS = 2_000; // Wait for subscribers to catch up
+
+    private final ApplicationShard[] shards;
+    private EventLog eventLog; // Null unless event-sourced, or a log from event-sourced runs not yet retired
+    private final PlacementJournal placementJournal;
     private int nextAppID;
     private int nextReqID;
-    private static final String APPLICATIONS_FILE = "data/applications.dat";
+    private final Waitlist waitlist;
+    private final PlacementAnalytics analytics;
+    private final ApplicationSketches sketches;
+    private final AtomicLong version;
+    private final EventBus events;
+    private int batchDepth;
+    private boolean rewriteOnLoad; // Loaded in an older format or with reasons appended to the text segment; saved once
 
     private ApplicationManager() {
-        this.applications = new ArrayList<>();
-        this.withdrawalRequests = new ArrayList<>();
+        File eventsDirectory = new File(EVENTS_DIRECTORY);
+        this.eventLog = EVENT_SOURCED || EventLog.exists(eventsDirectory) ? new EventLog(eventsDirectory) : null;
+        File checkpoint = eventLog == null ? null : eventLog.getCheckpointDirectory();
+        this.shards = new ApplicationShard[SHARD_COUNT];
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards[i] = newShard(i);
+        }
         this.nextAppID = 1;
         this.nextReqID = 1;
-        loadApplications();
+        this.waitlist = new Waitlist();
+        this.analytics = new PlacementAnalytics();
+        this.version = new AtomicLong();
+        this.events = EventBus.getInstance();
+        AuditLog.getInstance(); // Subscribes to the bus before the first event
+        this.placementJournal = new PlacementJournal(new File(PLACEMENT_JOURNAL_FILE));
+        migrateLegacyFile();
+        InternshipOpportunity.setApplicationSource(opp -> shardFor(opp).forOpportunity(opp.getKey()));
+        if (eventLog == null) {
+            setHeapBudget(); // Before loading, so no more than the budget is ever resident
+        }
+        loadApplications(checkpoint != null ? checkpoint : new File(SHARDS_DIRECTORY));
+        if (eventLog != null) {
+            setHeapBudget(); // Replay holds every application anyway
+        }
+        PlacementJournal.Batch interrupted = placementJournal.read();
+        if (interrupted != null) {
+            redoPlacements(interrupted);
+        }
+        waitlist.rebuild(inKeyOrder());
+        analytics.rebuild(DomainEvent.ApplicationOutcome.of(inKeyOrder()),
+                ArchiveManager.getInstance().getAnalyticsTotals());
+        sketches = ApplicationSketches.load(inKeyOrder(), getApplicationCount(), ArchiveManager.getInstance());
+        if (eventLog != null && !EVENT_SOURCED) {
+            retireEventLog();
+        } else if (eventLog != null && (checkpoint == null || rewriteOnLoad)) {
+            // The first run in event-sourced mode starts from the saved shards. Replayed
+            // requests are checkpointed too, so their reasons are not appended on every start.
+            checkpoint();
+        } else if (rewriteOnLoad) {
+            saveApplications(); // So upgraded records are converted, and reasons appended, only once
+        }
+        if (interrupted != null && saveApplications() & InternshipManager.getInstance().saveInternships()) {
+            placementJournal.clear();
+        }
+
+        // Derived state follows changes from the event bus, off the write path
+        events.subscribe("application-version", event -> {
+            if (event instanceof DomainEvent.ApplicationEvent) {
+                version.incrementAndGet();
+            }
+        });
+        events.subscribe("placement-analytics", analytics::onEvent);
+        events.subscribe("application-sketches", sketches::onEvent);
+        events.subscribe("waitlist-promotions", waitlist::onEvent);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            events.drain(SHUTDOWN_DRAIN_MILLIS);
+            sketches.save();
+            waitlist.flush(); // Buffered promotions
+        }));
     }
 
     public static ApplicationManager getInstance() {
@@ -33,42 +121,363 @@ public class ApplicationManager {
         return instance;
     }
 
+    private ApplicationShard newShard(int index) {
+        return new ApplicationShard(index, new File(SHARDS_DIRECTORY), new File(PAGES_DIRECTORY),
+                key -> InternshipManager.getInstance().getInternship(key));
+    }
+
+    /**
+     * Give each shard its share of the heap budget
+     */
+    private void setHeapBudget() {
+        for (ApplicationShard shard : shards) {
+            shard.setBudget(HEAP_BUDGET_MB * 1024 * 1024 / SHARD_COUNT);
+        }
+    }
+
+    /**
+     * Get the shard holding applications for an internship's company
+     */
+    private ApplicationShard shardFor(InternshipOpportunity internship) {
+        return shards[Math.floorMod(internship.getCompanyNameCode(), SHARD_COUNT)];
+    }
+
+    /**
+     * Load all shards, resolving internships to the live objects. Students
+     * are not read: applications resolve them by ID on first use, and a
+     * student's application list and accepted placement are attached from
+     * the shards, which are the source of truth for them, when the student
+     * is read from the user store.
+     * A shard holding applications whose student or internship no longer
+     * exists is copied to the quarantine directory first, since the next
+     * save of the shard leaves them out.
+     *
+     * @param directory Directory to read the shard files from, their own or a checkpoint
+     */
+    private void loadApplications(File directory) {
+        UserManager users = UserManager.getInstance();
+        Function<String, Student> students = userID -> users.getUser(userID) instanceof Student student
+                ? student : null;
+        IntMap<InternshipOpportunity> opportunities = new IntMap<>();
+        InternshipManager.getInstance().forEachInternship(opp -> opportunities.put(opp.getKey(), opp));
+
+        List<Application> replayed = eventLog != null ? new ArrayList<>() : null; // Replay needs them all at once
+        for (ApplicationShard shard : shards) {
+            // One shard file at a time, so with a heap budget the rest stay paged out
+            List<Application> loaded = new ArrayList<>();
+            List<WithdrawalRequest> requests = new ArrayList<>();
+            BitSet accepted = new BitSet();
+            shard.read(directory, opportunities, loaded, requests, accepted);
+            long unresolved = loaded.stream()
+                    .filter(app -> !isResolvable(users, app))
+                    .count();
+            if (unresolved > 0) {
+                File copy = shard.quarantine(directory, new File(QUARANTINE_DIRECTORY));
+                System.err.println("Skipped " + unresolved + " applications with unknown students or internships"
+                        + (copy != null ? "; the shard file was kept as " + copy : "."));
+            }
+
+            loaded.sort(Comparator.comparingInt(Application::getKey));
+            for (Application app : loaded) {
+                nextAppID = Math.max(nextAppID, app.getKey() + 1); // Never reuse a quarantined key
+                if (!isResolvable(users, app)) {
+                    continue;
+                }
+                shardFor(app.getOpportunity()).add(app);
+                if (accepted.get(app.getKey())) {
+                    if (app.getStatus() == ApplicationStatus.SUCCESSFUL) {
+                        app.setAcceptedPlacement(true);
+                    } else {
+                        System.err.println("Ignored accepted placement " + app.getApplicationID()
+                                + " with status " + app.getStatus());
+                    }
+                }
+                if (app.isLegacyFormat()) {
+                    app.getStudentMajorCode(); // Read once here, then saved with the application
+                    rewriteOnLoad = true;
+                }
+                if (replayed != null) {
+                    replayed.add(app);
+                }
+            }
+            requests.sort(Comparator.comparingInt(WithdrawalRequest::getKey));
+            for (WithdrawalRequest request : requests) {
+                if (isResolvable(users, request.getApplication())) {
+                    shardFor(request.getApplication().getOpportunity()).addWithdrawal(request);
+                } // Otherwise kept in the quarantined copy
+                nextReqID = Math.max(nextReqID, request.getKey() + 1);
+                rewriteOnLoad |= request.isLegacyFormat();
+            }
+        }
+        // Nor a key that only survives in the archive
+        ArchiveManager archive = ArchiveManager.getInstance();
+        nextAppID = Math.max(nextAppID, archive.getMaxApplicationKey() + 1);
+        nextReqID = Math.max(nextReqID, archive.getMaxRequestKey() + 1);
+
+        // Students read from now on, and any already in memory, get their applications from the shards
+        users.setStudentLoader(this::attachApplications);
+        if (eventLog != null) {
+            replayEvents(students, opportunities, replayed);
+        }
+        for (ApplicationShard shard : shards) {
+            shard.markClean();
+        }
+    }
+
+    /**
+     * Check that an application's student and internship exist, from the
+     * user index alone
+     */
+    private static boolean isResolvable(UserManager users, Application app) {
+        return app.getOpportunity() != null && users.isStudent(app.getStudentID());
+    }
+
+    /**
+     * Give a student read from the user store its applications and accepted
+     * placement from the shards
+     */
+    private void attachApplications(Student student) {
+        List<Application> apps = new ArrayList<>();
+        for (ApplicationShard shard : shards) {
+            apps.addAll(shard.forStudent(student.getUserID()));
+        }
+        apps.sort(Comparator.comparingInt(Application::getKey));
+        Application accepted = apps.stream().filter(Application::isAcceptedPlacement).findFirst().orElse(null);
+        student.getApplications().clear();
+        student.getApplications().addAll(apps);
+        student.acceptPlacement(null);
+        if (accepted != null) {
+            student.acceptPlacement(accepted);
+        }
+    }
+
+    /**
+     * Replay events logged since the checkpoint onto the loaded applications,
+     * then index the applications and requests the replay created
+     */
+    private void replayEvents(Function<String, Student> students,
+            IntMap<InternshipOpportunity> opportunities, List<Application> loaded) {
+        long start = System.nanoTime();
+        List<EventLog.Entry> entries = eventLog.readSinceCheckpoint();
+        if (entries.isEmpty()) {
+            return;
+        }
+        EventReplay replay = new EventReplay(students, opportunities, loaded);
+        replay.replay(entries);
+
+        List<Application> created = new ArrayList<>(replay.getCreated());
+        created.sort(Comparator.comparingInt(Application::getKey));
+        for (Application app : created) {
+            shardFor(app.getOpportunity()).add(app);
+        }
+        List<WithdrawalRequest> requests = new ArrayList<>(replay.getCreatedRequests());
+        requests.sort(Comparator.comparingInt(WithdrawalRequest::getKey));
+        for (WithdrawalRequest request : requests) {
+            shardFor(request.getApplication().getOpportunity()).addWithdrawal(request);
+        }
+        rewriteOnLoad |= !requests.isEmpty();
+        // The internships file may be behind the log or ahead of it
+        if (!replay.getPlacementChanges().isEmpty()) {
+            replay.getPlacementChanges().forEach(this::matchFilledSlots);
+            InternshipManager.getInstance().saveInternships();
+        }
+
+        // Keys are never reused, even for submissions that could not be replayed
+        for (EventLog.Entry entry : entries) {
+            if (entry.kind() == EventLog.Kind.SUBMITTED) {
+                nextAppID = Math.max(nextAppID, entry.applicationKey() + 1);
+            } else if (entry.kind() == EventLog.Kind.WITHDRAWAL_REQUESTED) {
+                nextReqID = Math.max(nextReqID, entry.requestKey() + 1);
+            }
+        }
+        if (replay.getSkipped() > 0) {
+            System.err.println("Skipped " + replay.getSkipped() + " events for unknown students or internships.");
+        }
+        System.out.println("Replayed " + entries.size() + " events since the last checkpoint in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
     /**
-     * Load applications from file
+     * Split a single applications.dat from older versions into shards
      */
     @SuppressWarnings("unchecked")
-    private void loadApplications() {
-        File file = new File(APPLICATIONS_FILE);
-        if (file.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(
-                    new FileInputStream(file))) {
-                applications = (List<Application>) ois.readObject();
-                withdrawalRequests = (List<WithdrawalRequest>) ois.readObject();
-                nextAppID = ois.readInt();
-                nextReqID = ois.readInt();
-            } catch (IOException | ClassNotFoundException e) {
-                System.err.println("Error loading applications: " + e.getMessage());
+    private void migrateLegacyFile() {
+        File legacy = new File(LEGACY_APPLICATIONS_FILE);
+        if (!legacy.exists()) {
+            return;
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new FileInputStream(legacy))) {
+            List<Application> apps = (List<Application>) ois.readObject();
+            List<WithdrawalRequest> requests = (List<WithdrawalRequest>) ois.readObject();
+            for (Application app : apps) {
+                shardFor(app.getOpportunity()).add(app);
+            }
+            for (WithdrawalRequest request : requests) {
+                shardFor(request.getApplication().getOpportunity()).addWithdrawal(request);
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error loading applications: " + e.getMessage());
+            return;
+        }
+        for (ApplicationShard shard : shards) {
+            shard.save();
+        }
+        if (!legacy.renameTo(new File(LEGACY_APPLICATIONS_FILE + ".migrated"))) {
+            System.err.println("Could not rename " + LEGACY_APPLICATIONS_FILE + " after migration.");
+        }
+        // Start from empty shards; loading reads back what was just written
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards[i] = newShard(i);
+        }
+    }
+
+    /**
+     * Save every shard. In event-sourced mode this writes a checkpoint, so
+     * changes made outside the log (e.g. an undo) are captured.
+     *
+     * @return true if everything was saved
+     */
+    public boolean saveApplications() {
+        if (eventLog != null) {
+            return checkpoint();
+        }
+        for (ApplicationShard shard : shards) {
+            shard.markDirty();
+        }
+        return flush();
+    }
+
+    /**
+     * Save the shards changed since they were last saved, in parallel
+     *
+     * @return true if nothing is left unsaved
+     */
+    private boolean flush() {
+        if (eventLog != null) {
+            if (eventLog.flush()) {
+                events.publish(new DomainEvent.ApplicationsSaved());
+            }
+            if (eventLog.getSinceCheckpoint() >= CHECKPOINT_INTERVAL) {
+                checkpoint();
             }
+            return eventLog.isFlushed();
         }
+        boolean changed = false;
+        for (ApplicationShard shard : shards) {
+            changed |= shard.isDirty();
+        }
+        if (!changed) {
+            return true;
+        }
+        TextSegment.getInstance().force(); // Withdrawal reasons the shards refer to
+        boolean saved = Arrays.stream(shards).parallel()
+                .filter(ApplicationShard::isDirty)
+                .map(ApplicationShard::save)
+                .reduce(true, Boolean::logicalAnd);
+        if (saved) {
+            events.publish(new DomainEvent.ApplicationsSaved());
+        }
+        return saved;
     }
 
     /**
-     * Save applications to file
+     * Save every shard as a checkpoint of the event log, so restart only
+     * replays events logged after it.
+     * If any shard fails to save, the checkpoint is not committed and the
+     * previous one, with the log since, stays authoritative.
+     *
+     * @return true if the checkpoint was committed
      */
-    public void saveApplications() {
-        try {
-            File file = new File(APPLICATIONS_FILE);
-            file.getParentFile().mkdirs();
+    private boolean checkpoint() {
+        eventLog.flush();
+        long sequence = eventLog.getLastSequence();
+        File directory = eventLog.nextCheckpointDirectory();
+        TextSegment.getInstance().force();
+        boolean saved = Arrays.stream(shards).parallel()
+                .map(shard -> shard.saveTo(directory))
+                .reduce(true, Boolean::logicalAnd);
+        if (!saved) {
+            System.err.println("Checkpoint not committed; events since the last one are kept.");
+            return false;
+        }
+        eventLog.commitCheckpoint(sequence);
+        events.publish(new DomainEvent.ApplicationsSaved());
+        return true;
+    }
+
+    /**
+     * Save what was replayed from a log left by event-sourced runs to the
+     * shards, which are authoritative again, and move the log aside.
+     * If either step fails, the log stays in use for this run and is
+     * retired on the next start.
+     */
+    private void retireEventLog() {
+        TextSegment.getInstance().force();
+        boolean saved = Arrays.stream(shards).parallel()
+                .map(ApplicationShard::save)
+                .reduce(true, Boolean::logicalAnd);
+        File retired = saved ? eventLog.retire() : null;
+        if (retired == null) {
+            System.err.println("Event sourcing is off, but the event log could not be retired; it stays in use.");
+            return;
+        }
+        eventLog = null;
+        System.out.println("Event sourcing is off: saved the applications from the event log to "
+                + SHARDS_DIRECTORY + " and moved the log to " + retired + ".");
+    }
+
+    /**
+     * Record an event in the log when event-sourced, and publish it to subscribers.
+     * Called before persist() so the entry is written by the same flush.
+     */
+    private void emit(DomainEvent event) {
+        if (eventLog != null) {
+            eventLog.append(event);
+        }
+        events.publish(event);
+    }
 
-            try (ObjectOutputStream oos = new ObjectOutputStream(
-                    new FileOutputStream(file))) {
-                oos.writeObject(applications);
-                oos.writeObject(withdrawalRequests);
-                oos.writeInt(nextAppID);
-                oos.writeInt(nextReqID);
+    /**
+     * Run several mutations with a single save at the end.
+     * Saves requested inside the batch are deferred until it completes.
+     *
+     * @return false if the save at the end of the batch failed; the
+     *         changes stay marked dirty for the next save
+     */
+    public boolean runInBatch(Runnable mutations) {
+        batchDepth++;
+        boolean saved = true;
+        try {
+            mutations.run();
+        } finally {
+            if (--batchDepth == 0) {
+                saved = flush();
             }
-        } catch (IOException e) {
-            System.err.println("Error saving applications: " + e.getMessage());
+        }
+        return saved;
+    }
+
+    /**
+     * Mark the given applications changed, so their pages are written
+     * again, and save their shards now unless a batch is in progress
+     */
+    private void persist(Application... touched) {
+        for (Application app : touched) {
+            shardFor(app.getOpportunity()).markDirty(app);
+        }
+        if (batchDepth == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Mark the shards of all of a student's applications changed, e.g. when
+     * accepting a placement withdraws the others
+     */
+    private void touchStudent(Student student) {
+        for (Application app : student.getApplications()) {
+            shardFor(app.getOpportunity()).markDirty(app);
         }
     }
 
@@ -82,15 +491,17 @@ public class ApplicationManager {
             return null;
         }
 
-        if (!internship.isEligibleStudent(student)) {
+        InternshipManager internships = InternshipManager.getInstance();
+        internships.advanceLifecycle();
+        if (!internship.isEligibleStudent(student, internships.getLifecycle().today())) {
             System.out.println("Not eligible for this internship.");
             return null;
         }
 
         // Check for duplicate application
-        for (Application app : applications) {
-            if (app.getStudent().equals(student) &&
-                    app.getOpportunity().equals(internship) &&
+        ApplicationShard shard = shardFor(internship);
+        for (Application app : shard.forStudent(student.getUserID())) {
+            if (app.getOpportunity().equals(internship) &&
                     app.getStatus() != ApplicationStatus.WITHDRAWN) {
                 System.out.println("Already applied for this internship.");
                 return null;
@@ -98,34 +509,182 @@ public class ApplicationManager {
         }
 
         // Create new application
-        String appID = "APP" + String.format("%05d", nextAppID++);
-        Application app = new Application(appID, student, internship);
+        Application app = new Application(nextAppID++, student, internship);
 
-        applications.add(app);
+        shard.add(app);
         student.addApplication(app);
-        internship.addApplication(app);
 
-        saveApplications();
+        emit(new DomainEvent.ApplicationSubmitted(student.getUserID(), DomainEvent.ApplicationInfo.of(app)));
+        persist(app);
         return app;
     }
 
     /**
      * Review application (by company rep)
+     *
+     * @param reviewer User reviewing, for the audit log
      */
-    public void reviewApplication(Application app, boolean approve) {
+    public void reviewApplication(User reviewer, Application app, boolean approve) {
+        app.setWaitlisted(false);
+        boolean offered = approve && app.getStatus() != ApplicationStatus.SUCCESSFUL;
         if (approve) {
             app.setStatus(ApplicationStatus.SUCCESSFUL);
         } else {
             app.setStatus(ApplicationStatus.UNSUCCESSFUL);
         }
+        emit(new DomainEvent.ApplicationReviewed(DomainEvent.actorOf(reviewer), DomainEvent.ApplicationInfo.of(app),
+                approve, offered));
+        persist(app);
+    }
+
+    /**
+     * Review a set of applications with the same decision, saving once
+     */
+    public void reviewApplications(User reviewer, Collection<Application> apps, boolean approve) {
+        runInBatch(() -> {
+            for (Application app : apps) {
+                reviewApplication(reviewer, app, approve);
+            }
+        });
+    }
+
+    /**
+     * Get the top N pending applications for an internship by the given ordering
+     */
+    public List<Application> shortlist(InternshipOpportunity internship, int n,
+            ShortlistOrder order) {
+        if (n <= 0) {
+            return new ArrayList<>();
+        }
+        // Bounded heap keeps the best N seen so far, worst at the head
+        Comparator<Application> comparator = order.getComparator();
+        PriorityQueue<Application> top = new PriorityQueue<>(comparator.reversed());
+        for (Application app : internship.getApplications()) {
+            if (app.getStatus() != ApplicationStatus.PENDING) {
+                continue;
+            }
+            top.add(app);
+            if (top.size() > n) {
+                top.poll();
+            }
+        }
+        List<Application> result = new ArrayList<>(top);
+        result.sort(comparator);
+        return result;
+    }
+
+    /**
+     * Approve the top N pending applications and optionally reject the rest, saving once
+     *
+     * @return The approved applications
+     */
+    public List<Application> reviewShortlist(User reviewer, InternshipOpportunity internship, int n,
+            ShortlistOrder order, boolean rejectOthers) {
+        List<Application> approved = shortlist(internship, n, order);
+        runInBatch(() -> {
+            reviewApplications(reviewer, approved, true);
+            if (rejectOthers) {
+                Set<Application> keep = new HashSet<>(approved);
+                List<Application> others = new ArrayList<>();
+                for (Application app : internship.getApplications()) {
+                    if (app.getStatus() == ApplicationStatus.PENDING && !keep.contains(app)) {
+                        others.add(app);
+                    }
+                }
+                reviewApplications(reviewer, others, false);
+            }
+        });
+        return approved;
+    }
+
+    /**
+     * Place a pending application on its internship's waitlist at a given
+     * rank, or re-rank it if already there (by company rep).
+     * Applications with equal ranks are offered slots by application date.
+     *
+     * @param reviewer User waitlisting, for the audit log
+     * @param rank     1 for the first to be offered a freed slot
+     */
+    public void waitlistApplication(User reviewer, Application app, int rank) {
+        if (app.getStatus() != ApplicationStatus.PENDING || rank < 1) {
+            return;
+        }
+        if (app.isWaitlisted()) {
+            waitlist.remove(app);
+        }
+        app.setWaitlisted(true);
+        app.setWaitlistRank(rank);
+        waitlist.add(app);
+        emit(new DomainEvent.ApplicationWaitlisted(DomainEvent.actorOf(reviewer), DomainEvent.ApplicationInfo.of(app),
+                rank));
+        persist(app);
+    }
+
+    /**
+     * Rebuild waitlists and analytics from current state, e.g. after an undo
+     */
+    public void rebuildDerivedState() {
+        waitlist.rebuild(inKeyOrder());
+        events.publish(new DomainEvent.ApplicationsReset(DomainEvent.ApplicationOutcome.of(inKeyOrder())));
+    }
+
+    /**
+     * Drop applications moved to the archive from the shards and students,
+     * and save. Derived state is rebuilt from what remains.
+     */
+    void removeArchived(Set<Application> archived) {
+        if (archived.isEmpty()) {
+            return;
+        }
+        for (ApplicationShard shard : shards) {
+            shard.removeAll(archived);
+        }
+        UserManager users = UserManager.getInstance();
+        for (Application app : archived) {
+            Student student = app.getStudent();
+            student.archiveApplication(app);
+            users.markDirty(student); // Archived count and placement are saved with the student
+        }
+        rebuildDerivedState();
         saveApplications();
     }
 
+    /**
+     * Get the application data version, bumped by a bus subscriber after
+     * every change. Cached results computed at an older version are discarded.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Get the ranked waitlist for an internship
+     */
+    public List<Application> getWaitlist(InternshipOpportunity internship) {
+        return waitlist.getWaitlist(internship);
+    }
+
+    /**
+     * Get the placement analytics, kept up to date as applications change
+     */
+    public PlacementAnalytics getAnalytics() {
+        return analytics;
+    }
+
+    /**
+     * Get the approximate analytics sketches over all applications ever submitted
+     */
+    public ApplicationSketches getSketches() {
+        return sketches;
+    }
+
     /**
      * Student accepts placement
      */
     public boolean acceptPlacement(Student student, Application app) {
         if (student.acceptPlacement(app)) {
+            LocalDate today = InternshipManager.getInstance().getLifecycle().today();
+            app.setAcceptedDate(today);
             app.getOpportunity().incrementFilledSlots();
 
             // Check if internship is now filled
@@ -133,83 +692,340 @@ public class ApplicationManager {
             if (opp.getFilledSlots() >= opp.getNumSlots()) {
                 opp.setStatus(OpportunityStatus.FILLED);
             }
+            InternshipManager.getInstance().refresh(opp);
 
-            saveApplications();
-            InternshipManager.getInstance().saveInternships();
+            touchStudent(student);
+            emit(new DomainEvent.PlacementAccepted(student.getUserID(), DomainEvent.ApplicationInfo.of(app), today,
+                    false, false));
+            persist(app);
+            InternshipManager.getInstance().persist();
             return true;
         }
         return false;
     }
 
+    /**
+     * Commit a batch of placements as one transaction.
+     * Every placement is validated before any is applied. The batch is then
+     * recorded in the placement journal, which is the commit point, and
+     * applied; the journal is cleared once applications and internships are
+     * both saved. If either save fails, or the system stops in between, the
+     * next start finishes the batch from the journal.
+     *
+     * @param staff Staff member allocating, for the audit log
+     * @return false if nothing was committed
+     */
+    public boolean commitPlacements(User staff, Collection<Application> placements) {
+        Map<InternshipOpportunity, Integer> demand = new HashMap<>();
+        Set<Student> students = new HashSet<>();
+        for (Application app : placements) {
+            if (!PlacementAllocator.isAllocatable(app) || !students.add(app.getStudent())) {
+                System.out.println("Allocation is out of date: " + app.getApplicationID());
+                return false;
+            }
+            demand.merge(app.getOpportunity(), 1, Integer::sum);
+        }
+        for (Map.Entry<InternshipOpportunity, Integer> entry : demand.entrySet()) {
+            InternshipOpportunity opp = entry.getKey();
+            if (opp.getFilledSlots() + entry.getValue() > opp.getNumSlots()) {
+                System.out.println("Not enough slots left for " + opp.getOpportunityID());
+                return false;
+            }
+        }
+
+        LocalDate today = InternshipManager.getInstance().getLifecycle().today();
+        if (!placementJournal.write(placements, today)) {
+            System.out.println("Could not record the allocation; no placements were made.");
+            return false;
+        }
+        List<DomainEvent> accepted = new ArrayList<>();
+        for (Application app : placements) {
+            accepted.add(new DomainEvent.PlacementAccepted(DomainEvent.actorOf(staff),
+                    DomainEvent.ApplicationInfo.of(app), today, app.getStatus() != ApplicationStatus.SUCCESSFUL, true));
+            app.setStatus(ApplicationStatus.SUCCESSFUL);
+            app.setAcceptedDate(today);
+            app.getStudent().acceptPlacement(app);
+            app.getOpportunity().incrementFilledSlots();
+            InternshipManager.getInstance().refresh(app.getOpportunity());
+            touchStudent(app.getStudent());
+        }
+
+        accepted.forEach(this::emit);
+        // Saved now even inside a batch, so the journal can be cleared
+        if (flush() & InternshipManager.getInstance().saveInternships()) {
+            placementJournal.clear();
+        } else {
+            System.err.println("Placements are committed and will be saved again on the next start.");
+        }
+        return true;
+    }
+
+    /**
+     * Finish a placement batch recorded in the journal but not known to be
+     * saved. Placements are made again only for applications still able to
+     * take them (not withdrawn, student not placed elsewhere), and filled
+     * slots are raised to match the accepted placements, so a batch that was
+     * partly or wholly saved is not applied twice.
+     */
+    private void redoPlacements(PlacementJournal.Batch batch) {
+        Set<InternshipOpportunity> touched = new HashSet<>();
+        int redone = 0;
+        for (Application app : inKeyOrder()) {
+            if (!batch.applicationKeys().contains(app.getKey())) {
+                continue;
+            }
+            touched.add(app.getOpportunity());
+            Student student = app.getStudent();
+            if (student.getAcceptedPlacement() == null && (app.getStatus() == ApplicationStatus.PENDING
+                    || app.getStatus() == ApplicationStatus.SUCCESSFUL)) {
+                app.setStatus(ApplicationStatus.SUCCESSFUL);
+                app.setAcceptedDate(batch.date());
+                student.acceptPlacement(app);
+                touchStudent(student);
+                redone++;
+            }
+        }
+        touched.forEach(this::matchFilledSlots);
+        System.out.println("Finished an interrupted placement allocation (" + redone + " placements redone).");
+    }
+
+    /**
+     * Set an internship's filled slots to its number of accepted placements
+     */
+    private void matchFilledSlots(InternshipOpportunity opp) {
+        long placed = opp.getApplications().stream()
+                .filter(Application::isAcceptedPlacement)
+                .count();
+        while (opp.getFilledSlots() < placed) {
+            opp.incrementFilledSlots();
+        }
+        while (opp.getFilledSlots() > placed) {
+            opp.decrementFilledSlots();
+        }
+        if (opp.getFilledSlots() >= opp.getNumSlots()) {
+            opp.setStatus(OpportunityStatus.FILLED);
+        }
+        InternshipManager.getInstance().refresh(opp);
+    }
+
     /**
      * Request withdrawal
      */
     public WithdrawalRequest requestWithdrawal(Application app, String reason) {
-        boolean isAfterPlacement = (app.getStudent().getAcceptedPlacement() == app);
+        boolean isAfterPlacement = app.isAcceptedPlacement();
 
-        String reqID = "WR" + String.format("%05d", nextReqID++);
-        WithdrawalRequest request = new WithdrawalRequest(reqID, app, reason, isAfterPlacement);
+        WithdrawalRequest request = new WithdrawalRequest(nextReqID++, app, reason, isAfterPlacement);
 
-        withdrawalRequests.add(request);
+        shardFor(app.getOpportunity()).addWithdrawal(request);
         app.setWithdrawalRequest(request);
 
-        saveApplications();
+        emit(new DomainEvent.WithdrawalRequested(app.getStudentID(), DomainEvent.ApplicationInfo.of(app),
+                request.getKey(), request.getRequestID(), request.getReason(), request.getRequestDate(),
+                isAfterPlacement));
+        persist(app);
         return request;
     }
 
     /**
      * Approve withdrawal (by staff)
+     *
+     * @param staff Staff member approving, for the audit log
      */
-    public void approveWithdrawal(WithdrawalRequest request) {
+    public void approveWithdrawal(User staff, WithdrawalRequest request) {
         request.setStatus(WithdrawalStatus.APPROVED);
         request.getApplication().setStatus(ApplicationStatus.WITHDRAWN);
 
         // If it was an accepted placement, decrement filled slots
         Application app = request.getApplication();
+        Application promoted = null;
         if (request.isAfterPlacement()) {
             app.getOpportunity().decrementFilledSlots(); 
             app.getStudent().acceptPlacement(null); // Clear accepted placement
+            InternshipManager.getInstance().refresh(app.getOpportunity());
+
+            // Offer the freed slot to the top waitlisted candidate
+            promoted = waitlist.promote(app.getOpportunity());
         }
 
-        saveApplications();
+        emit(new DomainEvent.WithdrawalDecided(DomainEvent.actorOf(staff), DomainEvent.ApplicationInfo.of(app),
+                request.getKey(), request.getRequestID(), request.isAfterPlacement(), true));
+        if (promoted != null) {
+            emit(new DomainEvent.WaitlistPromoted(DomainEvent.ApplicationInfo.of(promoted),
+                    InternshipManager.getInstance().getLifecycle().today()));
+            persist(app, promoted);
+        } else {
+            persist(app);
+        }
     }
 
     /**
      * Reject withdrawal
+     *
+     * @param staff Staff member rejecting, for the audit log
      */
-    public void rejectWithdrawal(WithdrawalRequest request) {
+    public void rejectWithdrawal(User staff, WithdrawalRequest request) {
         request.setStatus(WithdrawalStatus.REJECTED);
-        saveApplications();
+        emit(new DomainEvent.WithdrawalDecided(DomainEvent.actorOf(staff),
+                DomainEvent.ApplicationInfo.of(request.getApplication()), request.getKey(), request.getRequestID(),
+                request.isAfterPlacement(), false));
+        persist(request.getApplication());
     }
 
     /**
      * Get applications for an internship
      */
     public List<Application> getApplicationsForInternship(InternshipOpportunity internship) {
-        return applications.stream()
-                .filter(a -> a.getOpportunity().equals(internship))
-                .collect(Collectors.toList());
+        return shardFor(internship).forOpportunity(internship.getKey());
     }
 
     /**
-     * Get applications for a student
+     * Get applications for a student, querying all shards in parallel
      */
     public List<Application> getApplicationsForStudent(Student student) {
-        return applications.stream()
-                .filter(a -> a.getStudent().equals(student))
+        return Arrays.stream(shards).parallel()
+                .flatMap(shard -> shard.forStudent(student.getUserID()).stream())
+                .sorted(Comparator.comparingInt(Application::getKey))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get pending withdrawal requests
+     * Get pending withdrawal requests, querying all shards in parallel
      */
     public List<WithdrawalRequest> getPendingWithdrawals() {
-        return withdrawalRequests.stream()
+        return Arrays.stream(shards).parallel()
+                .flatMap(shard -> shard.getWithdrawals().stream())
                 .filter(r -> r.getStatus() == WithdrawalStatus.PENDING)
+                .sorted(Comparator.comparingInt(WithdrawalRequest::getKey))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Visit every application in ID order without copying them all, e.g.
+     * for streaming exports
+     */
+    public void forEachApplication(Consumer<Application> action) {
+        inKeyOrder().forEach(action);
+    }
+
+    /**
+     * Visit the applications a page at a time, in no particular order, so
+     * that only one page is held per call
+     */
+    public void forEachPage(Consumer<List<Application>> action) {
+        for (ApplicationShard shard : shards) {
+            List<Application> page;
+            for (int number = 0; (page = shard.getPage(number)) != null; number++) {
+                action.accept(page);
+            }
+        }
+    }
+
+    /**
+     * Visit every withdrawal request, shard by shard
+     */
+    public void forEachWithdrawal(Consumer<WithdrawalRequest> action) {
+        for (ApplicationShard shard : shards) {
+            shard.getWithdrawals().forEach(action);
+        }
+    }
+
+    /**
+     * Get all applications in ID order. Every page is read, so prefer
+     * forEachApplication() or forEachPage() for large scans.
+     */
     public List<Application> getAllApplications() {
-        return new ArrayList<>(applications);
+        List<Application> all = new ArrayList<>(getApplicationCount());
+        inKeyOrder().forEach(all::add);
+        return all;
+    }
+
+    /**
+     * Get the number of live applications
+     */
+    public int getApplicationCount() {
+        int count = 0;
+        for (ApplicationShard shard : shards) {
+            count += shard.size();
+        }
+        return count;
+    }
+
+    /**
+     * Get paging statistics: page hits, faults (and how many of them were
+     * served from applications still in use), average fault time, evictions
+     * and resident size against the budget
+     */
+    public String getPageStatistics() {
+        long hits = 0;
+        long faults = 0;
+        long reused = 0;
+        long faultNanos = 0;
+        long evictions = 0;
+        long resident = 0;
+        for (ApplicationShard shard : shards) {
+            hits += shard.getHits();
+            faults += shard.getFaults();
+            reused += shard.getReusedFaults();
+            faultNanos += shard.getFaultNanos();
+            evictions += shard.getEvictions();
+            resident += shard.getResidentBytes();
+        }
+        long total = hits + faults;
+        return String.format("%d hits, %d faults (%.1f%% hit rate, %d without reading), %.1f us per fault, "
+                + "%d evictions, %d KB resident%s", hits, faults, total == 0 ? 0.0 : hits * 100.0 / total, reused,
+                faults == 0 ? 0.0 : faultNanos / 1000.0 / faults, evictions, resident / 1024,
+                HEAP_BUDGET_MB == 0 ? " (no budget)" : " of " + HEAP_BUDGET_MB * 1024 + " KB");
+    }
+
+    /**
+     * Iterate over all applications in key order, merging the shards page
+     * by page, so only the pages being visited are held
+     */
+    private Iterable<Application> inKeyOrder() {
+        return () -> new Iterator<>() {
+            private final PriorityQueue<Head> heads = new PriorityQueue<>(
+                    Comparator.comparingInt(head -> head.next.getKey()));
+
+            {
+                for (ApplicationShard shard : shards) {
+                    Iterator<Application> rest = shard.iterator();
+                    if (rest.hasNext()) {
+                        heads.add(new Head(rest));
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Application next() {
+                Head head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                Application app = head.next;
+                if (head.rest.hasNext()) {
+                    head.next = head.rest.next();
+                    heads.add(head);
+                }
+                return app;
+            }
+        };
+    }
+
+    /**
+     * The next application of one shard in a merge
+     */
+    private static class Head {
+        private final Iterator<Application> rest;
+        private Application next;
+
+        Head(Iterator<Application> rest) {
+            this.rest = rest;
+            this.next = rest.next();
+        }
     }
 }
\ No newline at end of file
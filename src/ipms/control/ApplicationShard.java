@@ -0,0 +1,853 @@
+// ========== ApplicationShard.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.io.*;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * One partition of the application store, holding the applications (and
+ * their withdrawal requests) for a subset of companies.
+ * Each shard has its own lock, indexes and file, so work on different
+ * companies does not contend and only changed shards are written.
+ * Applications save their student's user ID, and internships are saved as
+ * ID references and resolved to the live objects on load, so shard files
+ * never duplicate each other's data. Students are not read on load; the
+ * shard is indexed by student ID and never reads a student under its lock.
+ * Files keep the display IDs the entities had before surrogate keys, so
+ * shards written by earlier versions stay readable.
+ * Applications are held in pages of up to PAGE_SIZE in key order, and the
+ * indexes hold keys. Given a heap budget, the least recently used pages
+ * beyond it are written to a page file and dropped, and read back under
+ * the shard's read lock when next used. An application still referenced
+ * elsewhere (by a student, a waitlist or a caller) is taken back as the
+ * same object, so no one ever holds a stale copy.
+ */
+class ApplicationShard {
+    static final int PAGE_SIZE = 256;
+    private static final long APPLICATION_BYTES = 160; // Estimated application with its dates and student ID
+    private static final long REQUEST_BYTES = 96; // Estimated withdrawal request
+
+    private final int index;
+    private final File file;
+    private final File pageFile;
+    private final IntFunction<InternshipOpportunity> internships; // Resolves internships in pages read back
+    private final ReadWriteLock lock;
+    private final List<Page> pages; // In key order; guarded by lock
+    private final Map<String, List<Integer>> byStudent; // Application keys; guarded by lock
+    private final IntMap<List<Integer>> byOpportunity; // Application keys; guarded by lock
+    private final List<Integer> withdrawals; // Keys of applications with a request, in request order
+    private int size; // Guarded by lock
+    private int maxKey; // Guarded by lock
+    private volatile boolean dirty;
+
+    private final LinkedHashMap<Page, Boolean> resident; // Access order, eldest first; guarded by itself
+    private final ReferenceQueue<Application> collected;
+    private final AtomicLong residentBytes;
+    private volatile long budget; // 0 for no limit
+    private FileChannel channel; // Page file, opened on the first eviction; guarded by this
+    private long pageFileEnd; // Guarded by this
+    private final AtomicLong hits;
+    private final AtomicLong faults;
+    private final AtomicLong reused; // Faults served from applications still referenced elsewhere
+    private final AtomicLong faultNanos;
+    private final AtomicLong evictions;
+
+    /**
+     * Reference to a student (in files from earlier versions) or internship
+     * stored in place of the object
+     */
+    private record EntityRef(char kind, String id) implements Serializable {
+    }
+
+    /**
+     * A run of applications in key order, either resident or written out
+     * to the page file. Residency changes under the page's monitor, so
+     * readers holding the shard's read lock can fault and evict concurrently.
+     */
+    private final class Page {
+        private int firstKey;
+        private int count;
+        private ArrayList<Application> apps; // Null while evicted
+        private long bytes; // Estimated size while resident
+        private long offset = -1; // Image in the page file
+        private int length;
+        private int capacity;
+        private boolean stale = true; // The image is missing or older than the applications
+        private ApplicationReference[] outside; // While evicted: applications that may be referenced elsewhere
+        private int outsideCount;
+
+        Page(int firstKey) {
+            this.firstKey = firstKey;
+            this.apps = new ArrayList<>();
+        }
+
+        /**
+         * Get the applications, reading them back if the page was evicted
+         */
+        synchronized List<Application> load() {
+            if (apps != null) {
+                hits.incrementAndGet();
+                return apps;
+            }
+            long start = System.nanoTime();
+            ArrayList<Application> loaded = takeOutside();
+            if (loaded != null) {
+                reused.incrementAndGet();
+            } else {
+                loaded = readImage();
+                for (int i = 0; outside != null && i < loaded.size(); i++) {
+                    Application live = outside[i] == null ? null : outside[i].get();
+                    if (live != null) {
+                        loaded.set(i, live);
+                        stale = true; // It may have changed since the image was written
+                    }
+                }
+            }
+            outside = null;
+            outsideCount = 0;
+            apps = loaded;
+            faults.incrementAndGet();
+            faultNanos.addAndGet(System.nanoTime() - start);
+            changed(false);
+            return apps;
+        }
+
+        /**
+         * Take the applications back without reading the image, if every
+         * one of them is still referenced elsewhere
+         */
+        private ArrayList<Application> takeOutside() {
+            if (outside == null || outsideCount < count) {
+                return null;
+            }
+            ArrayList<Application> live = new ArrayList<>(count);
+            for (ApplicationReference ref : outside) {
+                Application app = ref == null ? null : ref.get();
+                if (app == null) {
+                    return null;
+                }
+                live.add(app);
+            }
+            stale = true;
+            return live;
+        }
+
+        /**
+         * Re-estimate the resident size after the applications changed
+         *
+         * @param modified false if only made resident
+         */
+        void changed(boolean modified) {
+            long estimate = 0;
+            for (Application app : apps) {
+                estimate += app.getWithdrawalRequest() == null ? APPLICATION_BYTES
+                        : APPLICATION_BYTES + REQUEST_BYTES;
+            }
+            residentBytes.addAndGet(estimate - bytes);
+            bytes = estimate;
+            count = apps.size();
+            stale |= modified;
+        }
+
+        /**
+         * Write the page out if it changed and drop the applications
+         *
+         * @return false if the page file could not be written; the page stays resident
+         */
+        synchronized boolean evict() {
+            if (apps == null) {
+                return true;
+            }
+            if (stale && !writeImage()) {
+                return false;
+            }
+            outside = new ApplicationReference[apps.size()];
+            for (int i = 0; i < outside.length; i++) {
+                outside[i] = new ApplicationReference(apps.get(i), this, i);
+            }
+            outsideCount = outside.length;
+            apps = null;
+            residentBytes.addAndGet(-bytes);
+            bytes = 0;
+            evictions.incrementAndGet();
+            return true;
+        }
+
+        /**
+         * Drop the page for good, e.g. when the shard is repaginated
+         */
+        synchronized void discard() {
+            if (apps != null) {
+                residentBytes.addAndGet(-bytes);
+            }
+            apps = null;
+            outside = null;
+            outsideCount = 0;
+        }
+
+        synchronized void forget(ApplicationReference ref) {
+            if (outside != null && outside[ref.slot] == ref) {
+                outside[ref.slot] = null;
+                outsideCount--;
+            }
+        }
+
+        /**
+         * Write the applications and their accepted flags, which are not
+         * serialized, reusing the page's slot in the file if the image fits
+         */
+        private boolean writeImage() {
+            try {
+                ByteArrayOutputStream image = new ByteArrayOutputStream();
+                BitSet accepted = new BitSet();
+                for (int i = 0; i < apps.size(); i++) {
+                    accepted.set(i, apps.get(i).isAcceptedPlacement());
+                }
+                try (ObjectOutputStream oos = new ReferenceOutputStream(image)) {
+                    oos.writeObject(apps);
+                    oos.writeObject(accepted);
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(image.toByteArray());
+                synchronized (ApplicationShard.this) {
+                    if (offset < 0 || buffer.remaining() > capacity) {
+                        offset = pageFileEnd;
+                        capacity = buffer.remaining();
+                        pageFileEnd += capacity;
+                    }
+                }
+                length = buffer.remaining();
+                FileChannel channel = channel();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, offset + buffer.position());
+                }
+                stale = false;
+                return true;
+            } catch (IOException e) {
+                System.err.println("Error writing application page in shard " + index + ": " + e.getMessage());
+                return false;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private ArrayList<Application> readImage() {
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(length);
+                FileChannel channel = channel();
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, offset + buffer.position()) < 0) {
+                        throw new EOFException("Page file is truncated");
+                    }
+                }
+                Function<EntityRef, Object> resolver = ref -> ref.kind() == 'S'
+                        ? ref.id() : internships.apply(InternshipOpportunity.parseID(ref.id()));
+                try (ObjectInputStream ois = new ReferenceInputStream(
+                        new ByteArrayInputStream(buffer.array()), resolver)) {
+                    ArrayList<Application> loaded = (ArrayList<Application>) ois.readObject();
+                    BitSet accepted = (BitSet) ois.readObject();
+                    for (int i = 0; i < loaded.size(); i++) {
+                        loaded.get(i).setAcceptedPlacement(accepted.get(i));
+                    }
+                    return loaded;
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                // Never carry on without the applications, or the next save would drop them
+                throw new UncheckedIOException("Error reading application page in shard " + index,
+                        e instanceof IOException io ? io : new IOException(e));
+            }
+        }
+    }
+
+    /**
+     * Tracks an evicted application that may still be referenced elsewhere
+     */
+    private final class ApplicationReference extends WeakReference<Application> {
+        private final Page page;
+        private final int slot;
+
+        ApplicationReference(Application app, Page page, int slot) {
+            super(app, collected);
+            this.page = page;
+            this.slot = slot;
+        }
+    }
+
+    ApplicationShard(int index, File directory, File pageDirectory, IntFunction<InternshipOpportunity> internships) {
+        this.index = index;
+        this.file = new File(directory, String.format("shard-%02d.dat", index));
+        this.pageFile = new File(pageDirectory, String.format("shard-%02d.pages", index));
+        this.internships = internships;
+        this.lock = new ReentrantReadWriteLock();
+        this.pages = new ArrayList<>();
+        this.byStudent = new HashMap<>();
+        this.byOpportunity = new IntMap<>();
+        this.withdrawals = new ArrayList<>();
+        this.resident = new LinkedHashMap<>(16, 0.75f, true);
+        this.collected = new ReferenceQueue<>();
+        this.residentBytes = new AtomicLong();
+        this.hits = new AtomicLong();
+        this.faults = new AtomicLong();
+        this.reused = new AtomicLong();
+        this.faultNanos = new AtomicLong();
+        this.evictions = new AtomicLong();
+    }
+
+    void add(Application app) {
+        lock.writeLock().lock();
+        try {
+            insert(app);
+            byStudent.computeIfAbsent(app.getStudentID(), k -> new ArrayList<>()).add(app.getKey());
+            byOpportunity.computeIfAbsent(app.getOpportunity().getKey(), k -> new ArrayList<>()).add(app.getKey());
+            dirty = true;
+            trim(null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void addWithdrawal(WithdrawalRequest request) {
+        lock.writeLock().lock();
+        try {
+            withdrawals.add(request.getApplication().getKey());
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add an application to the page covering its key, starting a new page
+     * when the last one is full. Called under the write lock.
+     */
+    private void insert(Application app) {
+        int key = app.getKey();
+        Page page = pages.isEmpty() ? null : pages.get(pageIndex(key));
+        if (page == null || (key > maxKey && page.count >= PAGE_SIZE)) {
+            page = new Page(key);
+            pages.add(page);
+        }
+        List<Application> apps = access(page);
+        synchronized (page) {
+            int position = apps.size();
+            while (position > 0 && apps.get(position - 1).getKey() > key) {
+                position--;
+            }
+            apps.add(position, app);
+            page.firstKey = Math.min(page.firstKey, key);
+            page.changed(true);
+        }
+        maxKey = Math.max(maxKey, key);
+        size++;
+    }
+
+    /**
+     * Get the index of the page that holds, or would hold, a key
+     */
+    private int pageIndex(int key) {
+        int low = 0;
+        int high = pages.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (pages.get(mid).firstKey <= key) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get a page's applications, faulting it in if evicted, and make it the
+     * most recently used. Called under the read or write lock.
+     */
+    private List<Application> access(Page page) {
+        Object ref;
+        while ((ref = collected.poll()) != null) {
+            ApplicationReference collectedRef = (ApplicationReference) ref;
+            collectedRef.page.forget(collectedRef);
+        }
+        List<Application> apps = page.load();
+        synchronized (resident) {
+            resident.put(page, Boolean.TRUE);
+        }
+        return apps;
+    }
+
+    /**
+     * Evict the least recently used pages, other than the one in use, while
+     * over budget. Called under the read or write lock.
+     */
+    private void trim(Page inUse) {
+        long limit = budget;
+        while (limit > 0 && residentBytes.get() > limit) {
+            Page eldest = null;
+            synchronized (resident) {
+                for (Page page : resident.keySet()) {
+                    if (page != inUse) {
+                        eldest = page;
+                        break;
+                    }
+                }
+                if (eldest == null) {
+                    return;
+                }
+                resident.remove(eldest);
+            }
+            if (!eldest.evict()) {
+                return; // Over budget until the page file can be written
+            }
+        }
+    }
+
+    /**
+     * Get an application by key, under the read or write lock
+     */
+    private Application find(int key) {
+        if (pages.isEmpty()) {
+            return null;
+        }
+        Page page = pages.get(pageIndex(key));
+        List<Application> apps = access(page);
+        trim(page);
+        int low = 0;
+        int high = apps.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midKey = apps.get(mid).getKey();
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return apps.get(mid);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Set the heap budget for resident pages and evict down to it
+     *
+     * @param bytes Estimated bytes, 0 for no limit
+     */
+    void setBudget(long bytes) {
+        budget = bytes;
+        lock.readLock().lock();
+        try {
+            trim(null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drop applications (and their withdrawal requests) moved to the archive.
+     * The remaining applications are paginated afresh.
+     */
+    void removeAll(Set<Application> removed) {
+        lock.writeLock().lock();
+        try {
+            List<Application> kept = new ArrayList<>(size);
+            for (Page page : pages) {
+                for (Application app : access(page)) {
+                    if (!removed.contains(app)) {
+                        kept.add(app);
+                    }
+                }
+                trim(page);
+            }
+            if (kept.size() == size) {
+                return;
+            }
+            for (Page page : pages) {
+                page.discard();
+            }
+            synchronized (resident) {
+                resident.clear();
+            }
+            pages.clear();
+            byStudent.clear();
+            byOpportunity.clear();
+            withdrawals.clear();
+            size = 0;
+            maxKey = 0;
+            List<WithdrawalRequest> requests = new ArrayList<>();
+            for (Application app : kept) {
+                insert(app);
+                byStudent.computeIfAbsent(app.getStudentID(), k -> new ArrayList<>()).add(app.getKey());
+                byOpportunity.computeIfAbsent(app.getOpportunity().getKey(), k -> new ArrayList<>())
+                        .add(app.getKey());
+                if (app.getWithdrawalRequest() != null) {
+                    requests.add(app.getWithdrawalRequest());
+                }
+                trim(null);
+            }
+            requests.sort(Comparator.comparingInt(WithdrawalRequest::getKey));
+            requests.forEach(request -> withdrawals.add(request.getApplication().getKey()));
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Iterate over the shard's applications in key order, a page at a time,
+     * so only the page being visited is held. Changes made meanwhile may or
+     * may not be seen.
+     */
+    Iterator<Application> iterator() {
+        return new Iterator<>() {
+            private int next;
+            private List<Application> page = List.of();
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while (position == page.size()) {
+                    List<Application> apps = getPage(next++);
+                    if (apps == null) {
+                        return false;
+                    }
+                    page = apps;
+                    position = 0;
+                }
+                return true;
+            }
+
+            @Override
+            public Application next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(position++);
+            }
+        };
+    }
+
+    /**
+     * Get a copy of one page's applications
+     *
+     * @return null past the last page
+     */
+    List<Application> getPage(int number) {
+        lock.readLock().lock();
+        try {
+            if (number >= pages.size()) {
+                return null;
+            }
+            Page page = pages.get(number);
+            List<Application> apps = new ArrayList<>(access(page));
+            trim(page);
+            return apps;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Application> forStudent(String userID) {
+        lock.readLock().lock();
+        try {
+            return resolve(byStudent.get(userID));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Application> forOpportunity(int opportunityKey) {
+        lock.readLock().lock();
+        try {
+            return resolve(byOpportunity.get(opportunityKey));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<WithdrawalRequest> getWithdrawals() {
+        lock.readLock().lock();
+        try {
+            List<WithdrawalRequest> requests = new ArrayList<>(withdrawals.size());
+            for (Application app : resolve(withdrawals)) {
+                requests.add(app.getWithdrawalRequest());
+            }
+            return requests;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Application> resolve(List<Integer> keys) {
+        List<Application> apps = new ArrayList<>(keys == null ? 0 : keys.size());
+        if (keys != null) {
+            for (int key : keys) {
+                Application app = find(key);
+                if (app != null) {
+                    apps.add(app);
+                }
+            }
+        }
+        return apps;
+    }
+
+    void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Mark the shard changed by a change to one of its applications, which
+     * the caller holds. Its page is made resident again, taking back the
+     * caller's object, so the change is in the next image written.
+     */
+    void markDirty(Application app) {
+        lock.readLock().lock();
+        try {
+            if (!pages.isEmpty()) {
+                Page page = pages.get(pageIndex(app.getKey()));
+                access(page);
+                synchronized (page) {
+                    page.changed(true);
+                }
+                trim(page);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        dirty = true;
+    }
+
+    void markClean() {
+        dirty = false;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getFaults() {
+        return faults.get();
+    }
+
+    long getReusedFaults() {
+        return reused.get();
+    }
+
+    long getFaultNanos() {
+        return faultNanos.get();
+    }
+
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    long getResidentBytes() {
+        return residentBytes.get();
+    }
+
+    /**
+     * Open the page file on first use. It only holds this run's evicted
+     * pages, so it starts empty.
+     */
+    private synchronized FileChannel channel() throws IOException {
+        if (channel == null) {
+            pageFile.getParentFile().mkdirs();
+            channel = FileChannel.open(pageFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        return channel;
+    }
+
+    /**
+     * Write the shard to its file. The shard is marked clean before the
+     * snapshot is taken, so a change made meanwhile leaves it dirty.
+     *
+     * @return true if written
+     */
+    boolean save() {
+        dirty = false;
+        if (!save(file)) {
+            dirty = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Write the shard to the same-named file in another directory, e.g. for a checkpoint
+     *
+     * @return true if written
+     */
+    boolean saveTo(File directory) {
+        dirty = false;
+        if (!save(new File(directory, file.getName()))) {
+            dirty = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Write to a temporary file and move it over the target, so a crash
+     * mid-write leaves the previous file intact. Every page is read back
+     * for the write, which keeps the file format unchanged.
+     */
+    private boolean save(File file) {
+        File temp = new File(file.getPath() + ".tmp");
+        lock.readLock().lock();
+        try {
+            file.getParentFile().mkdirs();
+            ArrayList<Application> apps = new ArrayList<>(size);
+            for (Page page : pages) {
+                apps.addAll(access(page));
+            }
+            List<WithdrawalRequest> requests = new ArrayList<>(withdrawals.size());
+            for (int key : withdrawals) {
+                requests.add(find(key).getWithdrawalRequest());
+            }
+            List<String> accepted = new ArrayList<>();
+            for (Application app : apps) {
+                if (app.isAcceptedPlacement()) {
+                    accepted.add(app.getApplicationID());
+                }
+            }
+
+            try (FileOutputStream out = new FileOutputStream(temp);
+                    ObjectOutputStream oos = new ReferenceOutputStream(out)) {
+                oos.writeObject(apps);
+                oos.writeObject(requests);
+                oos.writeObject(accepted);
+                oos.flush();
+                out.getFD().sync();
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving application shard " + index + ": " + e.getMessage());
+            return false;
+        } finally {
+            trim(null);
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read the shard file, resolving internship references. Student
+     * references in older files become the user ID, like newer files hold.
+     * Nothing is added to this shard; the caller routes what was read.
+     *
+     * @param directory     Directory to read from, e.g. a checkpoint
+     * @param opportunities Live internships by key
+     * @param apps          Receives the applications in the file
+     * @param requests      Receives the withdrawal requests in the file
+     * @param accepted      Receives keys of applications that are accepted placements
+     */
+    @SuppressWarnings("unchecked")
+    void read(File directory, IntMap<InternshipOpportunity> opportunities, List<Application> apps,
+            List<WithdrawalRequest> requests, BitSet accepted) {
+        File file = new File(directory, this.file.getName());
+        if (!file.exists()) {
+            return;
+        }
+        Function<EntityRef, Object> resolver = ref -> ref.kind() == 'S'
+                ? ref.id() : opportunities.get(InternshipOpportunity.parseID(ref.id()));
+        try (ObjectInputStream ois = new ReferenceInputStream(new FileInputStream(file), resolver)) {
+            apps.addAll((List<Application>) ois.readObject());
+            requests.addAll((List<WithdrawalRequest>) ois.readObject());
+            for (String applicationID : (List<String>) ois.readObject()) {
+                accepted.set(Application.parseID(applicationID));
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error loading application shard " + index + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Copy the shard file read from a directory into a quarantine
+     * directory, before records that could not be resolved are left out of
+     * the next save. Copies are never overwritten.
+     *
+     * @return The copy, or null if it could not be made
+     */
+    File quarantine(File from, File directory) {
+        File file = new File(from, this.file.getName());
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File copy = new File(directory, file.getName() + "." + stamp);
+        for (int n = 2; copy.exists(); n++) {
+            copy = new File(directory, file.getName() + "." + stamp + "-" + n);
+        }
+        try {
+            directory.mkdirs();
+            Files.copy(file.toPath(), copy.toPath());
+            return copy;
+        } catch (IOException e) {
+            System.err.println("Error quarantining application shard " + index + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes internships, and any student still saved in place, as references
+     */
+    private static class ReferenceOutputStream extends ObjectOutputStream {
+        ReferenceOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj instanceof Student student) {
+                return new EntityRef('S', student.getUserID());
+            }
+            if (obj instanceof InternshipOpportunity opp) {
+                return new EntityRef('O', opp.getOpportunityID());
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * Resolves references back to live internships and student IDs
+     */
+    private static class ReferenceInputStream extends ObjectInputStream {
+        private final Function<EntityRef, Object> resolver;
+
+        ReferenceInputStream(InputStream in, Function<EntityRef, Object> resolver) throws IOException {
+            super(in);
+            this.resolver = resolver;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            return obj instanceof EntityRef ref ? resolver.apply(ref) : obj;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+// ========== ApplicationSketches.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Constant-memory approximate analytics over the full application history:
+ * distinct applicants per company, distinct majors applying per level and
+ * unique students per week (HyperLogLog), plus application volume per
+ * company (count-min).
+ * Fed from submission events on the EventBus, and saved by the same
+ * subscriber when the application data is saved, so the file always
+ * matches the data it summarises and never needs recomputing from the
+ * history.
+ */
+public class ApplicationSketches implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final String SKETCHES_FILE = "data/sketches.dat";
+    private static final int PRECISION = 10; // ~3.3% standard error, 1 KB per sketch
+    private static final int CMS_WIDTH = 2048;
+    private static final int CMS_DEPTH = 4;
+    // Declared so the maps are saved by their interface types, as they always have been
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("applicantsPerCompany", Map.class),
+            new ObjectStreamField("majorsPerLevel", Map.class),
+            new ObjectStreamField("studentsPerWeek", NavigableMap.class),
+            new ObjectStreamField("applicationsPerCompany", CountMinSketch.class),
+            new ObjectStreamField("observed", long.class)
+    };
+
+    private final Map<Integer, HyperLogLog> applicantsPerCompany;
+    private final Map<InternshipLevel, HyperLogLog> majorsPerLevel;
+    private final NavigableMap<LocalDate, HyperLogLog> studentsPerWeek;
+    private final CountMinSketch applicationsPerCompany;
+    private long observed;
+    private long savedObserved = -1; // Not in serialPersistentFields, so not saved
+
+    public ApplicationSketches() {
+        this.applicantsPerCompany = new HashMap<>();
+        this.majorsPerLevel = new EnumMap<>(InternshipLevel.class);
+        this.studentsPerWeek = new TreeMap<>();
+        this.applicationsPerCompany = new CountMinSketch(CMS_WIDTH, CMS_DEPTH);
+    }
+
+    /**
+     * Load saved sketches, rebuilding them if missing or out of step with
+     * the given and archived applications
+     *
+     * @param count Number of applications given
+     */
+    public static ApplicationSketches load(Iterable<Application> applications, int count, ArchiveManager archive) {
+        File file = new File(SKETCHES_FILE);
+        if (file.exists()) {
+            try (ObjectInputStream ois = new ObjectInputStream(
+                    new FileInputStream(file))) {
+                ApplicationSketches sketches = (ApplicationSketches) ois.readObject();
+                if (sketches.observed == count + archive.getArchivedApplicationCount()) {
+                    sketches.savedObserved = sketches.observed;
+                    return sketches;
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                System.err.println("Error loading sketches: " + e.getMessage());
+            }
+        }
+        ApplicationSketches sketches = new ApplicationSketches();
+        for (Application app : applications) {
+            sketches.recordSubmitted(DomainEvent.ApplicationInfo.of(app));
+        }
+        archive.forEachArchivedApplication(app -> sketches.recordSubmitted(DomainEvent.ApplicationInfo.of(app)));
+        sketches.save(); // So the next start does not rebuild again
+        return sketches;
+    }
+
+    /**
+     * Save sketches to file if they changed since last saved
+     */
+    public synchronized void save() {
+        if (observed == savedObserved) {
+            return;
+        }
+        File file = new File(SKETCHES_FILE);
+        File temp = new File(SKETCHES_FILE + ".tmp");
+        try {
+            file.getParentFile().mkdirs();
+
+            try (FileOutputStream out = new FileOutputStream(temp);
+                    ObjectOutputStream oos = new ObjectOutputStream(out)) {
+                oos.writeObject(this);
+                oos.flush();
+                out.getFD().sync();
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            savedObserved = observed;
+        } catch (IOException e) {
+            System.err.println("Error saving sketches: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Update the sketches from a domain event (EventBus subscriber).
+     * Saving here, in event order, means every submission published
+     * before the application data was saved is already counted.
+     */
+    public void onEvent(DomainEvent event) {
+        if (event instanceof DomainEvent.ApplicationSubmitted submitted) {
+            recordSubmitted(submitted.application());
+        } else if (event instanceof DomainEvent.ApplicationsSaved) {
+            save();
+        }
+    }
+
+    public synchronized void recordSubmitted(DomainEvent.ApplicationInfo app) {
+        long studentHash = hash(app.studentID());
+
+        applicantsPerCompany.computeIfAbsent(app.companyCode(), c -> new HyperLogLog(PRECISION))
+                .add(studentHash);
+        majorsPerLevel.computeIfAbsent(app.level(), l -> new HyperLogLog(PRECISION))
+                .add(mix(app.studentMajorCode()));
+        studentsPerWeek.computeIfAbsent(weekOf(app.applicationDate()), w -> new HyperLogLog(PRECISION))
+                .add(studentHash);
+        applicationsPerCompany.add(mix(app.companyCode()));
+        observed++;
+    }
+
+    /**
+     * Estimate distinct applicants per company, keyed by company name
+     */
+    public synchronized Map<String, Long> distinctApplicantsPerCompany() {
+        StringDictionary dictionary = StringDictionary.getInstance();
+        Map<String, Long> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        applicantsPerCompany.forEach((code, sketch) -> result.put(dictionary.decode(code), sketch.estimate()));
+        return result;
+    }
+
+    /**
+     * Estimate the number of applications made to a company
+     */
+    public synchronized int estimateApplications(String companyName) {
+        int code = StringDictionary.getInstance().lookup(companyName);
+        return code == StringDictionary.NONE ? 0 : applicationsPerCompany.estimate(mix(code));
+    }
+
+    /**
+     * Estimate distinct student majors applying per internship level
+     */
+    public synchronized Map<InternshipLevel, Long> distinctMajorsPerLevel() {
+        Map<InternshipLevel, Long> result = new EnumMap<>(InternshipLevel.class);
+        majorsPerLevel.forEach((level, sketch) -> result.put(level, sketch.estimate()));
+        return result;
+    }
+
+    /**
+     * Estimate unique students applying per week (keyed by the week's Monday)
+     * for weeks starting in a date range
+     */
+    public synchronized NavigableMap<LocalDate, Long> uniqueStudentsPerWeek(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Long> result = new TreeMap<>();
+        studentsPerWeek.subMap(weekOf(from), true, to, true)
+                .forEach((week, sketch) -> result.put(week, sketch.estimate()));
+        return result;
+    }
+
+    /**
+     * Estimate unique students applying across a date range, by merging weekly sketches
+     */
+    public synchronized long uniqueStudents(LocalDate from, LocalDate to) {
+        HyperLogLog union = new HyperLogLog(PRECISION);
+        studentsPerWeek.subMap(weekOf(from), true, to, true).values().forEach(union::merge);
+        return union.estimate();
+    }
+
+    private static LocalDate weekOf(LocalDate date) {
+        return date.with(DayOfWeek.MONDAY);
+    }
+
+    /**
+     * 64-bit FNV-1a over the characters, finished with a mixer so every bit is usable
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * MurmurHash3 64-bit finaliser
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
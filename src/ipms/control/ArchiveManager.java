@@ -0,0 +1,625 @@
+// ========== ArchiveManager.java (SINGLETON) ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for postings and applications from past semesters.
+ * Once an internship has closed, applications to it that were withdrawn
+ * or unsuccessful can no longer change. Neither can a rejected or filled
+ * internship once closed, so it is archived together with all its
+ * applications, accepted placements included, unless a withdrawal request
+ * on one is still pending. These are moved out of the managers into
+ * compressed, immutable segment files, one set per semester, so the hot
+ * working set and the files rewritten on every save stay bounded. Segment
+ * contents never change; a segment written by an earlier version is only
+ * rewritten once, in the current format, when first read. Only a
+ * small index is kept in memory, with counts per segment so reports and
+ * analytics still cover archived history; segments are read back on
+ * demand for a student's history or a full export.
+ * Implements SINGLETON pattern
+ */
+public class ArchiveManager {
+    private static final String ARCHIVE_DIRECTORY = "data/archive";
+    private static final String INDEX_FILE = "index.dat";
+    private static final int CACHED_SEGMENTS = 4;
+
+    private static ArchiveManager instance;
+    private final File directory;
+    private final Index index;
+    private final Map<Integer, Segment> cache;
+
+    /**
+     * Summary of one segment file, kept in the index
+     */
+    public static class SegmentInfo implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String fileName;
+        private final String semester;
+        private final int internships;
+        private final int[] statusCounts;
+        private long bytes; // Changes only if the segment is rewritten in the current format
+        // Null in indexes saved before they were kept, until summarise() fills them in
+        private int[] levelCounts;
+        private HashMap<Integer, Integer> majorCounts; // By student major code
+        private PlacementAnalytics.Totals analytics;
+
+        SegmentInfo(String fileName, String semester, int internships, int[] statusCounts, long bytes) {
+            this.fileName = fileName;
+            this.semester = semester;
+            this.internships = internships;
+            this.statusCounts = statusCounts;
+            this.bytes = bytes;
+        }
+
+        public String getSemester() { return semester; }
+        public int getInternships() { return internships; }
+        public int getApplications() { return Arrays.stream(statusCounts).sum(); }
+        public int getStatusCount(ApplicationStatus status) { return statusCounts[status.ordinal()]; }
+        public long getBytes() { return bytes; }
+        public int getLevelCount(InternshipLevel level) { return levelCounts[level.ordinal()]; }
+        public Map<Integer, Integer> getMajorCounts() { return Collections.unmodifiableMap(majorCounts); }
+        public Map<Integer, Integer> getCompanyCounts() { return analytics.getCompanyCounts(); }
+
+        /**
+         * Count the segment's applications by level and major, and for the
+         * placement analytics
+         */
+        void summarise(List<Application> apps) {
+            levelCounts = new int[InternshipLevel.values().length];
+            majorCounts = new HashMap<>();
+            analytics = new PlacementAnalytics.Totals();
+            for (Application app : apps) {
+                if (app.getStudent() == null || app.getOpportunity() == null) {
+                    continue; // No longer resolvable; still counted by status
+                }
+                levelCounts[app.getOpportunity().getLevel().ordinal()]++;
+                majorCounts.merge(app.getStudentMajorCode(), 1, Integer::sum);
+                analytics.record(DomainEvent.ApplicationOutcome.of(app));
+            }
+        }
+    }
+
+    /**
+     * Which segments hold what; the only archive state kept in memory
+     */
+    private static class Index implements Serializable {
+        private static final long serialVersionUID = 1L;
+        // Declared so the collections are saved by their interface types, as they always have been
+        private static final ObjectStreamField[] serialPersistentFields = {
+                new ObjectStreamField("segments", List.class),
+                new ObjectStreamField("studentSegments", Map.class),
+                new ObjectStreamField("internshipSegments", Map.class),
+                new ObjectStreamField("maxApplicationKey", int.class),
+                new ObjectStreamField("maxRequestKey", int.class),
+                new ObjectStreamField("maxKeysRecorded", boolean.class)
+        };
+
+        private final List<SegmentInfo> segments = new ArrayList<>();
+        private final Map<String, List<Integer>> studentSegments = new HashMap<>();
+        private final Map<String, Integer> internshipSegments = new HashMap<>(); // By display ID
+        private int maxApplicationKey;
+        private int maxRequestKey;
+        private boolean maxKeysRecorded = true; // False in indexes saved before the keys were
+    }
+
+    /**
+     * Contents of a segment once read back
+     */
+    private record Segment(List<InternshipOpportunity> internships, List<Application> applications) {
+    }
+
+    /**
+     * Reference to a user or live internship stored in place of the object.
+     * Internships are referred to by display ID, as before surrogate keys,
+     * so segments written by earlier versions stay readable.
+     */
+    private record EntityRef(char kind, String id) implements Serializable {
+    }
+
+    private ArchiveManager() {
+        this.directory = new File(ARCHIVE_DIRECTORY);
+        this.index = loadIndex();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Segment> eldest) {
+                return size() > CACHED_SEGMENTS;
+            }
+        };
+    }
+
+    public static synchronized ArchiveManager getInstance() {
+        if (instance == null) {
+            instance = new ArchiveManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Semester an internship belongs to, by closing date: S1 for January
+     * to June, S2 for July to December
+     */
+    public static String semesterOf(InternshipOpportunity internship) {
+        LocalDate date = internship.getClosingDate();
+        return date.getYear() + (date.getMonthValue() <= 6 ? "-S1" : "-S2");
+    }
+
+    /**
+     * Move every cold application and internship into new segments and
+     * drop them from the managers.
+     * Segments and the index are written before anything is removed, so a
+     * crash part-way can at worst leave an entity in both places, never lose it.
+     *
+     * @return Number of entities archived
+     */
+    public synchronized int archiveColdEntities() {
+        InternshipManager internshipManager = InternshipManager.getInstance();
+        ApplicationManager applicationManager = ApplicationManager.getInstance();
+        LocalDate today = internshipManager.getLifecycle().today();
+
+        Set<Application> coldSet = new LinkedHashSet<>();
+        applicationManager.forEachApplication(app -> {
+            if (isCold(app, today)) {
+                coldSet.add(app);
+            }
+        });
+        List<InternshipOpportunity> coldInternships = new ArrayList<>();
+        internshipManager.forEachInternship(opp -> {
+            if (isCold(opp, today)) {
+                coldInternships.add(opp);
+                coldSet.addAll(opp.getApplications());
+            }
+        });
+        if (coldSet.isEmpty() && coldInternships.isEmpty()) {
+            return 0;
+        }
+        List<Application> coldApps = new ArrayList<>(coldSet);
+
+        Map<String, List<InternshipOpportunity>> internshipsBySemester = new TreeMap<>();
+        Map<String, List<Application>> appsBySemester = new TreeMap<>();
+        for (InternshipOpportunity opp : coldInternships) {
+            internshipsBySemester.computeIfAbsent(semesterOf(opp), s -> new ArrayList<>()).add(opp);
+        }
+        for (Application app : coldApps) {
+            appsBySemester.computeIfAbsent(semesterOf(app.getOpportunity()), s -> new ArrayList<>()).add(app);
+        }
+        Set<String> semesters = new TreeSet<>(internshipsBySemester.keySet());
+        semesters.addAll(appsBySemester.keySet());
+        for (String semester : semesters) {
+            if (!writeSegment(semester, internshipsBySemester.getOrDefault(semester, List.of()),
+                    appsBySemester.getOrDefault(semester, List.of()))) {
+                return 0;
+            }
+        }
+        saveIndex();
+
+        // The user manager's copy of each representative, read while its
+        // internships can still be resolved
+        UserManager userManager = UserManager.getInstance();
+        List<CompanyRepresentative> reps = new ArrayList<>();
+        for (InternshipOpportunity opp : coldInternships) {
+            reps.add(userManager.getUser(opp.getRepresentative().getUserID()) instanceof CompanyRepresentative rep
+                    ? rep : null);
+        }
+
+        applicationManager.removeArchived(coldSet);
+        internshipManager.removeArchived(coldInternships);
+        for (int i = 0; i < coldInternships.size(); i++) {
+            if (reps.get(i) != null) {
+                reps.get(i).archiveInternship(coldInternships.get(i));
+                userManager.markDirty(reps.get(i));
+            }
+        }
+        userManager.saveUsers();
+
+        System.out.println("Archived " + coldApps.size() + " applications and " + coldInternships.size()
+                + " internships from past semesters.");
+        return coldApps.size() + coldInternships.size();
+    }
+
+    /**
+     * Get a student's archived applications, reading only the segments that hold them
+     */
+    public synchronized List<Application> getArchivedApplications(Student student) {
+        List<Integer> segments = index.studentSegments.get(student.getUserID());
+        if (segments == null) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Application> found = new TreeMap<>();
+        for (int number : segments) {
+            for (Application app : segment(number).applications()) {
+                if (student.getUserID().equals(app.getStudentID())) {
+                    found.putIfAbsent(app.getKey(), app);
+                }
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    /**
+     * Visit every archived application, reading segments one at a time
+     * without keeping them in memory
+     */
+    public synchronized void forEachArchivedApplication(Consumer<Application> action) {
+        for (int number = 0; number < index.segments.size(); number++) {
+            readSegment(number).applications().forEach(action);
+        }
+    }
+
+    /**
+     * Visit every archived internship, reading segments one at a time
+     */
+    public synchronized void forEachArchivedInternship(Consumer<InternshipOpportunity> action) {
+        for (int number = 0; number < index.segments.size(); number++) {
+            readSegment(number).internships().forEach(action);
+        }
+    }
+
+    /**
+     * Get summaries of all segments, oldest first
+     */
+    public synchronized List<SegmentInfo> getSegments() {
+        summariseSegments();
+        return new ArrayList<>(index.segments);
+    }
+
+    /**
+     * Get the placement analytics totals over every archived application
+     */
+    public synchronized PlacementAnalytics.Totals getAnalyticsTotals() {
+        summariseSegments();
+        PlacementAnalytics.Totals totals = new PlacementAnalytics.Totals();
+        for (SegmentInfo segment : index.segments) {
+            totals.add(segment.analytics);
+        }
+        return totals;
+    }
+
+    /**
+     * Get an archived internship by key, null if it is not archived
+     */
+    public synchronized InternshipOpportunity getArchivedInternship(int key) {
+        return findArchived(key);
+    }
+
+    public synchronized long getArchivedApplicationCount() {
+        return index.segments.stream().mapToLong(SegmentInfo::getApplications).sum();
+    }
+
+    public synchronized long getArchivedInternshipCount() {
+        return index.internshipSegments.size();
+    }
+
+    /**
+     * Get the highest application key ever archived, so it is never reissued
+     */
+    public synchronized int getMaxApplicationKey() {
+        recordMaxKeys();
+        return index.maxApplicationKey;
+    }
+
+    /**
+     * Get the highest withdrawal request key ever archived
+     */
+    public synchronized int getMaxRequestKey() {
+        recordMaxKeys();
+        return index.maxRequestKey;
+    }
+
+    /**
+     * Work out the highest archived keys once for an index saved before
+     * they were recorded
+     */
+    private void recordMaxKeys() {
+        if (index.maxKeysRecorded) {
+            return;
+        }
+        forEachArchivedApplication(this::recordKeys);
+        index.maxKeysRecorded = true;
+        saveIndex();
+    }
+
+    /**
+     * Count the applications of segments written before summaries were
+     * kept, once
+     */
+    private void summariseSegments() {
+        boolean summarised = false;
+        for (int number = 0; number < index.segments.size(); number++) {
+            SegmentInfo info = index.segments.get(number);
+            if (info.analytics == null) {
+                info.summarise(readSegment(number).applications());
+                summarised = true;
+            }
+        }
+        if (summarised) {
+            saveIndex();
+        }
+    }
+
+    private void recordKeys(Application app) {
+        index.maxApplicationKey = Math.max(index.maxApplicationKey, app.getKey());
+        if (app.getWithdrawalRequest() != null) {
+            index.maxRequestKey = Math.max(index.maxRequestKey, app.getWithdrawalRequest().getKey());
+        }
+    }
+
+    private static boolean isCold(Application app, LocalDate today) {
+        WithdrawalRequest request = app.getWithdrawalRequest();
+        return (app.getStatus() == ApplicationStatus.WITHDRAWN || app.getStatus() == ApplicationStatus.UNSUCCESSFUL)
+                && app.getOpportunity().getClosingDate().isBefore(today)
+                && !app.isWaitlisted()
+                && !app.isAcceptedPlacement()
+                && (request == null || request.getStatus() != WithdrawalStatus.PENDING);
+    }
+
+    /**
+     * A rejected or filled internship is cold once closed, unless a
+     * withdrawal request on one of its applications still needs a decision
+     */
+    private static boolean isCold(InternshipOpportunity opp, LocalDate today) {
+        if ((opp.getStatus() != OpportunityStatus.REJECTED && opp.getStatus() != OpportunityStatus.FILLED)
+                || !opp.getClosingDate().isBefore(today)) {
+            return false;
+        }
+        for (Application app : opp.getApplications()) {
+            WithdrawalRequest request = app.getWithdrawalRequest();
+            if (request != null && request.getStatus() == WithdrawalStatus.PENDING) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write one new, immutable segment and add it to the index
+     */
+    private boolean writeSegment(String semester, List<InternshipOpportunity> internships,
+            List<Application> apps) {
+        int number = index.segments.size();
+        int suffix = number + 1;
+        File file = new File(directory, String.format("%s-%04d.seg", semester, suffix));
+        while (file.exists()) { // Segments are immutable; never replace one, even if the index lost it
+            file = new File(directory, String.format("%s-%04d.seg", semester, ++suffix));
+        }
+        try {
+            directory.mkdirs();
+            writeSegmentFile(file, internships, apps);
+        } catch (IOException e) {
+            System.err.println("Error writing archive segment " + file.getName() + ": " + e.getMessage());
+            file.delete();
+            return false;
+        }
+
+        int[] statusCounts = new int[ApplicationStatus.values().length];
+        for (Application app : apps) {
+            statusCounts[app.getStatus().ordinal()]++;
+            recordKeys(app);
+            List<Integer> segments = index.studentSegments.computeIfAbsent(
+                    app.getStudentID(), id -> new ArrayList<>(1));
+            if (segments.isEmpty() || segments.get(segments.size() - 1) != number) {
+                segments.add(number);
+            }
+        }
+        for (InternshipOpportunity opp : internships) {
+            index.internshipSegments.put(opp.getOpportunityID(), number);
+        }
+        SegmentInfo info = new SegmentInfo(file.getName(), semester, internships.size(), statusCounts,
+                file.length());
+        info.summarise(apps); // Before the applications are removed, while placements are still accepted
+        index.segments.add(info);
+        return true;
+    }
+
+    /**
+     * Write the contents of a segment, with users and internships from
+     * outside it as references
+     */
+    private static void writeSegmentFile(File file, List<InternshipOpportunity> internships,
+            List<Application> apps) throws IOException {
+        Set<InternshipOpportunity> inSegment = Collections.newSetFromMap(new IdentityHashMap<>());
+        inSegment.addAll(internships);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(out));
+            ObjectOutputStream oos = new ReferenceOutputStream(gzip, inSegment);
+            oos.writeObject(new ArrayList<>(internships));
+            oos.writeObject(new ArrayList<>(apps));
+            oos.flush();
+            gzip.finish();
+            gzip.flush();
+            out.getFD().sync();
+        }
+    }
+
+    /**
+     * Rewrite a segment written by an earlier version in the current
+     * format, replacing the file atomically. Text such as withdrawal reasons
+     * was stored inline and is appended to the text segment on every read
+     * until then, and every applicant was read from the user store. Skipped if any reference could not be resolved, as
+     * rewriting would lose it.
+     */
+    private void rewriteSegment(int number, Segment segment) {
+        for (Application app : segment.applications()) {
+            if (app.getStudent() == null || app.getOpportunity() == null) {
+                return;
+            }
+        }
+        SegmentInfo info = index.segments.get(number);
+        File file = new File(directory, info.fileName);
+        File temp = new File(directory, info.fileName + ".tmp");
+        TextSegment.getInstance().force(); // Text the rewritten records refer to
+        try {
+            writeSegmentFile(temp, segment.internships(), segment.applications());
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error rewriting archive segment " + file.getName() + ": " + e.getMessage());
+            temp.delete();
+            return;
+        }
+        info.bytes = file.length();
+        saveIndex();
+    }
+
+    private static boolean isLegacyFormat(Segment segment) {
+        for (InternshipOpportunity opp : segment.internships()) {
+            if (opp.isLegacyFormat()) {
+                return true;
+            }
+        }
+        for (Application app : segment.applications()) {
+            if (app.isLegacyFormat()
+                    || (app.getWithdrawalRequest() != null && app.getWithdrawalRequest().isLegacyFormat())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get a segment through the cache
+     */
+    private Segment segment(int number) {
+        Segment segment = readSegment(number);
+        cache.put(number, segment);
+        return segment;
+    }
+
+    /**
+     * Get a segment from the cache if there, otherwise read it without
+     * caching. A segment in an older format is rewritten once read.
+     */
+    @SuppressWarnings("unchecked")
+    private Segment readSegment(int number) {
+        Segment cached = cache.get(number);
+        if (cached != null) {
+            return cached;
+        }
+        File file = new File(directory, index.segments.get(number).fileName);
+        Segment segment;
+        try (ObjectInputStream ois = new ReferenceInputStream(
+                new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))), this::resolve)) {
+            segment = new Segment((List<InternshipOpportunity>) ois.readObject(),
+                    (List<Application>) ois.readObject());
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error reading archive segment " + file.getName() + ": " + e.getMessage());
+            return new Segment(List.of(), List.of());
+        }
+        if (isLegacyFormat(segment)) {
+            rewriteSegment(number, segment);
+        }
+        return segment;
+    }
+
+    /**
+     * Resolve a reference to a live user or internship; internships
+     * archived after the segment was written are found in later segments
+     */
+    private Object resolve(EntityRef ref) {
+        if (ref.kind() == 'U') {
+            return UserManager.getInstance().getUser(ref.id());
+        }
+        int key = InternshipOpportunity.parseID(ref.id());
+        InternshipOpportunity opp = InternshipManager.getInstance().getInternship(key);
+        return opp != null ? opp : findArchived(key);
+    }
+
+    /**
+     * Find an internship in the segment that holds it
+     */
+    private InternshipOpportunity findArchived(int key) {
+        Integer number = index.internshipSegments.get(InternshipOpportunity.formatID(key));
+        if (number != null) {
+            for (InternshipOpportunity archived : segment(number).internships()) {
+                if (archived.getKey() == key) {
+                    return archived;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Index loadIndex() {
+        File file = new File(directory, INDEX_FILE);
+        if (file.exists()) {
+            try (ObjectInputStream ois = new ObjectInputStream(
+                    new BufferedInputStream(new FileInputStream(file)))) {
+                return (Index) ois.readObject();
+            } catch (IOException | ClassNotFoundException e) {
+                System.err.println("Error loading archive index: " + e.getMessage());
+                File kept = new File(directory, INDEX_FILE + ".unreadable");
+                if (file.renameTo(kept)) { // Not replaced by the next save
+                    System.err.println("Kept the unreadable index as " + kept);
+                }
+            }
+        }
+        return new Index();
+    }
+
+    private void saveIndex() {
+        File file = new File(directory, INDEX_FILE);
+        File temp = new File(directory, INDEX_FILE + ".tmp");
+        try {
+            try (ObjectOutputStream oos = new ObjectOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)))) {
+                oos.writeObject(index);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving archive index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes users, and internships not in the segment, as references
+     */
+    private static class ReferenceOutputStream extends ObjectOutputStream {
+        private final Set<InternshipOpportunity> inSegment;
+
+        ReferenceOutputStream(OutputStream out, Set<InternshipOpportunity> inSegment) throws IOException {
+            super(out);
+            this.inSegment = inSegment;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj instanceof User user) {
+                return new EntityRef('U', user.getUserID());
+            }
+            if (obj instanceof InternshipOpportunity opp && !inSegment.contains(opp)) {
+                return new EntityRef('O', opp.getOpportunityID());
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * Resolves references back to live objects
+     */
+    private static class ReferenceInputStream extends ObjectInputStream {
+        private final Function<EntityRef, Object> resolver;
+
+        ReferenceInputStream(InputStream in, Function<EntityRef, Object> resolver) throws IOException {
+            super(in);
+            this.resolver = resolver;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            return obj instanceof EntityRef ref ? resolver.apply(ref) : obj;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+// ========== AuditLog.java (SINGLETON) ==========
+package ipms.control;
+
+import ipms.entity.User;
+import java.io.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Audit trail of approvals, reviews and other changes, for compliance.
+ * Records come from domain events on the EventBus, so auditing is off
+ * the write path.
+ * Callers claim a slot in a preallocated ring buffer with a single atomic
+ * increment, fill it and publish it; no locks are taken and nothing is
+ * allocated per record. A background thread drains the buffer in order to
+ * append-only binary files, one series per day, rotated at a size limit.
+ * If the writer falls a full buffer behind, callers wait rather than
+ * losing records.
+ * Implements SINGLETON pattern
+ */
+public class AuditLog {
+    static final String AUDIT_DIRECTORY = "data/audit";
+    private static final int CAPACITY = 8192; // Power of two
+    private static final int MASK = CAPACITY - 1;
+    private static final long MAX_FILE_BYTES = 4L * 1024 * 1024;
+    private static final int MAX_DETAIL_LENGTH = 1024;
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static AuditLog instance;
+
+    public enum Action {
+        REP_APPROVED, REP_REJECTED,
+        INTERNSHIP_CREATED, INTERNSHIP_APPROVED, INTERNSHIP_REJECTED, VISIBILITY_TOGGLED,
+        APPLICATION_SUBMITTED, APPLICATION_APPROVED, APPLICATION_REJECTED, PLACEMENT_ACCEPTED,
+        PLACEMENTS_ALLOCATED,
+        WITHDRAWAL_REQUESTED, WITHDRAWAL_APPROVED, WITHDRAWAL_REJECTED,
+        BULK_APPROVAL_UNDONE,
+        WAITLISTED // Appended: files store the ordinal
+    }
+
+    /**
+     * Preallocated ring buffer entry, overwritten in place
+     */
+    private static class Slot {
+        long timestamp;
+        String actorID;
+        Action action;
+        String entityID;
+        String detail;
+    }
+
+    private final Slot[] slots;
+    private final AtomicLongArray published; // Sequence last published in each slot
+    private final AtomicLong next;           // Next sequence to claim
+    private final AtomicLong drained;        // Sequences below this have been written
+    private final AtomicLong stalls;
+    private final File directory;
+    private final Thread writer;
+    private volatile boolean running;
+
+    // Writer thread state
+    private final ByteArrayOutputStream frame;
+    private DataOutputStream out;
+    private LocalDate fileDate;
+    private long fileBytes;
+
+    private AuditLog() {
+        this.slots = new Slot[CAPACITY];
+        this.published = new AtomicLongArray(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1);
+        }
+        this.next = new AtomicLong();
+        this.drained = new AtomicLong();
+        this.stalls = new AtomicLong();
+        this.directory = new File(AUDIT_DIRECTORY);
+        this.frame = new ByteArrayOutputStream(256);
+        this.running = true;
+        this.writer = new Thread(this::drain, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+        EventBus.getInstance().subscribe("audit-log", this::onEvent);
+    }
+
+    public static synchronized AuditLog getInstance() {
+        if (instance == null) {
+            instance = new AuditLog();
+        }
+        return instance;
+    }
+
+    /**
+     * Record an action. Returns as soon as the record is in the buffer.
+     *
+     * @param actor    User who acted, or null for the system
+     * @param entityID ID of the entity acted on
+     * @param detail   Extra context, may be empty
+     */
+    public void record(User actor, Action action, String entityID, String detail) {
+        record(DomainEvent.actorOf(actor), action, entityID, detail);
+    }
+
+    /**
+     * Record an action by the user with the given ID
+     */
+    public void record(String actorID, Action action, String entityID, String detail) {
+        long sequence = next.getAndIncrement();
+        if (sequence - drained.get() >= CAPACITY) {
+            stalls.incrementAndGet();
+            while (sequence - drained.get() >= CAPACITY) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        Slot slot = slots[(int) (sequence & MASK)];
+        slot.timestamp = System.currentTimeMillis();
+        slot.actorID = actorID;
+        slot.action = action;
+        slot.entityID = entityID == null ? "" : entityID;
+        slot.detail = detail == null ? "" : detail.length() > MAX_DETAIL_LENGTH
+                ? detail.substring(0, MAX_DETAIL_LENGTH) : detail;
+        published.setRelease((int) (sequence & MASK), sequence);
+    }
+
+    /**
+     * Record the action a domain event describes (EventBus subscriber)
+     */
+    public void onEvent(DomainEvent event) {
+        switch (event) {
+            case DomainEvent.ApplicationSubmitted e -> record(e.actorID(), Action.APPLICATION_SUBMITTED,
+                    e.application().applicationID(), e.application().opportunityID());
+            case DomainEvent.ApplicationReviewed e -> record(e.actorID(),
+                    e.approved() ? Action.APPLICATION_APPROVED : Action.APPLICATION_REJECTED,
+                    e.application().applicationID(), e.application().opportunityID());
+            case DomainEvent.ApplicationWaitlisted e -> record(e.actorID(), Action.WAITLISTED,
+                    e.application().applicationID(), "rank " + e.rank());
+            case DomainEvent.PlacementAccepted e -> record(e.actorID(),
+                    e.allocated() ? Action.PLACEMENTS_ALLOCATED : Action.PLACEMENT_ACCEPTED,
+                    e.application().applicationID(), e.application().opportunityID());
+            case DomainEvent.WithdrawalRequested e -> record(e.actorID(), Action.WITHDRAWAL_REQUESTED,
+                    e.requestID(), e.application().applicationID() + ": " + e.reason());
+            case DomainEvent.WithdrawalDecided e -> record(e.actorID(),
+                    e.approved() ? Action.WITHDRAWAL_APPROVED : Action.WITHDRAWAL_REJECTED,
+                    e.requestID(), e.application().applicationID());
+            case DomainEvent.InternshipCreated e -> record(e.actorID(), Action.INTERNSHIP_CREATED,
+                    e.opportunityID(), e.title());
+            case DomainEvent.InternshipReviewed e -> record(e.actorID(),
+                    e.approved() ? Action.INTERNSHIP_APPROVED : Action.INTERNSHIP_REJECTED,
+                    e.opportunityID(), e.companyName());
+            case DomainEvent.VisibilityToggled e -> record(e.actorID(), Action.VISIBILITY_TOGGLED,
+                    e.opportunityID(), e.visible() ? "VISIBLE" : "HIDDEN");
+            case DomainEvent.RepresentativeReviewed e -> record(e.actorID(),
+                    e.approved() ? Action.REP_APPROVED : Action.REP_REJECTED,
+                    e.representativeID(), e.bulk() ? "bulk" : e.companyName());
+            case DomainEvent.BulkApprovalUndone e -> record(e.actorID(), Action.BULK_APPROVAL_UNDONE,
+                    "", e.description());
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Get the number of records taken so far
+     */
+    public long getRecorded() {
+        return next.get();
+    }
+
+    /**
+     * Get the number of records not yet written to file
+     */
+    public long getLag() {
+        return next.get() - drained.get();
+    }
+
+    /**
+     * Get how many times a caller had to wait for room in the buffer
+     */
+    public long getStalls() {
+        return stalls.get();
+    }
+
+    /**
+     * Stop accepting work and write everything still buffered
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writer loop: write published slots in sequence order, flushing to
+     * file whenever the buffer runs dry
+     */
+    private void drain() {
+        long cursor = 0;
+        while (true) {
+            int index = (int) (cursor & MASK);
+            if (published.getAcquire(index) == cursor) {
+                Slot slot = slots[index];
+                write(slot);
+                slot.actorID = slot.entityID = slot.detail = null;
+                drained.set(++cursor);
+                continue;
+            }
+            flushFile();
+            if (!running && cursor == next.get()) {
+                break;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        closeFile();
+    }
+
+    private void write(Slot slot) {
+        LocalDate date = Instant.ofEpochMilli(slot.timestamp).atZone(ZoneId.systemDefault()).toLocalDate();
+        try {
+            if (out == null || !date.equals(fileDate) || fileBytes >= MAX_FILE_BYTES) {
+                openFile(date);
+            }
+            frame.reset();
+            DataOutputStream payload = new DataOutputStream(frame);
+            payload.writeLong(slot.timestamp);
+            payload.writeUTF(slot.actorID);
+            payload.writeByte(slot.action.ordinal());
+            payload.writeUTF(slot.entityID);
+            payload.writeUTF(slot.detail);
+            out.writeInt(frame.size());
+            frame.writeTo(out);
+            fileBytes += Integer.BYTES + frame.size();
+        } catch (IOException e) {
+            System.err.println("Error writing audit log: " + e.getMessage());
+            out = null;
+        }
+    }
+
+    /**
+     * Start a new file for a date, numbered after any already there
+     */
+    private void openFile(LocalDate date) throws IOException {
+        closeFile();
+        directory.mkdirs();
+        String prefix = "audit-" + date.format(FILE_DATE) + "-";
+        int number = 0;
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.startsWith(prefix) && name.endsWith(".bin")) {
+                    number = Math.max(number, Integer.parseInt(name.substring(prefix.length(), name.length() - 4)));
+                }
+            }
+        }
+        File file = new File(directory, String.format("%s%03d.bin", prefix, number + 1));
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+        fileDate = date;
+        fileBytes = 0;
+    }
+
+    private void flushFile() {
+        if (out != null) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                System.err.println("Error writing audit log: " + e.getMessage());
+            }
+        }
+    }
+
+    private void closeFile() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                System.err.println("Error closing audit log: " + e.getMessage());
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * Get the date an audit file holds records for, from its name
+     *
+     * @return The date, or null if the file is not an audit file
+     */
+    static LocalDate fileDate(File file) {
+        String name = file.getName();
+        if (!name.startsWith("audit-") || !name.endsWith(".bin") || name.length() < 14) {
+            return null;
+        }
+        return LocalDate.parse(name.substring(6, 14), FILE_DATE);
+    }
+
+    /**
+     * Read every complete record in an audit file
+     */
+    static void readFile(File file, Consumer<AuditRecord> action) throws IOException {
+        Action[] actions = Action.values();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+            while (true) {
+                int length;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    return; // End of file, or a record cut short by a crash
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                action.accept(new AuditRecord(record.readLong(), record.readUTF(),
+                        actions[record.readByte()], record.readUTF(), record.readUTF()));
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+// ========== AuditQuery.java ==========
+package ipms.control;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Searches the audit files by user, entity and date range.
+ * Files are named by date, so those outside the range are never opened;
+ * the rest are scanned in parallel.
+ *
+ * Usage: java -cp bin ipms.control.AuditQuery [--user ID] [--entity ID]
+ *                                             [--from yyyy-mm-dd] [--to yyyy-mm-dd]
+ */
+public class AuditQuery {
+    private final File directory;
+
+    public AuditQuery() {
+        this(new File(AuditLog.AUDIT_DIRECTORY));
+    }
+
+    public AuditQuery(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Find matching records in time order
+     *
+     * @param actorID  User who acted, or null for any
+     * @param entityID Entity acted on, or null for any
+     * @param from     First date to include, or null for no lower bound
+     * @param to       Last date to include, or null for no upper bound
+     */
+    public List<AuditRecord> search(String actorID, String entityID, LocalDate from, LocalDate to) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(files)
+                .filter(file -> {
+                    LocalDate date = AuditLog.fileDate(file);
+                    return date != null && (from == null || !date.isBefore(from))
+                            && (to == null || !date.isAfter(to));
+                })
+                .parallel()
+                .flatMap(file -> {
+                    List<AuditRecord> matches = new ArrayList<>();
+                    try {
+                        AuditLog.readFile(file, record -> {
+                            if ((actorID == null || record.actorID().equalsIgnoreCase(actorID))
+                                    && (entityID == null || record.entityID().equalsIgnoreCase(entityID))) {
+                                matches.add(record);
+                            }
+                        });
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(file.getName() + ": " + e.getMessage(), e);
+                    }
+                    return matches.stream();
+                })
+                .sorted(Comparator.comparingLong(AuditRecord::timestamp))
+                .collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) {
+        String user = null;
+        String entity = null;
+        LocalDate from = null;
+        LocalDate to = null;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--user" -> user = value;
+                    case "--entity" -> entity = value;
+                    case "--from" -> from = LocalDate.parse(value);
+                    case "--to" -> to = LocalDate.parse(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Usage: AuditQuery [--user ID] [--entity ID] [--from yyyy-mm-dd] [--to yyyy-mm-dd]");
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<AuditRecord> records;
+        try {
+            records = new AuditQuery().search(user, entity, from, to);
+        } catch (UncheckedIOException e) {
+            System.err.println("Error reading audit log: " + e.getMessage());
+            return;
+        }
+        records.forEach(System.out::println);
+        System.out.printf("%d records (%d ms)%n", records.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
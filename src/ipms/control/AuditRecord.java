@@ -0,0 +1,28 @@
+// ========== AuditRecord.java ==========
+package ipms.control;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * One entry of the audit trail: who did what to which entity, and when
+ *
+ * @param timestamp Milliseconds since the epoch
+ * @param actorID   User ID of whoever made the change, or "system"
+ * @param entityID  ID of the representative, internship, application or request acted on
+ * @param detail    Free-form context, e.g. the internship applied to
+ */
+public record AuditRecord(long timestamp, String actorID, AuditLog.Action action,
+        String entityID, String detail) {
+
+    public LocalDateTime getTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s  %-12s %-22s %-10s %s", getTime().withNano(0), actorID, action,
+                entityID, detail);
+    }
+}
@@ -98,6 +98,7 @@ public class AuthenticationManager {
         if (currentUser != null) {
             boolean success = currentUser.changePassword(oldPassword, newPassword);
             if (success) {
+                userManager.markDirty(currentUser);
                 userManager.saveUsers();
             }
             return success;
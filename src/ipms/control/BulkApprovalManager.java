@@ -0,0 +1,301 @@
+// ========== BulkApprovalManager.java (SINGLETON) ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Bulk approval workflows for Career Center Staff.
+ * Each batch selects items by a rule, applies them atomically with one
+ * save, and keeps an in-memory undo record of the previous state. A batch
+ * can only be undone while nothing else has changed since.
+ * Each item approved is recorded in the audit log against the staff member,
+ * through events on the EventBus.
+ * Batches and undo change application state, so they run on the command
+ * pipeline's writer thread.
+ * Implements SINGLETON pattern
+ */
+public class BulkApprovalManager {
+    private static final long VERSION_DRAIN_MILLIS = 2_000;
+    private static BulkApprovalManager instance;
+    private final UserManager userManager;
+    private final InternshipManager internshipManager;
+    private final ApplicationManager applicationManager;
+    private final EventBus events;
+    private final Deque<UndoRecord> undoHistory;
+
+    /**
+     * Previous state of everything a batch touched
+     */
+    private static class UndoRecord {
+        private final String description;
+        private final List<Runnable> restorers = new ArrayList<>();
+        private Runnable save = () -> { };
+        private long[] versions; // Of the managers, just after the batch
+
+        UndoRecord(String description) {
+            this.description = description;
+        }
+
+        void restore() {
+            for (int i = restorers.size() - 1; i >= 0; i--) {
+                restorers.get(i).run();
+            }
+            save.run();
+        }
+    }
+
+    private BulkApprovalManager() {
+        this.userManager = UserManager.getInstance();
+        this.internshipManager = InternshipManager.getInstance();
+        this.applicationManager = ApplicationManager.getInstance();
+        this.events = EventBus.getInstance();
+        this.undoHistory = new ArrayDeque<>();
+    }
+
+    public static synchronized BulkApprovalManager getInstance() {
+        if (instance == null) {
+            instance = new BulkApprovalManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Rule: representative email belongs to the given domain
+     */
+    public static Predicate<CompanyRepresentative> emailDomain(String domain) {
+        String suffix = "@" + domain.trim().toLowerCase().replaceFirst("^@", "");
+        return rep -> rep.getEmail().toLowerCase().endsWith(suffix);
+    }
+
+    /**
+     * Rule: internship was posted by an approved representative
+     */
+    public static Predicate<InternshipOpportunity> fromApprovedCompany() {
+        return opp -> opp.getRepresentative().isApproved();
+    }
+
+    /**
+     * Rule: withdrawal is for an application that was not yet accepted
+     */
+    public static Predicate<WithdrawalRequest> beforePlacement() {
+        return req -> !req.isAfterPlacement();
+    }
+
+    /**
+     * Approve all pending representatives matching a rule
+     *
+     * @param staff Staff member approving, for the audit log
+     * @return Number of representatives approved
+     */
+    public int approveRepresentatives(User staff, Predicate<CompanyRepresentative> rule) {
+        List<CompanyRepresentative> selected = new ArrayList<>();
+        for (CompanyRepresentative rep : userManager.getPendingRepresentatives()) {
+            if (rule.test(rep)) {
+                selected.add(rep);
+            }
+        }
+        if (selected.isEmpty()) {
+            return 0;
+        }
+
+        UndoRecord record = new UndoRecord("Approved " + selected.size() + " representatives");
+        record.save = userManager::saveUsers;
+        for (CompanyRepresentative rep : selected) {
+            boolean approved = rep.isApproved();
+            record.restorers.add(() -> {
+                rep.setApproved(approved);
+                userManager.markDirty(rep);
+            });
+        }
+
+        int approved = apply(record, selected.size(), () -> {
+            for (CompanyRepresentative rep : selected) {
+                rep.setApproved(true);
+                userManager.markDirty(rep);
+            }
+            userManager.saveUsers();
+        });
+        if (approved > 0) {
+            for (CompanyRepresentative rep : selected) {
+                events.publish(new DomainEvent.RepresentativeReviewed(DomainEvent.actorOf(staff),
+                        rep.getUserID(), rep.getCompanyName(), true, true));
+            }
+        }
+        return approved;
+    }
+
+    /**
+     * Approve all pending internships matching a rule
+     *
+     * @param staff Staff member approving, for the audit log
+     * @return Number of internships approved
+     */
+    public int approveInternships(User staff, Predicate<InternshipOpportunity> rule) {
+        List<InternshipOpportunity> selected = new ArrayList<>();
+        for (InternshipOpportunity opp : internshipManager.getPendingInternships()) {
+            if (rule.test(opp)) {
+                selected.add(opp);
+            }
+        }
+        if (selected.isEmpty()) {
+            return 0;
+        }
+
+        UndoRecord record = new UndoRecord("Approved " + selected.size() + " internships");
+        record.save = internshipManager::saveInternships;
+        for (InternshipOpportunity opp : selected) {
+            OpportunityStatus status = opp.getStatus();
+            boolean visible = opp.isVisible();
+            record.restorers.add(() -> {
+                opp.setStatus(status);
+                opp.setVisible(visible);
+                internshipManager.refresh(opp);
+            });
+        }
+
+        int approved = apply(record, selected.size(), () -> internshipManager.runInBatch(() -> {
+            for (InternshipOpportunity opp : selected) {
+                internshipManager.approveInternship(staff, opp);
+            }
+        }));
+        return approved;
+    }
+
+    /**
+     * Approve all pending withdrawal requests matching a rule
+     *
+     * @param staff Staff member approving, for the audit log
+     * @return Number of withdrawals approved
+     */
+    public int approveWithdrawals(User staff, Predicate<WithdrawalRequest> rule) {
+        List<WithdrawalRequest> selected = new ArrayList<>();
+        for (WithdrawalRequest req : applicationManager.getPendingWithdrawals()) {
+            if (rule.test(req)) {
+                selected.add(req);
+            }
+        }
+        if (selected.isEmpty()) {
+            return 0;
+        }
+
+        UndoRecord record = new UndoRecord("Approved " + selected.size() + " withdrawals");
+        record.save = () -> {
+            applicationManager.rebuildDerivedState();
+            applicationManager.saveApplications();
+            internshipManager.saveInternships();
+        };
+
+        // Capture every application whose state approval (or a waitlist promotion) can change
+        Set<Application> affected = new LinkedHashSet<>();
+        Set<InternshipOpportunity> internships = new LinkedHashSet<>();
+        Set<Student> students = new LinkedHashSet<>();
+        for (WithdrawalRequest req : selected) {
+            WithdrawalStatus status = req.getStatus();
+            record.restorers.add(() -> req.setStatus(status));
+            Application app = req.getApplication();
+            affected.addAll(app.getStudent().getApplications());
+            affected.addAll(app.getOpportunity().getApplications());
+            internships.add(app.getOpportunity());
+            students.add(app.getStudent());
+        }
+        // Restored in reverse, through the entities' own operations: statuses
+        // before placements, which need the placed application to be successful
+        for (Student student : students) {
+            Application placement = student.getAcceptedPlacement();
+            record.restorers.add(() -> student.acceptPlacement(placement));
+        }
+        for (Application app : affected) {
+            ApplicationStatus status = app.getStatus();
+            boolean waitlisted = app.isWaitlisted();
+            record.restorers.add(() -> {
+                app.setStatus(status);
+                app.setWaitlisted(waitlisted);
+            });
+        }
+        for (InternshipOpportunity opp : internships) {
+            OpportunityStatus status = opp.getStatus();
+            int filled = opp.getFilledSlots();
+            record.restorers.add(() -> {
+                while (opp.getFilledSlots() < filled) {
+                    opp.incrementFilledSlots();
+                }
+                while (opp.getFilledSlots() > filled) {
+                    opp.decrementFilledSlots();
+                }
+                opp.setStatus(status);
+                internshipManager.refresh(opp);
+            });
+        }
+
+        int approved = apply(record, selected.size(), () -> {
+            applicationManager.runInBatch(() -> {
+                for (WithdrawalRequest req : selected) {
+                    applicationManager.approveWithdrawal(staff, req);
+                }
+            });
+            internshipManager.saveInternships();
+        });
+        return approved;
+    }
+
+    /**
+     * Undo the most recent bulk approval
+     *
+     * If anything has changed since the batch, its recorded state is out of
+     * date: nothing is undone and the undo history is cleared.
+     *
+     * @param staff Staff member undoing, for the audit log
+     * @return Description of what was undone, or null if nothing was undone
+     */
+    public String undoLast(User staff) {
+        UndoRecord record = undoHistory.poll();
+        if (record == null) {
+            return null;
+        }
+        if (!Arrays.equals(record.versions, versions())) {
+            undoHistory.clear();
+            return null;
+        }
+        record.restore();
+        events.publish(new DomainEvent.BulkApprovalUndone(DomainEvent.actorOf(staff), record.description));
+        return record.description;
+    }
+
+    /**
+     * Check if there is a bulk approval that can be undone
+     */
+    public boolean canUndo() {
+        return !undoHistory.isEmpty();
+    }
+
+    /**
+     * Current versions of the data a batch can change. The internship and
+     * application versions are bumped by bus subscribers, so those are
+     * waited for first; if they do not catch up in time the versions will
+     * not match and the batch is not undone.
+     */
+    private long[] versions() {
+        events.drain(VERSION_DRAIN_MILLIS);
+        return new long[] {
+                userManager.getVersion(), internshipManager.getVersion(), applicationManager.getVersion()
+        };
+    }
+
+    /**
+     * Apply a batch; if it fails part-way, roll back to the recorded state
+     */
+    private int apply(UndoRecord record, int count, Runnable batch) {
+        try {
+            batch.run();
+        } catch (RuntimeException e) {
+            System.err.println("Bulk approval failed, rolling back: " + e.getMessage());
+            record.restore();
+            return 0;
+        }
+        record.versions = versions();
+        undoHistory.push(record);
+        return count;
+    }
+}
@@ -0,0 +1,214 @@
+// ========== CatalogColumns.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.util.*;
+
+/**
+ * Read-optimised columnar projection of the internship catalog.
+ * Each attribute used by filters and reports is held in its own primitive
+ * array (one row per internship), so scans run as tight loops over
+ * contiguous memory instead of chasing object pointers.
+ * Maintained by InternshipManager's EventBus subscriber as internships change.
+ * Predicates and group counts run through ColumnKernels, which use SIMD
+ * when available.
+ */
+public class CatalogColumns {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final ColumnKernels KERNELS = ColumnKernels.getDefault();
+
+    private InternshipOpportunity[] rows;
+    private byte[] status;
+    private byte[] level;
+    private int[] majorCode;
+    private int[] companyCode;
+    private long[] visible;
+    private int[] slots;
+    private int[] filledSlots;
+    private int[] openingDay;
+    private int[] closingDay;
+    private final Map<InternshipOpportunity, Integer> rowIndex;
+    private int size;
+
+    public CatalogColumns() {
+        this.rowIndex = new IdentityHashMap<>();
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Replace the projection with the given internships
+     */
+    public void rebuild(List<InternshipOpportunity> internships) {
+        rowIndex.clear();
+        size = 0;
+        allocate(Math.max(INITIAL_CAPACITY, internships.size()));
+        for (InternshipOpportunity opp : internships) {
+            add(opp);
+        }
+    }
+
+    /**
+     * Append a row for a new internship
+     */
+    public void add(InternshipOpportunity opp) {
+        if (size == rows.length) {
+            allocate(rows.length * 2);
+        }
+        rowIndex.put(opp, size);
+        rows[size] = opp;
+        write(size, opp);
+        size++;
+    }
+
+    /**
+     * Refresh the row of a changed internship
+     */
+    public void update(InternshipOpportunity opp) {
+        Integer row = rowIndex.get(opp);
+        if (row != null) {
+            write(row, opp);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get a selection containing every row
+     */
+    public BitSet allRows() {
+        BitSet selection = new BitSet(size);
+        selection.set(0, size);
+        return selection;
+    }
+
+    /**
+     * Get the selection covering the given internships
+     */
+    public BitSet rowsOf(List<InternshipOpportunity> internships) {
+        BitSet selection = new BitSet(size);
+        for (InternshipOpportunity opp : internships) {
+            Integer row = rowIndex.get(opp);
+            if (row != null) {
+                selection.set(row);
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * Materialise the internships of the selected rows, in catalog order
+     */
+    public List<InternshipOpportunity> toList(BitSet selection) {
+        List<InternshipOpportunity> result = new ArrayList<>(selection.cardinality());
+        for (int r = selection.nextSetBit(0); r >= 0; r = selection.nextSetBit(r + 1)) {
+            result.add(rows[r]);
+        }
+        return result;
+    }
+
+    // Column accessors, indexed by row
+    public byte[] statusColumn() { return status; }
+    public byte[] levelColumn() { return level; }
+    public int[] majorCodeColumn() { return majorCode; }
+    public int[] companyCodeColumn() { return companyCode; }
+    public long[] visibleColumn() { return visible; }
+    public int[] slotsColumn() { return slots; }
+    public int[] filledSlotsColumn() { return filledSlots; }
+    public int[] openingDayColumn() { return openingDay; }
+    public int[] closingDayColumn() { return closingDay; }
+
+    /**
+     * Clear selected rows whose status differs from the given one
+     */
+    public void retainStatus(BitSet selection, OpportunityStatus wanted) {
+        selection.and(BitSet.valueOf(KERNELS.matchBytes(status, (byte) wanted.ordinal(), size)));
+    }
+
+    /**
+     * Clear selected rows whose level differs from the given one
+     */
+    public void retainLevel(BitSet selection, InternshipLevel wanted) {
+        selection.and(BitSet.valueOf(KERNELS.matchBytes(level, (byte) wanted.ordinal(), size)));
+    }
+
+    /**
+     * Clear selected rows whose preferred major code differs from the given one
+     */
+    public void retainMajor(BitSet selection, int wanted) {
+        selection.and(BitSet.valueOf(KERNELS.matchInts(majorCode, wanted, size)));
+    }
+
+    /**
+     * Keep only selected rows with the given visibility, a word at a time
+     */
+    public void retainVisible(BitSet selection, boolean wanted) {
+        BitSet mask = BitSet.valueOf(Arrays.copyOf(visible, (size + 63) >>> 6));
+        if (wanted) {
+            selection.and(mask);
+        } else {
+            selection.andNot(mask);
+        }
+    }
+
+    /**
+     * Count selected rows per status, indexed by OpportunityStatus ordinal
+     */
+    public int[] countByStatus(BitSet selection) {
+        return KERNELS.countBytes(status, selection.toLongArray(), size,
+                OpportunityStatus.values().length);
+    }
+
+    /**
+     * Count selected rows per level, indexed by InternshipLevel ordinal
+     */
+    public int[] countByLevel(BitSet selection) {
+        return KERNELS.countBytes(level, selection.toLongArray(), size,
+                InternshipLevel.values().length);
+    }
+
+    /**
+     * Count selected rows per preferred major, indexed by dictionary code.
+     * Rows without a preferred major (NONE) are not counted.
+     */
+    public int[] countByMajor(BitSet selection) {
+        int[] counts = new int[StringDictionary.getInstance().size()];
+        for (int r = selection.nextSetBit(0); r >= 0; r = selection.nextSetBit(r + 1)) {
+            if (majorCode[r] != StringDictionary.NONE) {
+                counts[majorCode[r]]++;
+            }
+        }
+        return counts;
+    }
+
+    private void write(int row, InternshipOpportunity opp) {
+        status[row] = (byte) opp.getStatus().ordinal();
+        level[row] = (byte) opp.getLevel().ordinal();
+        majorCode[row] = opp.getPreferredMajorCode();
+        companyCode[row] = opp.getCompanyNameCode();
+        if (opp.isVisible()) {
+            visible[row >>> 6] |= 1L << row;
+        } else {
+            visible[row >>> 6] &= ~(1L << row);
+        }
+        slots[row] = opp.getNumSlots();
+        filledSlots[row] = opp.getFilledSlots();
+        openingDay[row] = (int) opp.getOpeningDate().toEpochDay();
+        closingDay[row] = (int) opp.getClosingDate().toEpochDay();
+    }
+
+    private void allocate(int capacity) {
+        rows = rows == null ? new InternshipOpportunity[capacity] : Arrays.copyOf(rows, capacity);
+        status = status == null ? new byte[capacity] : Arrays.copyOf(status, capacity);
+        level = level == null ? new byte[capacity] : Arrays.copyOf(level, capacity);
+        majorCode = majorCode == null ? new int[capacity] : Arrays.copyOf(majorCode, capacity);
+        companyCode = companyCode == null ? new int[capacity] : Arrays.copyOf(companyCode, capacity);
+        int words = (capacity + 63) >>> 6;
+        visible = visible == null ? new long[words] : Arrays.copyOf(visible, words);
+        slots = slots == null ? new int[capacity] : Arrays.copyOf(slots, capacity);
+        filledSlots = filledSlots == null ? new int[capacity] : Arrays.copyOf(filledSlots, capacity);
+        openingDay = openingDay == null ? new int[capacity] : Arrays.copyOf(openingDay, capacity);
+        closingDay = closingDay == null ? new int[capacity] : Arrays.copyOf(closingDay, capacity);
+    }
+}
@@ -0,0 +1,55 @@
+// ========== ColumnKernels.java (Interface) ==========
+package ipms.control;
+
+/**
+ * Predicate and group-count kernels over primitive catalog columns.
+ * Results are row bitmaps packed into longs (bit r of word r / 64).
+ * A SIMD implementation is used when it was compiled in and the
+ * jdk.incubator.vector module is available; otherwise a scalar one.
+ */
+public interface ColumnKernels {
+    /**
+     * Match rows whose byte value equals the given one
+     *
+     * @return Bitmap of matching rows among the first size rows
+     */
+    long[] matchBytes(byte[] column, byte value, int size);
+
+    /**
+     * Match rows whose int value equals the given one
+     *
+     * @return Bitmap of matching rows among the first size rows
+     */
+    long[] matchInts(int[] column, int value, int size);
+
+    /**
+     * Count selected rows per byte value
+     *
+     * @param selection Bitmap of rows to count
+     * @param buckets   Number of distinct values (e.g. enum constants)
+     * @return Count per value
+     */
+    default int[] countBytes(byte[] column, long[] selection, int size, int buckets) {
+        int[] counts = new int[buckets];
+        for (int b = 0; b < buckets; b++) {
+            long[] match = matchBytes(column, (byte) b, size);
+            int words = Math.min(match.length, selection.length);
+            for (int w = 0; w < words; w++) {
+                counts[b] += Long.bitCount(match[w] & selection[w]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Get the fastest implementation available at runtime
+     */
+    static ColumnKernels getDefault() {
+        try {
+            return (ColumnKernels) Class.forName("ipms.control.VectorColumnKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarColumnKernels(); // Vector kernels not compiled in or module absent
+        }
+    }
+}
@@ -0,0 +1,314 @@
+// ========== CommandPipeline.java (SINGLETON) ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer pipeline for application and internship mutations,
+ * including the batch operations (reviews, placement allocation, bulk
+ * approvals) and representative approvals. Any session thread enqueues commands into a bounded queue; one writer
+ * thread applies them in order against in-memory state, so the business
+ * rules (three-application cap, duplicates, slots) never race. Each drained
+ * batch is committed with one save, and callers' futures complete once
+ * their batch has been saved. A failed save is retried a few times; if it
+ * still fails the futures complete with SaveFailedException.
+ * Implements SINGLETON pattern
+ */
+public class CommandPipeline {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int MAX_BATCH = 256;
+    private static final int SAVE_RETRIES = 3;
+    private static final long RETRY_DELAY_MS = 200;
+
+    private static CommandPipeline instance;
+    private final ApplicationManager applicationManager;
+    private final InternshipManager internshipManager;
+    private final BulkApprovalManager bulkApprovalManager;
+    private final UserManager userManager;
+    private final BlockingQueue<Command<?>> queue;
+    private final Thread writer;
+    private volatile boolean running;
+    private volatile double throughput; // Commands per second, smoothed
+
+    /**
+     * A queued mutation and the future for its outcome
+     */
+    private static class Command<T> {
+        final Supplier<T> action;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        RuntimeException failure;
+
+        Command(Supplier<T> action) {
+            this.action = action;
+        }
+
+        void execute() {
+            try {
+                result = action.get();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        void complete(RuntimeException saveFailure) {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else if (saveFailure != null) {
+                future.completeExceptionally(saveFailure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    private CommandPipeline() {
+        this.applicationManager = ApplicationManager.getInstance();
+        this.internshipManager = InternshipManager.getInstance();
+        this.bulkApprovalManager = BulkApprovalManager.getInstance();
+        this.userManager = UserManager.getInstance();
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.running = true;
+        this.writer = new Thread(this::drainLoop, "application-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+    }
+
+    public static synchronized CommandPipeline getInstance() {
+        if (instance == null) {
+            instance = new CommandPipeline();
+        }
+        return instance;
+    }
+
+    public CompletableFuture<Application> submitApplication(Student student, InternshipOpportunity internship) {
+        return enqueue(() -> applicationManager.submitApplication(student, internship));
+    }
+
+    public CompletableFuture<Void> reviewApplication(User reviewer, Application app, boolean approve) {
+        return enqueue(() -> {
+            applicationManager.reviewApplication(reviewer, app, approve);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> reviewApplications(User reviewer, Collection<Application> apps,
+            boolean approve) {
+        return enqueue(() -> {
+            applicationManager.reviewApplications(reviewer, apps, approve);
+            return null;
+        });
+    }
+
+    public CompletableFuture<List<Application>> reviewShortlist(User reviewer, InternshipOpportunity internship,
+            int n, ShortlistOrder order, boolean rejectOthers) {
+        return enqueue(() -> applicationManager.reviewShortlist(reviewer, internship, n, order, rejectOthers));
+    }
+
+    public CompletableFuture<Void> waitlistApplication(User reviewer, Application app, int rank) {
+        return enqueue(() -> {
+            applicationManager.waitlistApplication(reviewer, app, rank);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Boolean> acceptPlacement(Student student, Application app) {
+        return enqueue(() -> applicationManager.acceptPlacement(student, app));
+    }
+
+    public CompletableFuture<WithdrawalRequest> requestWithdrawal(Application app, String reason) {
+        return enqueue(() -> applicationManager.requestWithdrawal(app, reason));
+    }
+
+    public CompletableFuture<Void> approveWithdrawal(User staff, WithdrawalRequest request) {
+        return enqueue(() -> {
+            applicationManager.approveWithdrawal(staff, request);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> rejectWithdrawal(User staff, WithdrawalRequest request) {
+        return enqueue(() -> {
+            applicationManager.rejectWithdrawal(staff, request);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Boolean> commitPlacements(User staff, Collection<Application> placements) {
+        return enqueue(() -> applicationManager.commitPlacements(staff, placements));
+    }
+
+    public CompletableFuture<InternshipOpportunity> createInternship(String title, String description,
+            InternshipLevel level, String preferredMajor, LocalDate openingDate, LocalDate closingDate,
+            String companyName, CompanyRepresentative rep, int numSlots) {
+        return enqueue(() -> internshipManager.createInternship(title, description, level, preferredMajor,
+                openingDate, closingDate, companyName, rep, numSlots));
+    }
+
+    public CompletableFuture<Void> approveInternship(User staff, InternshipOpportunity internship) {
+        return enqueue(() -> {
+            internshipManager.approveInternship(staff, internship);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> rejectInternship(User staff, InternshipOpportunity internship) {
+        return enqueue(() -> {
+            internshipManager.rejectInternship(staff, internship);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> toggleVisibility(User rep, InternshipOpportunity internship) {
+        return enqueue(() -> {
+            internshipManager.toggleVisibility(rep, internship);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> approveRepresentative(User staff, CompanyRepresentative rep) {
+        return enqueue(() -> {
+            if (!userManager.approveRepresentative(staff, rep)) {
+                throw new SaveFailedException();
+            }
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> rejectRepresentative(User staff, CompanyRepresentative rep) {
+        return enqueue(() -> {
+            userManager.rejectRepresentative(staff, rep);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Integer> approveRepresentatives(User staff, Predicate<CompanyRepresentative> rule) {
+        return enqueue(() -> bulkApprovalManager.approveRepresentatives(staff, rule));
+    }
+
+    public CompletableFuture<Integer> approveInternships(User staff, Predicate<InternshipOpportunity> rule) {
+        return enqueue(() -> bulkApprovalManager.approveInternships(staff, rule));
+    }
+
+    public CompletableFuture<Integer> approveWithdrawals(User staff, Predicate<WithdrawalRequest> rule) {
+        return enqueue(() -> bulkApprovalManager.approveWithdrawals(staff, rule));
+    }
+
+    public CompletableFuture<String> undoBulkApproval(User staff) {
+        return enqueue(() -> bulkApprovalManager.undoLast(staff));
+    }
+
+    /**
+     * Get the number of commands waiting for the writer
+     */
+    public int getQueueLength() {
+        return queue.size();
+    }
+
+    /**
+     * Get the recent commit rate in commands per second, 0 before the first batch
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * Queue a command, waiting for space if the queue is full
+     */
+    private <T> CompletableFuture<T> enqueue(Supplier<T> action) {
+        Command<T> command = new Command<>(action);
+        if (!running) {
+            command.future.completeExceptionally(new IllegalStateException("Pipeline is shut down"));
+            return command.future;
+        }
+        try {
+            queue.put(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.future.completeExceptionally(e);
+        }
+        return command.future;
+    }
+
+    private void drainLoop() {
+        List<Command<?>> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                Command<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                internshipManager.advanceLifecycle(); // Day-boundary transitions, on this thread only
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Apply a batch in order, save once, then complete the callers' futures
+     */
+    private void commit(List<Command<?>> batch) {
+        long start = System.nanoTime();
+        boolean saved = false;
+        try {
+            saved = save(() -> {
+                for (Command<?> command : batch) {
+                    command.execute();
+                }
+            });
+            for (int attempt = 1; !saved && attempt <= SAVE_RETRIES; attempt++) {
+                Thread.sleep(RETRY_DELAY_MS * attempt);
+                saved = save(() -> { }); // Saves whatever is still dirty
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            RuntimeException saveFailure = saved ? null : new SaveFailedException();
+            for (Command<?> command : batch) {
+                command.complete(saveFailure);
+            }
+            double rate = batch.size() / Math.max((System.nanoTime() - start) / 1e9, 1e-6);
+            throughput = throughput == 0 ? rate : 0.8 * throughput + 0.2 * rate;
+        }
+    }
+
+    /**
+     * Run mutations in one batch across both managers
+     *
+     * @return true if both saves succeeded
+     */
+    private boolean save(Runnable mutations) {
+        boolean[] applicationsSaved = new boolean[1];
+        boolean internshipsSaved = internshipManager.runInBatch(
+                () -> applicationsSaved[0] = applicationManager.runInBatch(mutations));
+        return internshipsSaved && applicationsSaved[0];
+    }
+
+    /**
+     * Stop accepting commands and wait for queued ones to be committed
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            writer.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Command<?> command;
+        while ((command = queue.poll()) != null) {
+            command.future.completeExceptionally(new IllegalStateException("Pipeline is shut down"));
+        }
+    }
+}
@@ -26,4 +26,31 @@ public class CompositeFilter implements FilterStrategy {
         }
         return result;
     }
+
+    @Override
+    public boolean filterColumns(CatalogColumns columns, BitSet rows) {
+        for (FilterStrategy filter : filters) {
+            if (!filter.filterColumns(columns, rows)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Filters are ANDed, so order and duplicates do not matter:
+     * the key is the sorted set of the child keys
+     */
+    @Override
+    public String canonicalKey() {
+        SortedSet<String> keys = new TreeSet<>();
+        for (FilterStrategy filter : filters) {
+            String key = filter.canonicalKey();
+            if (key == null) {
+                return null;
+            }
+            keys.add(key);
+        }
+        return keys.isEmpty() ? "*" : String.join("&", keys);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+// ========== CountMinSketch.java ==========
+package ipms.control;
+
+import java.io.Serializable;
+
+/**
+ * Fixed-memory frequency estimator.
+ * Estimates never undercount; with width w and depth d they overcount by
+ * at most 2N / w (N = total count) with probability 1 - 2^-d.
+ */
+public class CountMinSketch implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int width;
+    private final int[][] counts;
+    private long total;
+
+    public CountMinSketch(int width, int depth) {
+        this.width = width;
+        this.counts = new int[depth][width];
+    }
+
+    /**
+     * Count one occurrence of an item by its well-mixed 64-bit hash
+     */
+    public void add(long hash) {
+        for (int row = 0; row < counts.length; row++) {
+            counts[row][bucket(hash, row)]++;
+        }
+        total++;
+    }
+
+    /**
+     * Estimate how many times an item was added
+     */
+    public int estimate(long hash) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < counts.length; row++) {
+            min = Math.min(min, counts[row][bucket(hash, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * Get the total number of occurrences added
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    private int bucket(long hash, int row) {
+        // Derive the row hashes from two halves of one hash (Kirsch-Mitzenmacher)
+        int h = (int) hash + row * (int) (hash >>> 32);
+        return Math.floorMod(h, width);
+    }
+}
@@ -0,0 +1,174 @@
+// ========== DomainEvent.java (Interface) ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Events published on the EventBus after each change made by the managers.
+ * Events are immutable snapshots: IDs plus the fields subscribers need,
+ * copied when the event is created, so a subscriber running behind the
+ * writer never sees later changes. The acting user's ID is carried for
+ * the audit log ("system" when there is none).
+ */
+public sealed interface DomainEvent {
+
+    /**
+     * Events about applications; each one changes the application data version
+     */
+    sealed interface ApplicationEvent extends DomainEvent {
+    }
+
+    /**
+     * Events about internships; each one changes the catalog version
+     */
+    sealed interface InternshipEvent extends DomainEvent {
+    }
+
+    /**
+     * The fields of an application that subscribers use
+     */
+    record ApplicationInfo(int applicationKey, String applicationID, String studentID, int studentMajorCode,
+            int opportunityKey, String opportunityID, int companyCode, InternshipLevel level,
+            LocalDate openingDate, LocalDate applicationDate) {
+
+        public static ApplicationInfo of(Application app) {
+            InternshipOpportunity opp = app.getOpportunity();
+            return new ApplicationInfo(app.getKey(), app.getApplicationID(), app.getStudentID(),
+                    app.getStudentMajorCode(), opp.getKey(), opp.getOpportunityID(), opp.getCompanyNameCode(),
+                    opp.getLevel(), opp.getOpeningDate(), app.getApplicationDate());
+        }
+    }
+
+    /**
+     * How far an application got through the placement funnel, for
+     * rebuilding analytics from a snapshot
+     *
+     * @param acceptedDate Date the placement was accepted, null if never accepted
+     */
+    record ApplicationOutcome(ApplicationInfo application, boolean offered, LocalDate acceptedDate,
+            boolean placementWithdrawn) {
+
+        public static ApplicationOutcome of(Application app) {
+            WithdrawalRequest request = app.getWithdrawalRequest();
+            boolean placementWithdrawn = app.getStatus() == ApplicationStatus.WITHDRAWN
+                    && request != null && request.isAfterPlacement()
+                    && request.getStatus() == WithdrawalStatus.APPROVED;
+            // An archived placement is no longer the student's, but keeps its acceptance date.
+            // Checked last, so students are only read for the few applications it could be.
+            boolean accepted = app.isAcceptedPlacement() || placementWithdrawn
+                    || (app.getStatus() == ApplicationStatus.SUCCESSFUL && app.getAcceptedDate() != null
+                            && app.getStudent().hasArchivedPlacement());
+            // Applications saved before acceptance dates were kept fall back to the application date
+            LocalDate acceptedDate = !accepted ? null
+                    : app.getAcceptedDate() != null ? app.getAcceptedDate() : app.getApplicationDate();
+            return new ApplicationOutcome(ApplicationInfo.of(app),
+                    accepted || app.getStatus() == ApplicationStatus.SUCCESSFUL, acceptedDate, placementWithdrawn);
+        }
+
+        public static List<ApplicationOutcome> of(Iterable<Application> applications) {
+            List<ApplicationOutcome> outcomes = new ArrayList<>();
+            for (Application app : applications) {
+                outcomes.add(of(app));
+            }
+            return List.copyOf(outcomes);
+        }
+    }
+
+    record ApplicationSubmitted(String actorID, ApplicationInfo application) implements ApplicationEvent {
+    }
+
+    /**
+     * @param offered true if the review newly made the application successful
+     */
+    record ApplicationReviewed(String actorID, ApplicationInfo application, boolean approved, boolean offered)
+            implements ApplicationEvent {
+    }
+
+    /**
+     * @param rank Rank set by the representative, 1 for the first offered
+     */
+    record ApplicationWaitlisted(String actorID, ApplicationInfo application, int rank)
+            implements ApplicationEvent {
+    }
+
+    /**
+     * A waitlisted application was offered a freed slot
+     *
+     * @param date Lifecycle date of the promotion
+     */
+    record WaitlistPromoted(ApplicationInfo application, LocalDate date) implements ApplicationEvent {
+    }
+
+    /**
+     * @param offered   true if the placement was also the offer, e.g. from batch allocation
+     * @param allocated true if staff allocated it rather than the student accepting
+     */
+    record PlacementAccepted(String actorID, ApplicationInfo application, LocalDate date, boolean offered,
+            boolean allocated) implements ApplicationEvent {
+    }
+
+    record WithdrawalRequested(String actorID, ApplicationInfo application, int requestKey, String requestID,
+            String reason, LocalDate requestDate, boolean afterPlacement) implements ApplicationEvent {
+    }
+
+    record WithdrawalDecided(String actorID, ApplicationInfo application, int requestKey, String requestID,
+            boolean afterPlacement, boolean approved) implements ApplicationEvent {
+    }
+
+    /**
+     * Applications were changed wholesale (e.g. by an undo or archiving);
+     * derived state should be rebuilt from the snapshot
+     */
+    record ApplicationsReset(List<ApplicationOutcome> applications) implements ApplicationEvent {
+    }
+
+    /**
+     * Application data was saved; subscribers that save their own state do
+     * so now, so it matches the saved data
+     */
+    record ApplicationsSaved() implements DomainEvent {
+    }
+
+    record InternshipCreated(String actorID, int opportunityKey, String opportunityID, String title)
+            implements InternshipEvent {
+    }
+
+    record InternshipReviewed(String actorID, int opportunityKey, String opportunityID, String companyName,
+            boolean approved) implements InternshipEvent {
+    }
+
+    record VisibilityToggled(String actorID, int opportunityKey, String opportunityID, boolean visible)
+            implements InternshipEvent {
+    }
+
+    /**
+     * An internship changed outside a review, e.g. slots filled or a
+     * lifecycle transition
+     */
+    record InternshipChanged(int opportunityKey) implements InternshipEvent {
+    }
+
+    /**
+     * Internships were removed or restored wholesale (e.g. by archiving);
+     * derived state should be rebuilt from the catalog
+     */
+    record CatalogReset() implements InternshipEvent {
+    }
+
+    record RepresentativeReviewed(String actorID, String representativeID, String companyName,
+            boolean approved, boolean bulk) implements DomainEvent {
+    }
+
+    record BulkApprovalUndone(String actorID, String description) implements DomainEvent {
+    }
+
+    /**
+     * Get the ID recorded for an acting user
+     */
+    static String actorOf(User actor) {
+        return actor == null ? "system" : actor.getUserID();
+    }
+}
@@ -0,0 +1,141 @@
+// ========== EventBus.java (SINGLETON) ==========
+package ipms.control;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process bus for domain events, built on java.util.concurrent.Flow.
+ * Managers publish an event after each change; subscribers such as
+ * analytics, sketches and audit logs receive events asynchronously and in
+ * publication order, so their work is off the write path.
+ * Each subscriber has a bounded buffer; if one falls that far behind,
+ * publishing waits for it rather than dropping events.
+ * Implements SINGLETON pattern
+ */
+public class EventBus {
+    private static final int BUFFER_CAPACITY = 1024;
+
+    private static EventBus instance;
+    private final SubmissionPublisher<DomainEvent> publisher;
+    private final List<HandlerSubscriber> subscribers;
+    private final AtomicLong published;
+
+    /**
+     * Delivers events one at a time to a handler
+     */
+    private static class HandlerSubscriber implements Flow.Subscriber<DomainEvent> {
+        private final String name;
+        private final Consumer<DomainEvent> handler;
+        private final long subscribedAt; // Events published before this one subscribed
+        private final AtomicLong handled;
+        private Flow.Subscription subscription;
+
+        HandlerSubscriber(String name, Consumer<DomainEvent> handler, long subscribedAt) {
+            this.name = name;
+            this.handler = handler;
+            this.subscribedAt = subscribedAt;
+            this.handled = new AtomicLong();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(DomainEvent event) {
+            try {
+                handler.accept(event);
+            } catch (RuntimeException e) {
+                System.err.println("Event subscriber " + name + " failed on " + event + ": " + e.getMessage());
+            }
+            handled.incrementAndGet();
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            System.err.println("Event subscriber " + name + " stopped: " + throwable.getMessage());
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private EventBus() {
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "event-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.publisher = new SubmissionPublisher<>(executor, BUFFER_CAPACITY);
+        this.subscribers = new CopyOnWriteArrayList<>();
+        this.published = new AtomicLong();
+    }
+
+    public static synchronized EventBus getInstance() {
+        if (instance == null) {
+            instance = new EventBus();
+        }
+        return instance;
+    }
+
+    /**
+     * Register a handler for all events published from now on
+     *
+     * @param name    Name used in error messages
+     * @param handler Called on a bus thread, one event at a time
+     */
+    public void subscribe(String name, Consumer<DomainEvent> handler) {
+        HandlerSubscriber subscriber = new HandlerSubscriber(name, handler, published.get());
+        subscribers.add(subscriber);
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Publish an event to every subscriber
+     */
+    public void publish(DomainEvent event) {
+        if (publisher.hasSubscribers()) {
+            published.incrementAndGet();
+            publisher.submit(event);
+        }
+    }
+
+    /**
+     * Wait until every subscriber has handled the events published so far,
+     * e.g. before saving state they maintain at shutdown
+     *
+     * @return false if the timeout passed first
+     */
+    public boolean drain(long timeoutMillis) {
+        long target = published.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (HandlerSubscriber subscriber : subscribers) {
+            while (subscriber.subscribedAt + subscriber.handled.get() < target) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the largest number of events any subscriber has yet to process
+     */
+    public int getLag() {
+        return publisher.estimateMaximumLag();
+    }
+}
@@ -0,0 +1,347 @@
+// ========== EventLog.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Append-only log of application events, the source of truth for the
+ * application store in event-sourced mode.
+ * Entries are written in length-prefixed binary frames to segment files
+ * named by their first sequence number. A checkpoint records the sequence
+ * up to which the projections (application shards) have been saved; a new
+ * segment is started after each checkpoint, so restart only reads the
+ * segments written since, and the segments it covers are deleted.
+ */
+class EventLog {
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final File directory;
+    private final List<Entry> pending;
+    private long lastSequence;
+    private long checkpointSequence;
+    private int checkpointGeneration; // 0 if there has been no checkpoint
+    private long segmentStart;
+
+    enum Kind {
+        SUBMITTED, REVIEWED, WAITLISTED, PROMOTED, ACCEPTED, WITHDRAWAL_REQUESTED, WITHDRAWAL_DECIDED
+    }
+
+    /**
+     * One logged change. Entities are referenced by key, and written as
+     * their display IDs; fields a kind does not use are empty (-1 for keys).
+     *
+     * @param studentID Student owning the application, used to partition replay
+     * @param flag      Approved for reviews and decisions, after-placement for requests
+     * @param rank      Waitlist rank for waitlisting, otherwise 0
+     */
+    record Entry(long sequence, Kind kind, String studentID, int applicationKey,
+            int opportunityKey, int requestKey, String text, LocalDate date, boolean flag, int rank) {
+
+        private void write(DataOutput out) throws IOException {
+            out.writeLong(sequence);
+            out.writeByte(kind.ordinal());
+            out.writeUTF(studentID);
+            out.writeUTF(Application.formatID(applicationKey));
+            out.writeUTF(InternshipOpportunity.formatID(opportunityKey));
+            out.writeUTF(requestKey < 0 ? "" : WithdrawalRequest.formatID(requestKey));
+            out.writeUTF(text);
+            out.writeLong(date == null ? Long.MIN_VALUE : date.toEpochDay());
+            out.writeBoolean(flag);
+            out.writeInt(rank);
+        }
+
+        private static Entry read(DataInputStream in) throws IOException {
+            long sequence = in.readLong();
+            Kind kind = Kind.values()[in.readByte()];
+            String studentID = in.readUTF();
+            int applicationKey = Application.parseID(in.readUTF());
+            int opportunityKey = InternshipOpportunity.parseID(in.readUTF());
+            String requestID = in.readUTF();
+            int requestKey = requestID.isEmpty() ? -1 : WithdrawalRequest.parseID(requestID);
+            String text = in.readUTF();
+            long day = in.readLong();
+            boolean flag = in.readBoolean();
+            int rank = in.available() >= Integer.BYTES ? in.readInt() : 0; // Absent in older entries
+            return new Entry(sequence, kind, studentID, applicationKey, opportunityKey, requestKey, text,
+                    day == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(day), flag, rank);
+        }
+    }
+
+    EventLog(File directory) {
+        this.directory = directory;
+        this.pending = new ArrayList<>();
+        readCheckpoint();
+        this.lastSequence = checkpointSequence;
+        this.segmentStart = checkpointSequence + 1;
+    }
+
+    /**
+     * Check whether a directory holds a log from earlier runs
+     */
+    static boolean exists(File directory) {
+        return new File(directory, CHECKPOINT_FILE).exists() || !segmentStarts(directory).isEmpty();
+    }
+
+    /**
+     * Get the directory holding the projections saved at the last
+     * checkpoint, or null if there has been none
+     */
+    File getCheckpointDirectory() {
+        return checkpointGeneration == 0 ? null : checkpointDirectory(checkpointGeneration);
+    }
+
+    /**
+     * Read every entry after the last checkpoint. A partly written entry at
+     * the end of the log (e.g. from a crash) is cut off.
+     * Must be called once, before anything is appended.
+     */
+    List<Entry> readSinceCheckpoint() {
+        List<Entry> entries = new ArrayList<>();
+        List<Long> starts = segmentStarts();
+        for (int i = 0; i < starts.size(); i++) {
+            boolean last = i == starts.size() - 1;
+            if (!last && starts.get(i + 1) <= checkpointSequence + 1) {
+                segmentFile(starts.get(i)).delete(); // Wholly covered by the checkpoint
+                continue;
+            }
+            readSegment(segmentFile(starts.get(i)), entries);
+        }
+        if (!starts.isEmpty() && starts.get(starts.size() - 1) > checkpointSequence) {
+            segmentStart = starts.get(starts.size() - 1);
+        }
+        return entries;
+    }
+
+    /**
+     * Queue an event for the next flush
+     *
+     * @return false if the event is not one the log records
+     */
+    boolean append(DomainEvent event) {
+        Entry entry = toEntry(lastSequence + 1, event);
+        if (entry == null) {
+            return false;
+        }
+        lastSequence = entry.sequence();
+        pending.add(entry);
+        return true;
+    }
+
+    /**
+     * Write queued entries to the current segment
+     *
+     * @return true if anything was written
+     */
+    boolean flush() {
+        if (pending.isEmpty()) {
+            return false;
+        }
+        directory.mkdirs();
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(segmentFile(segmentStart), true)))) {
+            for (Entry entry : pending) {
+                frame.reset();
+                entry.write(new DataOutputStream(frame));
+                out.writeInt(frame.size());
+                frame.writeTo(out);
+            }
+            pending.clear();
+        } catch (IOException e) {
+            System.err.println("Error writing event log: " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check that every appended entry has been written
+     */
+    boolean isFlushed() {
+        return pending.isEmpty();
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Get the number of entries logged since the last checkpoint
+     */
+    long getSinceCheckpoint() {
+        return lastSequence - checkpointSequence;
+    }
+
+    /**
+     * Get a fresh directory to save projections into for the next checkpoint
+     */
+    File nextCheckpointDirectory() {
+        return checkpointDirectory(checkpointGeneration + 1);
+    }
+
+    private File checkpointDirectory(int generation) {
+        return new File(directory, String.format("checkpoint-%06d", generation));
+    }
+
+    /**
+     * Record that projections up to a sequence number were saved to the
+     * next checkpoint directory, start a new segment and delete the
+     * previous checkpoint
+     */
+    void commitCheckpoint(long sequence) {
+        File temp = new File(directory, CHECKPOINT_FILE + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+                out.writeLong(sequence);
+                out.writeInt(checkpointGeneration + 1);
+            }
+            Files.move(temp.toPath(), new File(directory, CHECKPOINT_FILE).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving checkpoint: " + e.getMessage());
+            return;
+        }
+        if (checkpointGeneration != 0) {
+            deleteDirectory(checkpointDirectory(checkpointGeneration));
+        }
+        checkpointSequence = sequence;
+        checkpointGeneration++;
+        segmentStart = sequence + 1;
+        // Every entry in the segments so far is in the checkpoint; later entries go to the new segment
+        for (long start : segmentStarts()) {
+            if (start < segmentStart) {
+                segmentFile(start).delete();
+            }
+        }
+    }
+
+    /**
+     * Move the log aside once the state replayed from it has been saved
+     * elsewhere, so it is not replayed again. It is kept rather than
+     * deleted, in case it is needed.
+     *
+     * @return The directory it was moved to, or null if it could not be moved
+     */
+    File retire() {
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File retired = new File(directory.getPath() + ".retired-" + stamp);
+        return directory.renameTo(retired) ? retired : null;
+    }
+
+    private void readCheckpoint() {
+        File file = new File(directory, CHECKPOINT_FILE);
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            checkpointSequence = in.readLong();
+            checkpointGeneration = in.readInt();
+        } catch (IOException e) {
+            System.err.println("Error loading checkpoint: " + e.getMessage());
+        }
+    }
+
+    private void readSegment(File file, List<Entry> entries) {
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                int first = in.read();
+                if (first < 0) {
+                    return; // Clean end of segment
+                }
+                int length = first << 24 | in.readUnsignedByte() << 16
+                        | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                Entry entry = Entry.read(new DataInputStream(new ByteArrayInputStream(payload)));
+                valid += Integer.BYTES + length;
+                lastSequence = Math.max(lastSequence, entry.sequence());
+                if (entry.sequence() > checkpointSequence) {
+                    entries.add(entry);
+                }
+            }
+        } catch (EOFException e) {
+            truncate(file, valid);
+        } catch (IOException e) {
+            System.err.println("Error reading event log " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private void truncate(File file, long length) {
+        System.err.println("Discarding incomplete entry at the end of " + file.getName());
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        } catch (IOException e) {
+            System.err.println("Error truncating event log: " + e.getMessage());
+        }
+    }
+
+    private List<Long> segmentStarts() {
+        return segmentStarts(directory);
+    }
+
+    private static List<Long> segmentStarts(File directory) {
+        List<Long> starts = new ArrayList<>();
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.startsWith("segment-") && name.endsWith(".log")) {
+                    starts.add(Long.parseLong(name.substring(8, name.length() - 4)));
+                }
+            }
+        }
+        Collections.sort(starts);
+        return starts;
+    }
+
+    private File segmentFile(long start) {
+        return new File(directory, String.format("segment-%012d.log", start));
+    }
+
+    private static void deleteDirectory(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    /**
+     * Convert a domain event to a log entry, or null for events the
+     * application log does not record
+     */
+    private static Entry toEntry(long sequence, DomainEvent event) {
+        return switch (event) {
+            case DomainEvent.ApplicationSubmitted e -> entry(sequence, Kind.SUBMITTED, e.application(),
+                    -1, "", e.application().applicationDate(), false, 0);
+            case DomainEvent.ApplicationReviewed e -> entry(sequence, Kind.REVIEWED, e.application(),
+                    -1, "", null, e.approved(), 0);
+            case DomainEvent.ApplicationWaitlisted e -> entry(sequence, Kind.WAITLISTED, e.application(),
+                    -1, "", null, false, e.rank());
+            case DomainEvent.WaitlistPromoted e -> entry(sequence, Kind.PROMOTED, e.application(),
+                    -1, "", null, false, 0);
+            case DomainEvent.PlacementAccepted e -> entry(sequence, Kind.ACCEPTED, e.application(),
+                    -1, "", e.date(), false, 0);
+            case DomainEvent.WithdrawalRequested e -> entry(sequence, Kind.WITHDRAWAL_REQUESTED,
+                    e.application(), e.requestKey(), e.reason(), e.requestDate(), e.afterPlacement(), 0);
+            case DomainEvent.WithdrawalDecided e -> entry(sequence, Kind.WITHDRAWAL_DECIDED,
+                    e.application(), e.requestKey(), "", null, e.approved(), 0);
+            default -> null;
+        };
+    }
+
+    private static Entry entry(long sequence, Kind kind, DomainEvent.ApplicationInfo app, int requestKey,
+            String text, LocalDate date, boolean flag, int rank) {
+        return new Entry(sequence, kind, app.studentID(), app.applicationKey(),
+                app.opportunityKey(), requestKey, text == null ? "" : text, date, flag, rank);
+    }
+}
@@ -0,0 +1,175 @@
+// ========== EventReplay.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Replays logged application events onto the state loaded from a checkpoint.
+ * Every event only touches one student's applications, so the log is
+ * partitioned by student ID and partitions are applied in parallel, each in
+ * log order. Shared indexes (shards, internship application lists) and
+ * internship filled slots are left to the caller, which updates them once
+ * replay is done.
+ */
+class EventReplay {
+    private final Function<String, Student> students;
+    private final IntMap<InternshipOpportunity> opportunities;
+    private final Map<Integer, Application> applications;
+    private final Map<Integer, WithdrawalRequest> requests;
+    private final List<Application> created;
+    private final List<WithdrawalRequest> createdRequests;
+    private final Set<InternshipOpportunity> placementChanges;
+    private int skipped;
+
+    /**
+     * @param students      Looks up live students by user ID
+     * @param opportunities Live internships by key
+     * @param loaded        Applications loaded from the checkpoint
+     */
+    EventReplay(Function<String, Student> students, IntMap<InternshipOpportunity> opportunities,
+            Collection<Application> loaded) {
+        this.students = students;
+        this.opportunities = opportunities;
+        this.applications = new ConcurrentHashMap<>();
+        this.requests = new ConcurrentHashMap<>();
+        for (Application app : loaded) {
+            applications.put(app.getKey(), app);
+            if (app.getWithdrawalRequest() != null) {
+                requests.put(app.getWithdrawalRequest().getKey(), app.getWithdrawalRequest());
+            }
+        }
+        this.created = Collections.synchronizedList(new ArrayList<>());
+        this.createdRequests = Collections.synchronizedList(new ArrayList<>());
+        this.placementChanges = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Apply entries, which must be in sequence order
+     */
+    void replay(List<EventLog.Entry> entries) {
+        int partitions = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), entries.size()));
+        List<List<EventLog.Entry>> byPartition = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            byPartition.add(new ArrayList<>());
+        }
+        for (EventLog.Entry entry : entries) {
+            byPartition.get(Math.floorMod(entry.studentID().hashCode(), partitions)).add(entry);
+        }
+        int[] skippedPerPartition = new int[partitions];
+        IntStream.range(0, partitions).parallel().forEach(p -> {
+            for (EventLog.Entry entry : byPartition.get(p)) {
+                if (!apply(entry)) {
+                    skippedPerPartition[p]++;
+                }
+            }
+        });
+        skipped = Arrays.stream(skippedPerPartition).sum();
+    }
+
+    /**
+     * Get applications created by replayed submissions
+     */
+    List<Application> getCreated() {
+        return created;
+    }
+
+    /**
+     * Get withdrawal requests created by replayed requests
+     */
+    List<WithdrawalRequest> getCreatedRequests() {
+        return createdRequests;
+    }
+
+    /**
+     * Get internships that gained or lost an accepted placement
+     */
+    Set<InternshipOpportunity> getPlacementChanges() {
+        return placementChanges;
+    }
+
+    /**
+     * Get the number of entries that referred to unknown entities
+     */
+    int getSkipped() {
+        return skipped;
+    }
+
+    private boolean apply(EventLog.Entry entry) {
+        if (entry.kind() == EventLog.Kind.SUBMITTED) {
+            return submit(entry);
+        }
+        Application app = applications.get(entry.applicationKey());
+        if (app == null) {
+            return false;
+        }
+        switch (entry.kind()) {
+            case REVIEWED -> {
+                app.setWaitlisted(false);
+                app.setStatus(entry.flag() ? ApplicationStatus.SUCCESSFUL : ApplicationStatus.UNSUCCESSFUL);
+            }
+            case WAITLISTED -> {
+                app.setWaitlisted(true);
+                app.setWaitlistRank(entry.rank());
+            }
+            case PROMOTED -> {
+                app.setWaitlisted(false);
+                app.setStatus(ApplicationStatus.SUCCESSFUL);
+            }
+            case ACCEPTED -> {
+                app.setStatus(ApplicationStatus.SUCCESSFUL);
+                app.setAcceptedDate(entry.date());
+                app.getStudent().acceptPlacement(app);
+                placementChanges.add(app.getOpportunity());
+            }
+            case WITHDRAWAL_REQUESTED -> {
+                if (!requests.containsKey(entry.requestKey())) {
+                    WithdrawalRequest request = new WithdrawalRequest(entry.requestKey(), app,
+                            entry.text(), entry.flag(), entry.date());
+                    app.setWithdrawalRequest(request);
+                    requests.put(request.getKey(), request);
+                    createdRequests.add(request);
+                }
+            }
+            case WITHDRAWAL_DECIDED -> {
+                WithdrawalRequest request = requests.get(entry.requestKey());
+                if (request == null) {
+                    return false;
+                }
+                if (entry.flag()) {
+                    request.setStatus(WithdrawalStatus.APPROVED);
+                    app.setStatus(ApplicationStatus.WITHDRAWN);
+                    if (request.isAfterPlacement()) {
+                        app.getStudent().acceptPlacement(null);
+                        placementChanges.add(app.getOpportunity());
+                    }
+                } else {
+                    request.setStatus(WithdrawalStatus.REJECTED);
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean submit(EventLog.Entry entry) {
+        if (applications.containsKey(entry.applicationKey())) {
+            return true; // Already in the checkpoint
+        }
+        Student student = students.apply(entry.studentID());
+        InternshipOpportunity opp = opportunities.get(entry.opportunityKey());
+        if (student == null || opp == null) {
+            return false;
+        }
+        Application app = new Application(entry.applicationKey(), student, opp, entry.date());
+        student.getApplications().add(app); // History is authoritative; no limit check
+        applications.put(app.getKey(), app);
+        created.add(app);
+        return true;
+    }
+}
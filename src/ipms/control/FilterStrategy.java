@@ -2,6 +2,7 @@
 package ipms.control;
 
 import ipms.entity.InternshipOpportunity;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -10,4 +11,26 @@ import java.util.List;
  */
 public interface FilterStrategy {
     List<InternshipOpportunity> filter(List<InternshipOpportunity> internships);
+
+    /**
+     * Narrow a row selection over the columnar catalog in place.
+     * Filters that cannot run on columns return false, and the caller
+     * falls back to filter(List).
+     * 
+     * @param columns Columnar projection of the catalog
+     * @param rows    Selected rows, cleared where the filter does not match
+     * @return true if the selection was narrowed
+     */
+    default boolean filterColumns(CatalogColumns columns, BitSet rows) {
+        return false;
+    }
+
+    /**
+     * Get a key that is equal for filters selecting the same internships,
+     * used to cache results. Filters that cannot be keyed return null and
+     * are never cached.
+     */
+    default String canonicalKey() {
+        return null;
+    }
 }
\ No newline at end of file
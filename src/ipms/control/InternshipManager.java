@@ -3,8 +3,11 @@ package ipms.control;
 
 import ipms.entity.*;
 import java.io.*;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -13,14 +16,34 @@ import java.util.stream.Collectors;
  */
 public class InternshipManager {
     private static InternshipManager instance;
-    private List<InternshipOpportunity> internships;
+    private volatile PersistentVector<InternshipOpportunity> internships; // Published snapshot
+    private final IntMap<InternshipOpportunity> byKey; // Guarded by this
     private int nextID;
+    private int batchDepth;
+    private boolean dirty;
+    private final LifecycleScheduler lifecycle;
+    private final CatalogColumns columns;
+    private final AtomicLong version;
+    private final EventBus events;
     private static final String INTERNSHIPS_FILE = "data/internships.dat";
     
     private InternshipManager() {
-        this.internships = new ArrayList<>();
+        this.internships = PersistentVector.empty();
+        this.byKey = new IntMap<>();
         this.nextID = 1;
+        this.lifecycle = new LifecycleScheduler(Clock.systemDefaultZone());
+        this.columns = new CatalogColumns();
+        this.version = new AtomicLong();
+        this.events = EventBus.getInstance();
+        lifecycle.addListener(opp -> events.publish(new DomainEvent.InternshipChanged(opp.getKey())));
         loadInternships();
+        for (InternshipOpportunity internship : internships) {
+            byKey.put(internship.getKey(), internship);
+        }
+        lifecycle.scheduleAll(internships);
+        columns.rebuild(internships);
+        AuditLog.getInstance(); // Subscribes to the bus before the first event
+        events.subscribe("catalog-columns", this::onEvent);
     }
     
     public static InternshipManager getInstance() {
@@ -39,9 +62,18 @@ public class InternshipManager {
         if (file.exists()) {
             try (ObjectInputStream ois = new ObjectInputStream(
                     new FileInputStream(file))) {
-                internships = (List<InternshipOpportunity>) ois.readObject();
+                internships = PersistentVector.of((List<InternshipOpportunity>) ois.readObject());
                 nextID = ois.readInt();
                 System.out.println("Loaded " + internships.size() + " internships.");
+                StringDictionary dictionary = StringDictionary.getInstance();
+                for (InternshipOpportunity internship : internships) {
+                    // Fails now, not mid-session, if the dictionary is missing or short
+                    dictionary.decode(internship.getCompanyNameCode());
+                    dictionary.decode(internship.getPreferredMajorCode());
+                }
+                if (internships.stream().anyMatch(InternshipOpportunity::isLegacyFormat)) {
+                    saveInternships(); // So upgraded descriptions are appended only once
+                }
             } catch (IOException | ClassNotFoundException e) {
                 System.err.println("Error loading internships: " + e.getMessage());
             }
@@ -50,68 +82,148 @@ public class InternshipManager {
     
     /**
      * Save internships to file
+     *
+     * @return true if saved
      */
-    public void saveInternships() {
+    public boolean saveInternships() {
+        TextSegment.getInstance().force(); // Descriptions the snapshot refers to
         try {
             File file = new File(INTERNSHIPS_FILE);
             file.getParentFile().mkdirs();
             
             try (ObjectOutputStream oos = new ObjectOutputStream(
                     new FileOutputStream(file))) {
-                oos.writeObject(internships);
+                oos.writeObject(new ArrayList<>(internships));
                 oos.writeInt(nextID);
             }
+            dirty = false;
+            return true;
         } catch (IOException e) {
             System.err.println("Error saving internships: " + e.getMessage());
+            dirty = true; // Saved again by the next batch
+            return false;
+        }
+    }
+    
+    /**
+     * Run several mutations with a single save at the end.
+     * Saves requested inside the batch are deferred until it completes.
+     *
+     * @return false if the save at the end of the batch failed; the
+     *         changes stay marked dirty for the next save
+     */
+    public boolean runInBatch(Runnable mutations) {
+        batchDepth++;
+        boolean saved = true;
+        try {
+            mutations.run();
+        } finally {
+            if (--batchDepth == 0 && dirty) {
+                saved = saveInternships();
+            }
         }
+        return saved;
     }
     
     /**
-     * Create a new internship opportunity
+     * Save now, or defer the save if a batch is in progress.
+     * Also used by ApplicationManager after changing slots.
+     */
+    void persist() {
+        if (batchDepth > 0) {
+            dirty = true;
+        } else {
+            saveInternships();
+        }
+    }
+    
+    /**
+     * Create a new internship opportunity, recorded in the audit log against the representative
      */
     public InternshipOpportunity createInternship(String title, String description,
                                                   InternshipLevel level, String preferredMajor,
                                                   LocalDate openingDate, LocalDate closingDate,
                                                   String companyName, CompanyRepresentative rep,
                                                   int numSlots) {
-        String opportunityID = "INT" + String.format("%04d", nextID++);
-        
         InternshipOpportunity internship = new InternshipOpportunity(
-            opportunityID, title, description, level, preferredMajor,
+            nextID++, title, description, level, preferredMajor,
             openingDate, closingDate, companyName, rep, numSlots);
         
-        internships.add(internship);
+        publish(internship);
+        lifecycle.schedule(internship);
         rep.addInternship(internship);
-        saveInternships();
+        persist();
+        UserManager users = UserManager.getInstance();
+        users.markDirty(rep); // The representative's list of created internships
+        users.saveUsers();
+        events.publish(new DomainEvent.InternshipCreated(rep.getUserID(), internship.getKey(),
+                internship.getOpportunityID(), internship.getTitle()));
         
         return internship;
     }
     
     /**
-     * Get internship by ID
+     * Publish a new catalog snapshot with the internship appended.
+     * Readers holding the previous snapshot keep seeing it unchanged.
      */
-    public InternshipOpportunity getInternship(String opportunityID) {
-        for (InternshipOpportunity internship : internships) {
-            if (internship.getOpportunityID().equals(opportunityID)) {
-                return internship;
-            }
+    private synchronized void publish(InternshipOpportunity internship) {
+        internships = internships.append(internship);
+        byKey.put(internship.getKey(), internship);
+    }
+    
+    /**
+     * Apply any open/close transitions that have come due.
+     * Called on the command pipeline's writer thread only; readers never
+     * apply transitions, they compute phases from the clock.
+     */
+    public void advanceLifecycle() {
+        lifecycle.advance();
+    }
+    
+    /**
+     * Get the lifecycle scheduler, e.g. to count internships per phase
+     */
+    public LifecycleScheduler getLifecycle() {
+        return lifecycle;
+    }
+    
+    /**
+     * Replace the clock used for open/close transitions (for testing)
+     */
+    public void setClock(Clock clock) {
+        lifecycle.setClock(clock, internships);
+    }
+    
+    /**
+     * Get internship by key
+     */
+    public InternshipOpportunity getInternship(int key) {
+        synchronized (this) {
+            return byKey.get(key);
         }
-        return null;
     }
     
     /**
-     * Get all internships
+     * Get all internships as an immutable snapshot (not copied)
      */
     public List<InternshipOpportunity> getAllInternships() {
-        return new ArrayList<>(internships);
+        return internships;
+    }
+    
+    /**
+     * Visit every internship without copying the list, e.g. for streaming exports
+     */
+    public void forEachInternship(Consumer<InternshipOpportunity> action) {
+        internships.forEach(action);
     }
     
     /**
      * Get visible internships for a student
      */
     public List<InternshipOpportunity> getVisibleInternshipsForStudent(Student student) {
+        LocalDate today = lifecycle.today();
         return internships.stream()
-            .filter(i -> i.isVisible() && i.isEligibleStudent(student))
+            .filter(i -> i.isVisible() && i.isEligibleStudent(student, today))
             .collect(Collectors.toList());
     }
     
@@ -135,27 +247,144 @@ public class InternshipManager {
     
     /**
      * Approve an internship
+     *
+     * @param staff Staff member approving, for the audit log
      */
-    public void approveInternship(InternshipOpportunity internship) {
+    public void approveInternship(User staff, InternshipOpportunity internship) {
         internship.setStatus(OpportunityStatus.APPROVED);
         internship.setVisible(true); // Make visible by default
-        saveInternships();
+        persist();
+        events.publish(new DomainEvent.InternshipReviewed(DomainEvent.actorOf(staff), internship.getKey(),
+                internship.getOpportunityID(), internship.getCompanyName(), true));
     }
     
     /**
      * Reject an internship
+     *
+     * @param staff Staff member rejecting, for the audit log
      */
-    public void rejectInternship(InternshipOpportunity internship) {
+    public void rejectInternship(User staff, InternshipOpportunity internship) {
         internship.setStatus(OpportunityStatus.REJECTED);
-        saveInternships();
+        persist();
+        events.publish(new DomainEvent.InternshipReviewed(DomainEvent.actorOf(staff), internship.getKey(),
+                internship.getOpportunityID(), internship.getCompanyName(), false));
     }
     
     /**
      * Toggle visibility of an internship
+     *
+     * @param rep Representative toggling, for the audit log
      */
-    public void toggleVisibility(InternshipOpportunity internship) {
+    public void toggleVisibility(User rep, InternshipOpportunity internship) {
         internship.setVisible(!internship.isVisible());
-        saveInternships();
+        persist();
+        events.publish(new DomainEvent.VisibilityToggled(DomainEvent.actorOf(rep), internship.getKey(),
+                internship.getOpportunityID(), internship.isVisible()));
+    }
+    
+    /**
+     * Refresh derived state after an internship was changed outside this
+     * manager, e.g. slots filled by a placement
+     */
+    public void refresh(InternshipOpportunity internship) {
+        events.publish(new DomainEvent.InternshipChanged(internship.getKey()));
+    }
+
+    /**
+     * Keep the catalog columns and version in step with internship changes
+     * (EventBus subscriber). Rows are refreshed from the internship's current
+     * state; the version is bumped after, so results cached under it were
+     * computed from updated columns.
+     */
+    private void onEvent(DomainEvent event) {
+        if (!(event instanceof DomainEvent.InternshipEvent changed)) {
+            return;
+        }
+        switch (changed) {
+            case DomainEvent.CatalogReset e -> columns.rebuild(internships);
+            case DomainEvent.InternshipCreated e -> {
+                InternshipOpportunity internship = getInternship(e.opportunityKey());
+                if (internship != null) {
+                    columns.add(internship);
+                }
+            }
+            case DomainEvent.InternshipReviewed e -> update(e.opportunityKey());
+            case DomainEvent.VisibilityToggled e -> update(e.opportunityKey());
+            case DomainEvent.InternshipChanged e -> update(e.opportunityKey());
+        }
+        version.incrementAndGet();
+    }
+
+    private void update(int key) {
+        InternshipOpportunity internship = getInternship(key);
+        if (internship != null) {
+            columns.update(internship);
+        }
+    }
+    
+    /**
+     * Drop internships moved to the archive and save the rest
+     */
+    void removeArchived(Collection<InternshipOpportunity> archived) {
+        if (archived.isEmpty()) {
+            return;
+        }
+        Set<InternshipOpportunity> removed = new HashSet<>(archived);
+        synchronized (this) {
+            List<InternshipOpportunity> kept = new ArrayList<>();
+            for (InternshipOpportunity internship : internships) {
+                if (!removed.contains(internship)) {
+                    kept.add(internship);
+                }
+            }
+            internships = PersistentVector.of(kept);
+            for (InternshipOpportunity internship : removed) {
+                byKey.remove(internship.getKey());
+            }
+        }
+        lifecycle.scheduleAll(internships);
+        events.publish(new DomainEvent.CatalogReset());
+        persist();
+    }
+    
+    /**
+     * Get the catalog version, bumped by a bus subscriber after every change
+     * to an internship. Cached results computed at an older version are discarded.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+    
+    /**
+     * Get the columnar projection of the catalog for scans and aggregations
+     */
+    public CatalogColumns getCatalogColumns() {
+        return columns;
+    }
+    
+    /**
+     * Select internships matching a filter (null for all), on the columnar
+     * catalog when the filter supports it. Results of keyed filters are
+     * cached until the catalog changes.
+     * 
+     * @return Matching rows of the catalog columns; the caller may modify it
+     */
+    public BitSet selectRows(FilterStrategy filter) {
+        String key = filter == null ? "*" : filter.canonicalKey();
+        if (key == null) {
+            return computeRows(filter);
+        }
+        BitSet rows = ResultCache.getInstance().get("rows:" + key, version.get(),
+                () -> computeRows(filter), r -> r.size() / 8 + 64);
+        return (BitSet) rows.clone();
+    }
+    
+    private BitSet computeRows(FilterStrategy filter) {
+        BitSet rows = columns.allRows();
+        if (filter == null || filter.filterColumns(columns, rows)) {
+            return rows;
+        }
+        return columns.rowsOf(filter.filter(internships));
     }
     
     /**
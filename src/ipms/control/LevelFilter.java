@@ -18,4 +18,15 @@ public class LevelFilter implements FilterStrategy {
                 .filter(i -> i.getLevel() == level)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public boolean filterColumns(CatalogColumns columns, BitSet rows) {
+        columns.retainLevel(rows, level);
+        return true;
+    }
+
+    @Override
+    public String canonicalKey() {
+        return "level=" + level.name();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+// ========== LifecycleScheduler.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Moves internship opportunities between NOT_YET_OPEN, OPEN and CLOSED
+ * at the right day boundary.
+ * Pending transitions sit in a date-ordered priority queue, so checking
+ * for due work is O(1) and each transition is applied exactly once.
+ * The clock is injectable so tests can move time forward.
+ * Transitions are applied only on the command pipeline's writer thread;
+ * readers compute the phase from the clock with phaseOf, which changes
+ * nothing.
+ */
+public class LifecycleScheduler {
+    private final PriorityQueue<Transition> queue;
+    private final Map<OpportunityPhase, Integer> phaseCounts;
+    private final List<Consumer<InternshipOpportunity>> listeners;
+    private volatile Clock clock;
+    private LocalDate lastAdvanced;
+
+    /**
+     * A phase change due on a given day
+     */
+    private static class Transition {
+        private final LocalDate date;
+        private final InternshipOpportunity opportunity;
+        private final OpportunityPhase target;
+
+        Transition(LocalDate date, InternshipOpportunity opportunity, OpportunityPhase target) {
+            this.date = date;
+            this.opportunity = opportunity;
+            this.target = target;
+        }
+    }
+
+    public LifecycleScheduler(Clock clock) {
+        this.queue = new PriorityQueue<>(Comparator.comparing((Transition t) -> t.date)
+                .thenComparing(t -> t.target));
+        this.phaseCounts = new EnumMap<>(OpportunityPhase.class);
+        this.listeners = new ArrayList<>();
+        this.clock = clock;
+    }
+
+    /**
+     * Register a callback run once for every phase change
+     */
+    public void addListener(Consumer<InternshipOpportunity> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Replace the clock and reschedule every given internship against it
+     */
+    public void setClock(Clock clock, Collection<InternshipOpportunity> internships) {
+        this.clock = clock;
+        scheduleAll(internships);
+    }
+
+    /**
+     * Get today's date according to the scheduler's clock
+     */
+    public LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    /**
+     * Compute an internship's phase today from the clock, without applying
+     * any transition; safe to call from any thread
+     */
+    public OpportunityPhase phaseOf(InternshipOpportunity opp) {
+        return opp.getPhaseOn(today());
+    }
+
+    /**
+     * Compute the phase of every internship for today and queue its future transitions
+     */
+    public void scheduleAll(Collection<InternshipOpportunity> internships) {
+        queue.clear();
+        phaseCounts.clear();
+        lastAdvanced = today();
+        for (InternshipOpportunity opp : internships) {
+            schedule(opp);
+        }
+    }
+
+    /**
+     * Compute the phase of a new internship and queue its future transitions
+     */
+    public void schedule(InternshipOpportunity opp) {
+        LocalDate today = today();
+        OpportunityPhase phase = opp.getPhaseOn(today);
+        OpportunityPhase previous = opp.getPhase();
+        opp.setPhase(phase);
+        phaseCounts.merge(phase, 1, Integer::sum);
+        if (previous != phase) {
+            notifyListeners(opp);
+        }
+
+        if (phase == OpportunityPhase.NOT_YET_OPEN) {
+            queue.add(new Transition(opp.getOpeningDate(), opp, OpportunityPhase.OPEN));
+        }
+        if (phase != OpportunityPhase.CLOSED) {
+            queue.add(new Transition(opp.getClosingDate().plusDays(1), opp, OpportunityPhase.CLOSED));
+        }
+    }
+
+    /**
+     * Apply every transition that has come due. Writer thread only; cheap
+     * when nothing is due, so the writer calls it between batches.
+     */
+    public void advance() {
+        LocalDate today = today();
+        if (today.equals(lastAdvanced)) {
+            return;
+        }
+        lastAdvanced = today;
+
+        while (!queue.isEmpty() && !queue.peek().date.isAfter(today)) {
+            Transition transition = queue.poll();
+            InternshipOpportunity opp = transition.opportunity;
+            OpportunityPhase current = opp.getPhase();
+            if (current.ordinal() >= transition.target.ordinal()) {
+                continue; // Already applied
+            }
+            opp.setPhase(transition.target);
+            phaseCounts.merge(current, -1, Integer::sum);
+            phaseCounts.merge(transition.target, 1, Integer::sum);
+            notifyListeners(opp);
+        }
+    }
+
+    /**
+     * Get the number of internships currently in a phase
+     */
+    public int getPhaseCount(OpportunityPhase phase) {
+        return phaseCounts.getOrDefault(phase, 0);
+    }
+
+    private void notifyListeners(InternshipOpportunity opp) {
+        for (Consumer<InternshipOpportunity> listener : listeners) {
+            listener.accept(opp);
+        }
+    }
+}
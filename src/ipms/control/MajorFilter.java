@@ -2,20 +2,39 @@
 package ipms.control;
 
 import ipms.entity.InternshipOpportunity;
+import ipms.entity.StringDictionary;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class MajorFilter implements FilterStrategy {
-    private final String major;
+    private final int majorCode;
 
     public MajorFilter(String major) {
-        this.major = major;
+        this.majorCode = StringDictionary.getInstance().lookup(major);
     }
 
     @Override
     public List<InternshipOpportunity> filter(List<InternshipOpportunity> internships) {
+        if (majorCode == StringDictionary.NONE) {
+            return new ArrayList<>(); // No internship uses this major
+        }
         return internships.stream()
-                .filter(i -> i.getPreferredMajor().equalsIgnoreCase(major))
+                .filter(i -> i.getPreferredMajorCode() == majorCode)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public boolean filterColumns(CatalogColumns columns, BitSet rows) {
+        if (majorCode == StringDictionary.NONE) {
+            rows.clear();
+        } else {
+            columns.retainMajor(rows, majorCode);
+        }
+        return true;
+    }
+
+    @Override
+    public String canonicalKey() {
+        return "major=" + majorCode;
+    }
 }
\ No newline at end of file
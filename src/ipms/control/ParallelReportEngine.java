@@ -0,0 +1,318 @@
+// ========== ParallelReportEngine.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregates report statistics with fork/join once the data is large enough.
+ * Each task counts its own chunk into a private accumulator and the
+ * accumulators are merged on the way back up, so no counters are shared
+ * between threads. Small inputs are aggregated on the calling thread.
+ */
+public class ParallelReportEngine {
+    /** Below this many rows, splitting costs more than it saves */
+    static final int PARALLEL_THRESHOLD = 50_000;
+    private static final int LEAF_SIZE = 8_192;
+
+    /**
+     * Counts per status, level, major and company, plus slot totals overall
+     * and per company. Major and company arrays are indexed by dictionary code.
+     * Cached instances are shared, so getters return copies and nothing
+     * outside the engine can change them.
+     */
+    public static class Statistics {
+        private final int[] statusCounts;
+        private final int[] levelCounts;
+        private final int[] majorCounts;
+        private final int[] companyCounts;
+        private final long[] companySlots;
+        private final long[] companyFilledSlots;
+        private long totalSlots;
+        private long filledSlots;
+        private int total;
+
+        Statistics(int statuses, int dictionarySize) {
+            this.statusCounts = new int[statuses];
+            this.levelCounts = new int[InternshipLevel.values().length];
+            this.majorCounts = new int[dictionarySize];
+            this.companyCounts = new int[dictionarySize];
+            this.companySlots = new long[dictionarySize];
+            this.companyFilledSlots = new long[dictionarySize];
+        }
+
+        Statistics merge(Statistics other) {
+            add(statusCounts, other.statusCounts);
+            add(levelCounts, other.levelCounts);
+            add(majorCounts, other.majorCounts);
+            add(companyCounts, other.companyCounts);
+            add(companySlots, other.companySlots);
+            add(companyFilledSlots, other.companyFilledSlots);
+            totalSlots += other.totalSlots;
+            filledSlots += other.filledSlots;
+            total += other.total;
+            return this;
+        }
+
+        private static void add(int[] into, int[] from) {
+            for (int i = 0; i < into.length; i++) {
+                into[i] += from[i];
+            }
+        }
+
+        private static void add(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) {
+                into[i] += from[i];
+            }
+        }
+
+        private void countSlots(int companyCode, int slots, int filled) {
+            totalSlots += slots;
+            filledSlots += filled;
+            if (companyCode >= 0 && companyCode < companySlots.length) {
+                companySlots[companyCode] += slots;
+                companyFilledSlots[companyCode] += filled;
+            }
+        }
+
+        private static void count(int[] counts, int code) {
+            count(counts, code, 1);
+        }
+
+        private static void count(int[] counts, int code, int n) {
+            if (code >= 0 && code < counts.length) {
+                counts[code] += n;
+            }
+        }
+
+        public int[] getStatusCounts() { return statusCounts.clone(); }
+        public int[] getLevelCounts() { return levelCounts.clone(); }
+        public int[] getMajorCounts() { return majorCounts.clone(); }
+        public int[] getCompanyCounts() { return companyCounts.clone(); }
+        public long[] getCompanySlots() { return companySlots.clone(); }
+        public long[] getCompanyFilledSlots() { return companyFilledSlots.clone(); }
+        public long getTotalSlots() { return totalSlots; }
+        public long getFilledSlots() { return filledSlots; }
+        public int getTotal() { return total; }
+
+        long estimateSize() {
+            return 4L * (statusCounts.length + levelCounts.length + majorCounts.length
+                    + companyCounts.length) + 16L * companySlots.length + 128;
+        }
+
+        /**
+         * Get the fraction of slots filled, 0 if there are no slots
+         */
+        public double getFillRatio() {
+            return totalSlots == 0 ? 0.0 : (double) filledSlots / totalSlots;
+        }
+
+        /**
+         * Get the fraction of a company's slots filled, 0 if it has no slots
+         *
+         * @param companyCode Dictionary code of the company
+         */
+        public double getCompanyFillRatio(int companyCode) {
+            if (companyCode < 0 || companyCode >= companySlots.length || companySlots[companyCode] == 0) {
+                return 0.0;
+            }
+            return (double) companyFilledSlots[companyCode] / companySlots[companyCode];
+        }
+    }
+
+    /**
+     * Get statistics for the internships matching a filter (null for all),
+     * cached until the catalog changes
+     */
+    public Statistics internshipStatistics(FilterStrategy filter) {
+        InternshipManager internshipManager = InternshipManager.getInstance();
+        CatalogColumns columns = internshipManager.getCatalogColumns();
+        String key = filter == null ? "*" : filter.canonicalKey();
+        if (key == null) {
+            return aggregateInternships(columns, internshipManager.selectRows(filter));
+        }
+        return ResultCache.getInstance().get("internship-stats:" + key, internshipManager.getVersion(),
+                () -> aggregateInternships(columns, internshipManager.selectRows(filter)),
+                Statistics::estimateSize);
+    }
+
+    /**
+     * Get statistics for all applications, archived ones included, cached
+     * until applications or internships change
+     */
+    public Statistics applicationStatistics() {
+        ApplicationManager applicationManager = ApplicationManager.getInstance();
+        // Each counter only grows, so their sum changes whenever either does
+        long version = applicationManager.getVersion() + InternshipManager.getInstance().getVersion();
+        return ResultCache.getInstance().get("application-stats", version,
+                () -> addArchived(aggregateLiveApplications(applicationManager)),
+                Statistics::estimateSize);
+    }
+
+    /**
+     * Aggregate the live applications a page at a time, so they are never
+     * all held at once
+     */
+    private Statistics aggregateLiveApplications(ApplicationManager applicationManager) {
+        int dictionarySize = StringDictionary.getInstance().size(); // Every page counted to the same size
+        Statistics stats = new Statistics(ApplicationStatus.values().length, dictionarySize);
+        applicationManager.forEachPage(page -> stats.merge(aggregateApplications(page, dictionarySize)));
+        return stats;
+    }
+
+    /**
+     * Add the archived applications to live statistics, from the counts
+     * the archive index keeps per segment (no segments are read)
+     */
+    private Statistics addArchived(Statistics stats) {
+        for (ArchiveManager.SegmentInfo segment : ArchiveManager.getInstance().getSegments()) {
+            for (ApplicationStatus status : ApplicationStatus.values()) {
+                stats.statusCounts[status.ordinal()] += segment.getStatusCount(status);
+            }
+            for (InternshipLevel level : InternshipLevel.values()) {
+                stats.levelCounts[level.ordinal()] += segment.getLevelCount(level);
+            }
+            segment.getMajorCounts().forEach((code, count) -> Statistics.count(stats.majorCounts, code, count));
+            segment.getCompanyCounts().forEach((code, count) -> Statistics.count(stats.companyCounts, code, count));
+            stats.total += segment.getApplications();
+        }
+        return stats;
+    }
+
+    /**
+     * Aggregate the selected rows of the columnar catalog
+     */
+    public Statistics aggregateInternships(CatalogColumns columns, BitSet rows) {
+        int dictionarySize = StringDictionary.getInstance().size();
+        if (rows.cardinality() < PARALLEL_THRESHOLD) {
+            Statistics stats = new InternshipTask(columns, rows, 0, columns.size(), dictionarySize, false)
+                    .computeDirectly();
+            // Status and level counts come from the (possibly SIMD) column kernels
+            System.arraycopy(columns.countByStatus(rows), 0, stats.statusCounts, 0, stats.statusCounts.length);
+            System.arraycopy(columns.countByLevel(rows), 0, stats.levelCounts, 0, stats.levelCounts.length);
+            return stats;
+        }
+        return ForkJoinPool.commonPool().invoke(
+                new InternshipTask(columns, rows, 0, columns.size(), dictionarySize, true));
+    }
+
+    /**
+     * Aggregate a list of applications
+     */
+    public Statistics aggregateApplications(List<Application> applications) {
+        return aggregateApplications(applications, StringDictionary.getInstance().size());
+    }
+
+    private Statistics aggregateApplications(List<Application> applications, int dictionarySize) {
+        ApplicationTask task = new ApplicationTask(applications, 0, applications.size(), dictionarySize);
+        if (applications.size() < PARALLEL_THRESHOLD) {
+            return task.computeDirectly();
+        }
+        return ForkJoinPool.commonPool().invoke(task);
+    }
+
+    /**
+     * Counts a range of catalog rows
+     */
+    private static class InternshipTask extends RecursiveTask<Statistics> {
+        private static final long serialVersionUID = 1L;
+        private final transient CatalogColumns columns; // Tasks are never serialized
+        private final BitSet rows;
+        private final int from;
+        private final int to;
+        private final int dictionarySize;
+        private final boolean countEnums;
+
+        InternshipTask(CatalogColumns columns, BitSet rows, int from, int to, int dictionarySize,
+                boolean countEnums) {
+            this.columns = columns;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.dictionarySize = dictionarySize;
+            this.countEnums = countEnums;
+        }
+
+        @Override
+        protected Statistics compute() {
+            if (to - from <= LEAF_SIZE) {
+                return computeDirectly();
+            }
+            int mid = (from + to) >>> 1;
+            InternshipTask left = new InternshipTask(columns, rows, from, mid, dictionarySize, countEnums);
+            left.fork();
+            Statistics right = new InternshipTask(columns, rows, mid, to, dictionarySize, countEnums)
+                    .compute();
+            return left.join().merge(right);
+        }
+
+        Statistics computeDirectly() {
+            Statistics stats = new Statistics(OpportunityStatus.values().length, dictionarySize);
+            byte[] status = columns.statusColumn();
+            byte[] level = columns.levelColumn();
+            int[] major = columns.majorCodeColumn();
+            int[] company = columns.companyCodeColumn();
+            int[] slots = columns.slotsColumn();
+            int[] filled = columns.filledSlotsColumn();
+
+            for (int r = rows.nextSetBit(from); r >= 0 && r < to; r = rows.nextSetBit(r + 1)) {
+                if (countEnums) {
+                    stats.statusCounts[status[r]]++;
+                    stats.levelCounts[level[r]]++;
+                }
+                Statistics.count(stats.majorCounts, major[r]);
+                Statistics.count(stats.companyCounts, company[r]);
+                stats.countSlots(company[r], slots[r], filled[r]);
+                stats.total++;
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Counts a range of applications by status, internship level,
+     * student major and company
+     */
+    private static class ApplicationTask extends RecursiveTask<Statistics> {
+        private static final long serialVersionUID = 1L;
+        private final transient List<Application> applications; // Tasks are never serialized
+        private final int from;
+        private final int to;
+        private final int dictionarySize;
+
+        ApplicationTask(List<Application> applications, int from, int to, int dictionarySize) {
+            this.applications = applications;
+            this.from = from;
+            this.to = to;
+            this.dictionarySize = dictionarySize;
+        }
+
+        @Override
+        protected Statistics compute() {
+            if (to - from <= LEAF_SIZE) {
+                return computeDirectly();
+            }
+            int mid = (from + to) >>> 1;
+            ApplicationTask left = new ApplicationTask(applications, from, mid, dictionarySize);
+            left.fork();
+            Statistics right = new ApplicationTask(applications, mid, to, dictionarySize).compute();
+            return left.join().merge(right);
+        }
+
+        Statistics computeDirectly() {
+            Statistics stats = new Statistics(ApplicationStatus.values().length, dictionarySize);
+            for (int i = from; i < to; i++) {
+                Application app = applications.get(i);
+                InternshipOpportunity opp = app.getOpportunity();
+                stats.statusCounts[app.getStatus().ordinal()]++;
+                stats.levelCounts[opp.getLevel().ordinal()]++;
+                Statistics.count(stats.majorCounts, app.getStudentMajorCode());
+                Statistics.count(stats.companyCounts, opp.getCompanyNameCode());
+                stats.total++;
+            }
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+// ========== PersistentVector.java ==========
+package ipms.control;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Immutable list with cheap appends, used to publish catalog snapshots.
+ * Elements live in a 32-way trie plus a tail block; append copies only the
+ * tail or the path to the new leaf (O(log32 n)), and shares everything else
+ * with the previous version. Readers holding an old version are unaffected
+ * by later appends, so snapshots can be handed out without copying or locking.
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] EMPTY_NODE = new Object[0];
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, EMPTY_NODE, EMPTY_NODE);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Build a vector holding the given elements in order
+     */
+    public static <E> PersistentVector<E> of(Collection<? extends E> elements) {
+        PersistentVector<E> vector = empty();
+        for (E element : elements) {
+            vector = vector.append(element);
+        }
+        return vector;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    /**
+     * Return a new vector with the element added at the end
+     */
+    public PersistentVector<E> append(E element) {
+        int inTail = size - tailOffset();
+        if (inTail < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, inTail + 1);
+            newTail[inTail] = element;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+
+        // Tail is full: push it into the trie and start a new tail
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            // Root is full: grow the trie by one level
+            newRoot = new Object[] {root, newPath(shift, tail)};
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[] {element});
+    }
+
+    /**
+     * Visit elements leaf by leaf, without a trie walk per element
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        int tailOffset = tailOffset();
+        for (int i = 0; i < tailOffset; i += WIDTH) {
+            for (Object element : leafFor(i)) {
+                action.accept((E) element);
+            }
+        }
+        for (Object element : tail) {
+            action.accept((E) element);
+        }
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] leaf) {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Object[] node = Arrays.copyOf(parent, subIndex + 1);
+        Object[] child;
+        if (level == BITS) {
+            child = leaf;
+        } else if (subIndex < parent.length) {
+            child = pushTail(level - BITS, (Object[]) parent[subIndex], leaf);
+        } else {
+            child = newPath(level - BITS, leaf);
+        }
+        node[subIndex] = child;
+        return node;
+    }
+
+    private static Object[] newPath(int level, Object[] leaf) {
+        return level == 0 ? leaf : new Object[] {newPath(level - BITS, leaf)};
+    }
+}
@@ -0,0 +1,196 @@
+// ========== PlacementAllocator.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Batch placement allocation for Career Center Staff.
+ * Computes a student-optimal stable matching (deferred acceptance)
+ * over existing applications, respecting the remaining slots of each
+ * internship, and commits the result in a single save.
+ */
+public class PlacementAllocator {
+    private final ApplicationManager applicationManager;
+
+    public PlacementAllocator() {
+        this.applicationManager = ApplicationManager.getInstance();
+    }
+
+    /**
+     * Default student preferences: each student ranks their open
+     * applications in the order they were submitted.
+     *
+     * @return Preference list per student, most preferred first
+     */
+    public Map<Student, List<Application>> defaultStudentPreferences() {
+        Map<Student, List<Application>> prefs = new LinkedHashMap<>();
+        for (Application app : applicationManager.getAllApplications()) {
+            if (isAllocatable(app)) {
+                prefs.computeIfAbsent(app.getStudent(), s -> new ArrayList<>()).add(app);
+            }
+        }
+        return prefs;
+    }
+
+    /**
+     * Default representative rankings: each internship ranks its
+     * applicants first come, first served.
+     *
+     * @return Ranking per internship, most preferred first
+     */
+    public Map<InternshipOpportunity, List<Application>> defaultRepRankings() {
+        Map<InternshipOpportunity, List<Application>> rankings = new LinkedHashMap<>();
+        for (Application app : applicationManager.getAllApplications()) {
+            if (isAllocatable(app)) {
+                rankings.computeIfAbsent(app.getOpportunity(), o -> new ArrayList<>()).add(app);
+            }
+        }
+        return rankings;
+    }
+
+    /**
+     * Computes a student-optimal stable matching.
+     * Applications missing from a representative's ranking are treated as
+     * unacceptable to that internship. Independent groups of companies
+     * (no student applying across them) are matched in parallel.
+     *
+     * @param studentPrefs Preference list per student, most preferred first
+     * @param repRankings  Ranking per internship, most preferred first
+     * @return The matched application for each placed student
+     */
+    public Map<Student, Application> computeMatching(Map<Student, List<Application>> studentPrefs,
+            Map<InternshipOpportunity, List<Application>> repRankings) {
+        Map<Application, Integer> rank = new HashMap<>();
+        for (List<Application> ranking : repRankings.values()) {
+            for (int i = 0; i < ranking.size(); i++) {
+                rank.putIfAbsent(ranking.get(i), i);
+            }
+        }
+
+        // Keep only proposals both sides accept
+        Map<Student, List<Application>> prefs = new LinkedHashMap<>();
+        studentPrefs.forEach((student, apps) -> {
+            List<Application> acceptable = apps.stream()
+                    .filter(a -> a.getStudent() == student && rank.containsKey(a) && isAllocatable(a))
+                    .distinct()
+                    .collect(Collectors.toList());
+            if (!acceptable.isEmpty()) {
+                prefs.put(student, acceptable);
+            }
+        });
+
+        return partitionByCompany(prefs).parallelStream()
+                .map(group -> deferredAcceptance(group, rank))
+                .flatMap(m -> m.entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Computes the matching from the given rankings and commits it.
+     *
+     * @param staff        Staff member allocating, for the audit log
+     * @param studentPrefs Preference list per student, most preferred first
+     * @param repRankings  Ranking per internship, most preferred first
+     * @return The committed placements, or an empty map if the commit failed
+     */
+    public Map<Student, Application> allocate(User staff, Map<Student, List<Application>> studentPrefs,
+            Map<InternshipOpportunity, List<Application>> repRankings) {
+        Map<Student, Application> matching = computeMatching(studentPrefs, repRankings);
+        if (!applicationManager.commitPlacements(staff, matching.values())) {
+            return Collections.emptyMap();
+        }
+        return matching;
+    }
+
+    /**
+     * Checks whether an application can take part in an allocation run.
+     */
+    static boolean isAllocatable(Application app) {
+        InternshipOpportunity opp = app.getOpportunity();
+        WithdrawalRequest request = app.getWithdrawalRequest();
+        return (app.getStatus() == ApplicationStatus.PENDING
+                        || app.getStatus() == ApplicationStatus.SUCCESSFUL)
+                && app.getStudent().getAcceptedPlacement() == null
+                && (request == null || request.getStatus() == WithdrawalStatus.REJECTED)
+                && opp.getStatus() == OpportunityStatus.APPROVED
+                && opp.getFilledSlots() < opp.getNumSlots();
+    }
+
+    /**
+     * Splits students into groups whose applications never share a company,
+     * using union-find over company name codes.
+     */
+    private Collection<Map<Student, List<Application>>> partitionByCompany(
+            Map<Student, List<Application>> prefs) {
+        Map<Integer, Integer> parent = new HashMap<>();
+        for (List<Application> apps : prefs.values()) {
+            int first = find(parent, apps.get(0).getOpportunity().getCompanyNameCode());
+            for (Application app : apps) {
+                int other = find(parent, app.getOpportunity().getCompanyNameCode());
+                if (other != first) {
+                    parent.put(other, first);
+                }
+            }
+        }
+
+        Map<Integer, Map<Student, List<Application>>> groups = new HashMap<>();
+        prefs.forEach((student, apps) -> groups
+                .computeIfAbsent(find(parent, apps.get(0).getOpportunity().getCompanyNameCode()),
+                        k -> new LinkedHashMap<>())
+                .put(student, apps));
+        return groups.values();
+    }
+
+    private static int find(Map<Integer, Integer> parent, int company) {
+        int root = company;
+        while (parent.containsKey(root) && parent.get(root) != root) {
+            root = parent.get(root);
+        }
+        parent.put(company, root);
+        parent.putIfAbsent(root, root);
+        return root;
+    }
+
+    /**
+     * Student-proposing deferred acceptance with per-internship capacity.
+     */
+    private Map<Student, Application> deferredAcceptance(Map<Student, List<Application>> prefs,
+            Map<Application, Integer> rank) {
+        // Worst held application at the head of each queue
+        Comparator<Application> worstFirst = Comparator.<Application>comparingInt(rank::get).reversed();
+        Map<InternshipOpportunity, PriorityQueue<Application>> held = new HashMap<>();
+        Map<Student, Integer> nextChoice = new HashMap<>();
+        Deque<Student> free = new ArrayDeque<>(prefs.keySet());
+
+        while (!free.isEmpty()) {
+            Student student = free.poll();
+            List<Application> choices = prefs.get(student);
+            int next = nextChoice.getOrDefault(student, 0);
+            if (next >= choices.size()) {
+                continue; // Exhausted all choices, stays unmatched
+            }
+            nextChoice.put(student, next + 1);
+
+            Application proposal = choices.get(next);
+            InternshipOpportunity opp = proposal.getOpportunity();
+            int capacity = opp.getNumSlots() - opp.getFilledSlots();
+            PriorityQueue<Application> queue = held.computeIfAbsent(opp,
+                    o -> new PriorityQueue<>(worstFirst));
+
+            queue.add(proposal);
+            if (queue.size() > capacity) {
+                free.add(queue.poll().getStudent());
+            }
+        }
+
+        Map<Student, Application> matching = new HashMap<>();
+        for (PriorityQueue<Application> queue : held.values()) {
+            for (Application app : queue) {
+                matching.put(app.getStudent(), app);
+            }
+        }
+        return matching;
+    }
+}
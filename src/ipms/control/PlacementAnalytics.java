@@ -0,0 +1,326 @@
+// ========== PlacementAnalytics.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Incrementally maintained placement analytics for staff:
+ * applications per posting and per company (for top-K queries),
+ * the placement funnel, how fast companies fill their slots, and daily
+ * rollups keyed on application date.
+ * Kept up to date from domain events as they happen, so queries never
+ * rescan the full application history. Applications moved to the archive
+ * stay counted through the totals the archive keeps per segment.
+ */
+public class PlacementAnalytics {
+    private final Totals live;
+    private Totals archived; // From the archive index, replaced on each rebuild
+
+    /**
+     * Stages of the placement funnel, in order
+     */
+    public enum FunnelStage {
+        SUBMITTED("Submitted"),
+        OFFERED("Offered (Successful)"),
+        ACCEPTED("Placement Accepted"),
+        WITHDRAWN("Withdrawn After Placement");
+
+        private final String displayName;
+
+        FunnelStage(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * A key with its count, as returned by top-K queries
+     */
+    public static class Ranked<K> {
+        private final K key;
+        private final int count;
+
+        Ranked(K key, int count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        public K getKey() { return key; }
+        public int getCount() { return count; }
+    }
+
+    /**
+     * Running aggregates over a set of applications. The archive keeps one
+     * per segment, so history moved out of the managers stays counted.
+     */
+    public static class Totals implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final HashMap<Integer, Integer> postingCounts = new HashMap<>(); // By opportunity key
+        private final HashMap<Integer, Integer> companyCounts = new HashMap<>();
+        private final HashMap<Integer, long[]> companyFillDays = new HashMap<>(); // {total days to fill, placements}
+        private final TreeMap<LocalDate, int[]> daily = new TreeMap<>();
+        private final int[] funnel = new int[FunnelStage.values().length];
+
+        /**
+         * Count an application by how far it got through the funnel
+         */
+        void record(DomainEvent.ApplicationOutcome outcome) {
+            DomainEvent.ApplicationInfo app = outcome.application();
+            recordSubmitted(app);
+            if (outcome.offered()) {
+                recordOffered(app);
+            }
+            if (outcome.acceptedDate() != null) {
+                recordAccepted(app, outcome.acceptedDate());
+            }
+            if (outcome.placementWithdrawn()) {
+                recordPlacementWithdrawn(app);
+            }
+        }
+
+        void recordSubmitted(DomainEvent.ApplicationInfo app) {
+            postingCounts.merge(app.opportunityKey(), 1, Integer::sum);
+            companyCounts.merge(app.companyCode(), 1, Integer::sum);
+            bump(app, FunnelStage.SUBMITTED);
+        }
+
+        void recordOffered(DomainEvent.ApplicationInfo app) {
+            bump(app, FunnelStage.OFFERED);
+        }
+
+        /**
+         * Record an accepted placement and how many days after opening it came
+         */
+        void recordAccepted(DomainEvent.ApplicationInfo app, LocalDate acceptedOn) {
+            long days = Math.max(0, ChronoUnit.DAYS.between(app.openingDate(), acceptedOn));
+            long[] fill = companyFillDays.computeIfAbsent(app.companyCode(), c -> new long[2]);
+            fill[0] += days;
+            fill[1]++;
+            bump(app, FunnelStage.ACCEPTED);
+        }
+
+        void recordPlacementWithdrawn(DomainEvent.ApplicationInfo app) {
+            bump(app, FunnelStage.WITHDRAWN);
+        }
+
+        /**
+         * Add another set of totals to this one
+         */
+        void add(Totals other) {
+            other.postingCounts.forEach((key, count) -> postingCounts.merge(key, count, Integer::sum));
+            other.companyCounts.forEach((code, count) -> companyCounts.merge(code, count, Integer::sum));
+            other.companyFillDays.forEach((code, fill) -> {
+                long[] into = companyFillDays.computeIfAbsent(code, c -> new long[2]);
+                into[0] += fill[0];
+                into[1] += fill[1];
+            });
+            other.daily.forEach((day, counts) -> {
+                int[] into = daily.computeIfAbsent(day, d -> new int[FunnelStage.values().length]);
+                for (int i = 0; i < into.length; i++) {
+                    into[i] += counts[i];
+                }
+            });
+            for (int i = 0; i < funnel.length; i++) {
+                funnel[i] += other.funnel[i];
+            }
+        }
+
+        /**
+         * Get application counts per company, by dictionary code
+         */
+        public Map<Integer, Integer> getCompanyCounts() {
+            return Collections.unmodifiableMap(companyCounts);
+        }
+
+        private void clear() {
+            postingCounts.clear();
+            companyCounts.clear();
+            companyFillDays.clear();
+            daily.clear();
+            Arrays.fill(funnel, 0);
+        }
+
+        private void bump(DomainEvent.ApplicationInfo app, FunnelStage stage) {
+            funnel[stage.ordinal()]++;
+            daily.computeIfAbsent(app.applicationDate(),
+                    d -> new int[FunnelStage.values().length])[stage.ordinal()]++;
+        }
+    }
+
+    public PlacementAnalytics() {
+        this.live = new Totals();
+        this.archived = new Totals();
+    }
+
+    /**
+     * Recompute everything from a snapshot of applications, e.g. after loading.
+     * Offers and acceptances are inferred from current state, as history is
+     * not stored; acceptances are dated by the stored acceptance date.
+     *
+     * @param archived Totals over archived applications, which are kept as they are
+     */
+    public synchronized void rebuild(List<DomainEvent.ApplicationOutcome> applications, Totals archived) {
+        live.clear();
+        for (DomainEvent.ApplicationOutcome outcome : applications) {
+            live.record(outcome);
+        }
+        this.archived = archived;
+    }
+
+    /**
+     * Update the analytics from a domain event (EventBus subscriber)
+     */
+    public void onEvent(DomainEvent event) {
+        switch (event) {
+            case DomainEvent.ApplicationSubmitted e -> recordSubmitted(e.application());
+            case DomainEvent.ApplicationReviewed e -> {
+                if (e.offered()) {
+                    recordOffered(e.application());
+                }
+            }
+            case DomainEvent.WaitlistPromoted e -> recordOffered(e.application());
+            case DomainEvent.PlacementAccepted e -> {
+                if (e.offered()) {
+                    recordOffered(e.application());
+                }
+                recordAccepted(e.application(), e.date());
+            }
+            case DomainEvent.WithdrawalDecided e -> {
+                if (e.approved() && e.afterPlacement()) {
+                    recordPlacementWithdrawn(e.application());
+                }
+            }
+            // Archiving also resets; the archive's totals then include what it moved
+            case DomainEvent.ApplicationsReset e ->
+                    rebuild(e.applications(), ArchiveManager.getInstance().getAnalyticsTotals());
+            default -> {
+            }
+        }
+    }
+
+    public synchronized void recordSubmitted(DomainEvent.ApplicationInfo app) {
+        live.recordSubmitted(app);
+    }
+
+    public synchronized void recordOffered(DomainEvent.ApplicationInfo app) {
+        live.recordOffered(app);
+    }
+
+    public synchronized void recordAccepted(DomainEvent.ApplicationInfo app, LocalDate acceptedOn) {
+        live.recordAccepted(app, acceptedOn);
+    }
+
+    public synchronized void recordPlacementWithdrawn(DomainEvent.ApplicationInfo app) {
+        live.recordPlacementWithdrawn(app);
+    }
+
+    /**
+     * Get the K most contested postings by number of applications,
+     * archived postings included
+     */
+    public List<Ranked<InternshipOpportunity>> topPostings(int k) {
+        List<Ranked<Integer>> top;
+        synchronized (this) {
+            top = topK(combined().postingCounts, k);
+        }
+        InternshipManager internships = InternshipManager.getInstance();
+        List<Ranked<InternshipOpportunity>> result = new ArrayList<>();
+        for (Ranked<Integer> ranked : top) {
+            InternshipOpportunity opp = internships.getInternship(ranked.getKey());
+            if (opp == null) {
+                opp = ArchiveManager.getInstance().getArchivedInternship(ranked.getKey());
+            }
+            if (opp != null) {
+                result.add(new Ranked<>(opp, ranked.getCount()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the K companies with the most applications, keyed by company name
+     */
+    public synchronized List<Ranked<String>> topCompanies(int k) {
+        List<Ranked<String>> result = new ArrayList<>();
+        StringDictionary dictionary = StringDictionary.getInstance();
+        for (Ranked<Integer> ranked : topK(combined().companyCounts, k)) {
+            result.add(new Ranked<>(dictionary.decode(ranked.getKey()), ranked.getCount()));
+        }
+        return result;
+    }
+
+    /**
+     * Get the average days from opening to each accepted placement, per
+     * company, fastest first
+     */
+    public synchronized Map<String, Double> companyFillSpeed() {
+        StringDictionary dictionary = StringDictionary.getInstance();
+        List<Map.Entry<Integer, long[]>> entries = new ArrayList<>(combined().companyFillDays.entrySet());
+        entries.sort(Comparator.comparingDouble(e -> (double) e.getValue()[0] / e.getValue()[1]));
+
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (Map.Entry<Integer, long[]> entry : entries) {
+            long[] fill = entry.getValue();
+            result.put(dictionary.decode(entry.getKey()), (double) fill[0] / fill[1]);
+        }
+        return result;
+    }
+
+    /**
+     * Get the count of applications that reached each funnel stage
+     */
+    public synchronized int getFunnelCount(FunnelStage stage) {
+        return live.funnel[stage.ordinal()] + archived.funnel[stage.ordinal()];
+    }
+
+    /**
+     * Get per-day funnel counts for applications made in a date range
+     *
+     * @return Counts per FunnelStage ordinal, keyed by application date
+     */
+    public synchronized NavigableMap<LocalDate, int[]> dailyRollups(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, int[]> result = new TreeMap<>();
+        combined().daily.subMap(from, true, to, true).forEach((day, counts) -> result.put(day, counts));
+        return result;
+    }
+
+    /**
+     * Live and archived totals added together, as a new instance
+     */
+    private Totals combined() {
+        Totals totals = new Totals();
+        totals.add(live);
+        totals.add(archived);
+        return totals;
+    }
+
+    /**
+     * Select the K largest counts with a bounded min-heap, O(n log k)
+     */
+    private static <K> List<Ranked<K>> topK(Map<K, Integer> counts, int k) {
+        PriorityQueue<Map.Entry<K, Integer>> heap =
+                new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<K, Integer> entry : counts.entrySet()) {
+            heap.add(entry);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        List<Ranked<K>> result = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            Map.Entry<K, Integer> entry = heap.poll();
+            result.add(new Ranked<>(entry.getKey(), entry.getValue()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+}
@@ -0,0 +1,101 @@
+// ========== PlacementJournal.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Write-ahead record of a committed placement batch.
+ * Applications and internships live in separate files, so a batch is
+ * recorded here before it is applied, and the record is cleared once both
+ * have been saved. A record found at startup means a crash or failed save
+ * left the files out of step, and the batch is finished from it.
+ * Applications are recorded by display ID, as in the other files.
+ */
+class PlacementJournal {
+    private final File file;
+
+    /**
+     * Placements recorded and not yet known to be saved
+     *
+     * @param applicationKeys Keys of the placed applications
+     * @param date            Date the placements were accepted
+     */
+    record Batch(Set<Integer> applicationKeys, LocalDate date) {
+    }
+
+    PlacementJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Record placements, together with any still recorded from an earlier
+     * batch whose saves failed. Replaced atomically, so a crash leaves
+     * either the old record or the new one.
+     *
+     * @return true if recorded; the batch must not be applied otherwise
+     */
+    boolean write(Collection<Application> placements, LocalDate date) {
+        Set<Integer> keys = new TreeSet<>();
+        Batch earlier = read();
+        if (earlier != null) {
+            keys.addAll(earlier.applicationKeys());
+        }
+        for (Application app : placements) {
+            keys.add(app.getKey());
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            file.getParentFile().mkdirs();
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+                out.writeLong(date.toEpochDay());
+                out.writeInt(keys.size());
+                for (int key : keys) {
+                    out.writeUTF(Application.formatID(key));
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving placement journal: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Read the recorded placements
+     *
+     * @return The batch, or null if nothing is recorded
+     */
+    Batch read() {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            LocalDate date = LocalDate.ofEpochDay(in.readLong());
+            int count = in.readInt();
+            Set<Integer> keys = new TreeSet<>();
+            for (int i = 0; i < count; i++) {
+                keys.add(Application.parseID(in.readUTF()));
+            }
+            return new Batch(keys, date);
+        } catch (IOException e) {
+            System.err.println("Error loading placement journal: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Forget the recorded placements once applications and internships are saved
+     */
+    void clear() {
+        if (file.exists() && !file.delete()) {
+            System.err.println("Could not delete " + file);
+        }
+    }
+}
@@ -0,0 +1,352 @@
+// ========== ReportExporter.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Exports reports and raw entity dumps to CSV or JSON files.
+ * Rows are streamed straight from the managers into a reused direct buffer
+ * and written through a FileChannel, so heap use stays constant however
+ * many rows are exported. Separators and JSON keys are encoded once per export.
+ */
+public class ReportExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InternshipManager internshipManager;
+    private final ApplicationManager applicationManager;
+
+    /**
+     * Output file formats
+     */
+    public enum Format {
+        CSV("csv"),
+        JSON("json");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public ReportExporter() {
+        this.internshipManager = InternshipManager.getInstance();
+        this.applicationManager = ApplicationManager.getInstance();
+    }
+
+    /**
+     * Export the internship report summary (counts per section) for a filter
+     *
+     * @return Number of rows written
+     */
+    public long exportInternshipReport(Path path, Format format, FilterStrategy filter) throws IOException {
+        ParallelReportEngine.Statistics stats = new ParallelReportEngine().internshipStatistics(filter);
+
+        try (RecordWriter out = new RecordWriter(path, format, "section", "value", "count")) {
+            out.write("total", "opportunities", stats.getTotal());
+            for (OpportunityStatus status : OpportunityStatus.values()) {
+                out.write("status", status.name(), stats.getStatusCounts()[status.ordinal()]);
+            }
+            writeCommonSections(out, stats, "preferred_major");
+            out.write("slots", "filled", stats.getFilledSlots());
+            out.write("slots", "total", stats.getTotalSlots());
+            StringDictionary dictionary = StringDictionary.getInstance();
+            long[] companySlots = stats.getCompanySlots();
+            long[] companyFilled = stats.getCompanyFilledSlots();
+            for (int code = 0; code < companySlots.length; code++) {
+                if (companySlots[code] > 0) {
+                    out.write("company_slots_filled", dictionary.decode(code), companyFilled[code]);
+                    out.write("company_slots_total", dictionary.decode(code), companySlots[code]);
+                }
+            }
+            return out.getRecords();
+        }
+    }
+
+    /**
+     * Export the application report summary (counts per section)
+     *
+     * @return Number of rows written
+     */
+    public long exportApplicationReport(Path path, Format format) throws IOException {
+        ParallelReportEngine.Statistics stats = new ParallelReportEngine().applicationStatistics();
+
+        try (RecordWriter out = new RecordWriter(path, format, "section", "value", "count")) {
+            out.write("total", "applications", stats.getTotal());
+            for (ApplicationStatus status : ApplicationStatus.values()) {
+                out.write("status", status.name(), stats.getStatusCounts()[status.ordinal()]);
+            }
+            writeCommonSections(out, stats, "student_major");
+            return out.getRecords();
+        }
+    }
+
+    /**
+     * Dump every internship opportunity, including archived ones
+     *
+     * @return Number of rows written
+     */
+    public long exportInternships(Path path, Format format) throws IOException {
+        LifecycleScheduler lifecycle = internshipManager.getLifecycle();
+        try (RecordWriter out = new RecordWriter(path, format, "opportunity_id", "title", "company",
+                "level", "preferred_major", "status", "phase", "visible", "slots", "filled_slots",
+                "opening_date", "closing_date")) {
+            Consumer<InternshipOpportunity> row = opp -> out.write(opp.getOpportunityID(), opp.getTitle(),
+                    opp.getCompanyName(), opp.getLevel().name(), opp.getPreferredMajor(),
+                    opp.getStatus().name(), lifecycle.phaseOf(opp).name(), opp.isVisible(), opp.getNumSlots(),
+                    opp.getFilledSlots(), opp.getOpeningDate(), opp.getClosingDate());
+            internshipManager.forEachInternship(row);
+            ArchiveManager.getInstance().forEachArchivedInternship(row);
+            return out.getRecords();
+        }
+    }
+
+    /**
+     * Dump every application, including archived ones
+     *
+     * @return Number of rows written
+     */
+    public long exportApplications(Path path, Format format) throws IOException {
+        try (RecordWriter out = new RecordWriter(path, format, "application_id", "student_id",
+                "student_name", "opportunity_id", "company", "status", "application_date", "waitlisted")) {
+            Consumer<Application> row = app -> out.write(app.getApplicationID(),
+                    app.getStudent().getUserID(), app.getStudent().getName(),
+                    app.getOpportunity().getOpportunityID(), app.getOpportunity().getCompanyName(),
+                    app.getStatus().name(), app.getApplicationDate(), app.isWaitlisted());
+            applicationManager.forEachApplication(row);
+            ArchiveManager.getInstance().forEachArchivedApplication(row);
+            return out.getRecords();
+        }
+    }
+
+    /**
+     * Dump every withdrawal request, including archived ones
+     *
+     * @return Number of rows written
+     */
+    public long exportWithdrawals(Path path, Format format) throws IOException {
+        try (RecordWriter out = new RecordWriter(path, format, "request_id", "application_id",
+                "status", "after_placement", "request_date", "reason")) {
+            Consumer<WithdrawalRequest> row = req -> out.write(req.getRequestID(),
+                    req.getApplication().getApplicationID(), req.getStatus().name(),
+                    req.isAfterPlacement(), req.getRequestDate(), req.getReason());
+            applicationManager.forEachWithdrawal(row);
+            ArchiveManager.getInstance().forEachArchivedApplication(app -> {
+                if (app.getWithdrawalRequest() != null) {
+                    row.accept(app.getWithdrawalRequest());
+                }
+            });
+            return out.getRecords();
+        }
+    }
+
+    private void writeCommonSections(RecordWriter out, ParallelReportEngine.Statistics stats,
+            String majorSection) {
+        StringDictionary dictionary = StringDictionary.getInstance();
+        for (InternshipLevel level : InternshipLevel.values()) {
+            out.write("level", level.name(), stats.getLevelCounts()[level.ordinal()]);
+        }
+        int[] majors = stats.getMajorCounts();
+        for (int code = 0; code < majors.length; code++) {
+            if (majors[code] > 0) {
+                out.write(majorSection, dictionary.decode(code), majors[code]);
+            }
+        }
+        int[] companies = stats.getCompanyCounts();
+        for (int code = 0; code < companies.length; code++) {
+            if (companies[code] > 0) {
+                out.write("company", dictionary.decode(code), companies[code]);
+            }
+        }
+    }
+
+    /**
+     * Streams records of a fixed set of fields to a file as CSV or JSON
+     */
+    private static class RecordWriter implements AutoCloseable {
+        private static final byte[] COMMA = {','};
+        private static final byte[] NEWLINE = {'\n'};
+        private static final byte[] QUOTE = {'"'};
+        private static final byte[] JSON_OPEN = "[\n".getBytes(StandardCharsets.UTF_8);
+        private static final byte[] JSON_CLOSE = "\n]\n".getBytes(StandardCharsets.UTF_8);
+        private static final byte[] JSON_NEXT = ",\n".getBytes(StandardCharsets.UTF_8);
+        private static final byte[] JSON_END = {'}'};
+        private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+        private final FileChannel channel;
+        private final Format format;
+        private final ByteBuffer buffer;
+        private final CharsetEncoder encoder;
+        private final StringBuilder scratch;
+        private final byte[][] keys; // Pre-encoded JSON keys, e.g. {"status":
+        private long records;
+
+        RecordWriter(Path path, Format format, String... fields) throws IOException {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.format = format;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            this.encoder = StandardCharsets.UTF_8.newEncoder();
+            this.scratch = new StringBuilder(256);
+            this.keys = new byte[fields.length][];
+
+            for (int i = 0; i < fields.length; i++) {
+                String prefix = (i == 0 ? "{" : ",") + "\"" + fields[i] + "\":";
+                keys[i] = prefix.getBytes(StandardCharsets.UTF_8);
+            }
+
+            if (format == Format.CSV) {
+                for (int i = 0; i < fields.length; i++) {
+                    if (i > 0) {
+                        put(COMMA);
+                    }
+                    put(fields[i].getBytes(StandardCharsets.UTF_8));
+                }
+                put(NEWLINE);
+            } else {
+                put(JSON_OPEN);
+            }
+        }
+
+        long getRecords() {
+            return records;
+        }
+
+        /**
+         * Write one record; values line up with the fields given at construction.
+         * I/O errors are rethrown unchecked so this can be used from a forEach.
+         */
+        void write(Object... values) {
+            try {
+                if (format == Format.CSV) {
+                    for (int i = 0; i < values.length; i++) {
+                        if (i > 0) {
+                            put(COMMA);
+                        }
+                        writeCsvValue(values[i]);
+                    }
+                    put(NEWLINE);
+                } else {
+                    if (records > 0) {
+                        put(JSON_NEXT);
+                    }
+                    for (int i = 0; i < values.length; i++) {
+                        put(keys[i]);
+                        writeJsonValue(values[i]);
+                    }
+                    put(JSON_END);
+                }
+                records++;
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        }
+
+        private void writeCsvValue(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value.toString();
+            boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                    || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+            if (!quote) {
+                putText(text);
+                return;
+            }
+            put(QUOTE);
+            putText(text.replace("\"", "\"\""));
+            put(QUOTE);
+        }
+
+        private void writeJsonValue(Object value) throws IOException {
+            if (value == null) {
+                put(NULL);
+            } else if (value instanceof Number || value instanceof Boolean) {
+                putText(value.toString());
+            } else {
+                String text = value.toString();
+                scratch.setLength(0);
+                scratch.append('"');
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    switch (c) {
+                        case '"' -> scratch.append("\\\"");
+                        case '\\' -> scratch.append("\\\\");
+                        case '\n' -> scratch.append("\\n");
+                        case '\r' -> scratch.append("\\r");
+                        case '\t' -> scratch.append("\\t");
+                        default -> {
+                            if (c < 0x20) {
+                                scratch.append(String.format("\\u%04x", (int) c));
+                            } else {
+                                scratch.append(c);
+                            }
+                        }
+                    }
+                }
+                scratch.append('"');
+                putText(scratch);
+            }
+        }
+
+        private void put(byte[] bytes) throws IOException {
+            if (buffer.remaining() < bytes.length) {
+                drain();
+            }
+            buffer.put(bytes);
+        }
+
+        private void putText(CharSequence text) throws IOException {
+            CharBuffer chars = CharBuffer.wrap(text);
+            encoder.reset();
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, true);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isUnderflow()) {
+                    break;
+                } else {
+                    result.throwException();
+                }
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (format == Format.JSON) {
+                    put(JSON_CLOSE);
+                }
+                drain();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
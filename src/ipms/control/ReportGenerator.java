@@ -11,21 +11,20 @@ import java.util.*;
 public class ReportGenerator {
     private final InternshipManager internshipManager;
     private final ApplicationManager applicationManager;
+    private final ParallelReportEngine engine;
 
     public ReportGenerator() {
         this.internshipManager = InternshipManager.getInstance();
         this.applicationManager = ApplicationManager.getInstance();
+        this.engine = new ParallelReportEngine();
     }
 
     /**
      * Generate comprehensive internship report
      */
     public void generateInternshipReport(FilterStrategy filter) {
-        List<InternshipOpportunity> internships = internshipManager.getAllInternships();
-
-        if (filter != null) {
-            internships = filter.filter(internships);
-        }
+        CatalogColumns columns = internshipManager.getCatalogColumns();
+        List<InternshipOpportunity> internships = columns.toList(internshipManager.selectRows(filter));
 
         System.out.println("\n" + "=".repeat(80));
         System.out.println("INTERNSHIP OPPORTUNITIES REPORT");
@@ -33,26 +32,45 @@ public class ReportGenerator {
         System.out.println("Total Opportunities: " + internships.size());
         System.out.println("=".repeat(80));
 
-        // Group by status
-        Map<OpportunityStatus, Integer> statusCounts = new HashMap<>();
-        Map<InternshipLevel, Integer> levelCounts = new HashMap<>();
-        Map<String, Integer> majorCounts = new HashMap<>();
-
-        for (InternshipOpportunity opp : internships) {
-            statusCounts.merge(opp.getStatus(), 1, Integer::sum);
-            levelCounts.merge(opp.getLevel(), 1, Integer::sum);
-            majorCounts.merge(opp.getPreferredMajor(), 1, Integer::sum);
-        }
+        // Group by status, level, major and company over the catalog columns
+        ParallelReportEngine.Statistics stats = engine.internshipStatistics(filter);
+        int[] statusCounts = stats.getStatusCounts();
+        int[] levelCounts = stats.getLevelCounts();
 
         // Print summary
         System.out.println("\nBY STATUS:");
-        statusCounts.forEach((status, count) -> System.out.printf("  %-15s: %d%n", status, count));
+        for (OpportunityStatus status : OpportunityStatus.values()) {
+            if (statusCounts[status.ordinal()] > 0) {
+                System.out.printf("  %-15s: %d%n", status, statusCounts[status.ordinal()]);
+            }
+        }
 
         System.out.println("\nBY LEVEL:");
-        levelCounts.forEach((level, count) -> System.out.printf("  %-15s: %d%n", level, count));
+        for (InternshipLevel level : InternshipLevel.values()) {
+            if (levelCounts[level.ordinal()] > 0) {
+                System.out.printf("  %-15s: %d%n", level, levelCounts[level.ordinal()]);
+            }
+        }
 
         System.out.println("\nBY PREFERRED MAJOR:");
-        majorCounts.forEach((major, count) -> System.out.printf("  %-15s: %d%n", major, count));
+        printCodedCounts(stats.getMajorCounts());
+
+        System.out.println("\nBY COMPANY:");
+        printCodedCounts(stats.getCompanyCounts());
+
+        System.out.printf("%nSLOTS FILLED: %d/%d (%.1f%%)%n",
+                stats.getFilledSlots(), stats.getTotalSlots(), stats.getFillRatio() * 100);
+
+        System.out.println("\nSLOTS FILLED BY COMPANY:");
+        long[] companySlots = stats.getCompanySlots();
+        long[] companyFilled = stats.getCompanyFilledSlots();
+        StringDictionary dictionary = StringDictionary.getInstance();
+        for (int code = 0; code < companySlots.length; code++) {
+            if (companySlots[code] > 0) {
+                System.out.printf("  %-15s: %d/%d (%.1f%%)%n", dictionary.decode(code), companyFilled[code],
+                        companySlots[code], stats.getCompanyFillRatio(code) * 100);
+            }
+        }
 
         System.out.println("\nDETAILED LISTING:");
         System.out.println("-".repeat(80));
@@ -69,29 +87,162 @@ public class ReportGenerator {
                     opp.getOpeningDate(), opp.getClosingDate());
             System.out.println("-".repeat(80));
         }
+        System.out.println("\nResult cache: " + ResultCache.getInstance().getStatistics());
     }
 
     /**
      * Generate application statistics report
      */
     public void generateApplicationReport() {
-        List<Application> apps = applicationManager.getAllApplications();
+        ParallelReportEngine.Statistics stats = engine.applicationStatistics();
+        int total = stats.getTotal();
 
         System.out.println("\n" + "=".repeat(80));
         System.out.println("APPLICATION STATISTICS REPORT");
         System.out.println("Generated on: " + LocalDate.now());
-        System.out.println("Total Applications: " + apps.size());
+        System.out.println("Total Applications: " + total);
         System.out.println("=".repeat(80));
 
-        Map<ApplicationStatus, Integer> statusCounts = new HashMap<>();
-        for (Application app : apps) {
-            statusCounts.merge(app.getStatus(), 1, Integer::sum);
-        }
+        int[] statusCounts = stats.getStatusCounts();
 
         System.out.println("\nAPPLICATIONS BY STATUS:");
-        statusCounts.forEach((status, count) -> System.out.printf("  %-15s: %d (%.1f%%)%n",
-                status, count, (count * 100.0 / apps.size())));
+        for (ApplicationStatus status : ApplicationStatus.values()) {
+            int count = statusCounts[status.ordinal()];
+            if (count > 0) {
+                System.out.printf("  %-15s: %d (%.1f%%)%n", status, count, (count * 100.0 / total));
+            }
+        }
+
+        System.out.println("\nAPPLICATIONS BY INTERNSHIP LEVEL:");
+        for (InternshipLevel level : InternshipLevel.values()) {
+            if (stats.getLevelCounts()[level.ordinal()] > 0) {
+                System.out.printf("  %-15s: %d%n", level, stats.getLevelCounts()[level.ordinal()]);
+            }
+        }
+
+        System.out.println("\nAPPLICATIONS BY STUDENT MAJOR:");
+        printCodedCounts(stats.getMajorCounts());
+
+        System.out.println("\nAPPLICATIONS BY COMPANY:");
+        printCodedCounts(stats.getCompanyCounts());
+
+        printArchiveSummary();
+        printApproximateAnalytics();
+
+        System.out.println("\nApplication pages: " + applicationManager.getPageStatistics());
+        System.out.println("=".repeat(80));
+    }
+
+    /**
+     * Print counts of archived applications per semester, from the archive
+     * index alone (no segments are read). They are already in the totals above.
+     */
+    private void printArchiveSummary() {
+        List<ArchiveManager.SegmentInfo> segments = ArchiveManager.getInstance().getSegments();
+        if (segments.isEmpty()) {
+            return;
+        }
+        Map<String, int[]> bySemester = new TreeMap<>();
+        for (ArchiveManager.SegmentInfo segment : segments) {
+            int[] counts = bySemester.computeIfAbsent(segment.getSemester(), s -> new int[5]);
+            counts[0] += segment.getInternships();
+            counts[1] += segment.getApplications();
+            counts[2] += segment.getStatusCount(ApplicationStatus.SUCCESSFUL);
+            counts[3] += segment.getStatusCount(ApplicationStatus.WITHDRAWN);
+            counts[4] += segment.getStatusCount(ApplicationStatus.UNSUCCESSFUL);
+        }
+
+        System.out.println("\nOF WHICH ARCHIVED (PAST SEMESTERS, INCLUDED ABOVE):");
+        System.out.printf("  %-10s %12s %13s %11s %10s %13s%n", "Semester", "Internships", "Applications",
+                "Successful", "Withdrawn", "Unsuccessful");
+        bySemester.forEach((semester, counts) -> System.out.printf("  %-10s %12d %13d %11d %10d %13d%n",
+                semester, counts[0], counts[1], counts[2], counts[3], counts[4]));
+    }
+
+    /**
+     * Print sketch-based estimates over the whole application history,
+     * including applications no longer held in detail
+     */
+    private void printApproximateAnalytics() {
+        ApplicationSketches sketches = applicationManager.getSketches();
+        LocalDate today = internshipManager.getLifecycle().today();
+
+        System.out.println("\nAPPROXIMATE ANALYTICS (estimates, all-time):");
+        System.out.println("  Distinct applicants / applications per company:");
+        sketches.distinctApplicantsPerCompany().forEach((company, applicants) ->
+                System.out.printf("    %-20s: ~%d / ~%d%n", company, applicants,
+                        sketches.estimateApplications(company)));
+
+        System.out.println("  Distinct majors applying per level:");
+        sketches.distinctMajorsPerLevel().forEach((level, majors) ->
+                System.out.printf("    %-18s: ~%d%n", level, majors));
+
+        System.out.println("  Unique students applying per week (last 8 weeks):");
+        LocalDate from = today.minusWeeks(7);
+        sketches.uniqueStudentsPerWeek(from, today).forEach((week, students) ->
+                System.out.printf("    Week of %-10s: ~%d%n", week, students));
+        System.out.printf("    %-18s: ~%d%n", "All 8 weeks", sketches.uniqueStudents(from, today));
+    }
+
+    /**
+     * Generate placement analytics: most contested postings, busiest and
+     * fastest-filling companies, the placement funnel and recent daily activity
+     */
+    public void generatePlacementAnalyticsReport(int topK, int days) {
+        PlacementAnalytics analytics = applicationManager.getAnalytics();
+        LocalDate today = internshipManager.getLifecycle().today();
+
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("PLACEMENT ANALYTICS REPORT");
+        System.out.println("Generated on: " + today);
+        System.out.println("=".repeat(80));
+
+        System.out.println("\nTOP " + topK + " MOST CONTESTED POSTINGS:");
+        for (PlacementAnalytics.Ranked<InternshipOpportunity> ranked : analytics.topPostings(topK)) {
+            InternshipOpportunity opp = ranked.getKey();
+            System.out.printf("  %-10s %-30s %-20s: %d applications%n", opp.getOpportunityID(),
+                    opp.getTitle(), opp.getCompanyName(), ranked.getCount());
+        }
+
+        System.out.println("\nTOP " + topK + " COMPANIES BY APPLICATIONS:");
+        for (PlacementAnalytics.Ranked<String> ranked : analytics.topCompanies(topK)) {
+            System.out.printf("  %-20s: %d%n", ranked.getKey(), ranked.getCount());
+        }
+
+        System.out.println("\nFASTEST-FILLING COMPANIES (avg days from opening to acceptance):");
+        int shown = 0;
+        for (Map.Entry<String, Double> entry : analytics.companyFillSpeed().entrySet()) {
+            if (shown++ == topK) {
+                break;
+            }
+            System.out.printf("  %-20s: %.1f days%n", entry.getKey(), entry.getValue());
+        }
+
+        System.out.println("\nPLACEMENT FUNNEL:");
+        int submitted = analytics.getFunnelCount(PlacementAnalytics.FunnelStage.SUBMITTED);
+        for (PlacementAnalytics.FunnelStage stage : PlacementAnalytics.FunnelStage.values()) {
+            int count = analytics.getFunnelCount(stage);
+            System.out.printf("  %-28s: %d (%.1f%%)%n", stage, count,
+                    submitted == 0 ? 0.0 : count * 100.0 / submitted);
+        }
+
+        System.out.println("\nDAILY ACTIVITY BY APPLICATION DATE (last " + days + " days):");
+        System.out.printf("  %-12s %10s %10s %10s %10s%n", "Date", "Submitted", "Offered", "Accepted", "Withdrawn");
+        analytics.dailyRollups(today.minusDays(days - 1), today).forEach((day, counts) ->
+                System.out.printf("  %-12s %10d %10d %10d %10d%n", day, counts[0], counts[1], counts[2], counts[3]));
 
         System.out.println("\n" + "=".repeat(80));
     }
+
+    /**
+     * Print non-zero counts indexed by dictionary code
+     */
+    private void printCodedCounts(int[] counts) {
+        StringDictionary dictionary = StringDictionary.getInstance();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                System.out.printf("  %-15s: %d%n", dictionary.decode(code), counts[code]);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+// ========== ResultCache.java (SINGLETON) ==========
+package ipms.control;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Read-through cache for filter selections and report statistics.
+ * Each entry is tagged with the data version it was computed from; a
+ * lookup at any other version is a miss and recomputes, so results are
+ * never stale. Least recently used entries are evicted once the estimated
+ * size of all entries exceeds the memory bound.
+ * Implements SINGLETON pattern
+ */
+public class ResultCache {
+    private static final long DEFAULT_MAX_BYTES = 8L * 1024 * 1024;
+
+    private static ResultCache instance;
+    private final LinkedHashMap<String, Entry> entries;
+    private long maxBytes;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private static class Entry {
+        final Object value;
+        final long version;
+        final long size;
+
+        Entry(Object value, long version, long size) {
+            this.value = value;
+            this.version = version;
+            this.size = size;
+        }
+    }
+
+    private ResultCache() {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true); // Access order for LRU
+        this.maxBytes = DEFAULT_MAX_BYTES;
+    }
+
+    public static synchronized ResultCache getInstance() {
+        if (instance == null) {
+            instance = new ResultCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the cached result for a key at the given data version, computing
+     * and caching it on a miss
+     *
+     * @param key     Canonical key of the query
+     * @param version Current version of the data the result depends on
+     * @param loader  Computes the result
+     * @param sizer   Estimates the result's size in bytes
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T get(String key, long version, Supplier<T> loader, ToLongFunction<T> sizer) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version == version) {
+            hits++;
+            return (T) entry.value;
+        }
+        misses++;
+        if (entry != null) {
+            remove(key);
+        }
+
+        T value = loader.get();
+        long size = sizer.applyAsLong(value);
+        if (size <= maxBytes) {
+            entries.put(key, new Entry(value, version, size));
+            bytes += size;
+            evict();
+        }
+        return value;
+    }
+
+    /**
+     * Change the memory bound, evicting entries if now over it
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized int getEntryCount() { return entries.size(); }
+    public synchronized long getBytes() { return bytes; }
+
+    /**
+     * Get a one-line summary of cache usage
+     */
+    public synchronized String getStatistics() {
+        long lookups = hits + misses;
+        return String.format("%d hits, %d misses (%.1f%% hit rate), %d entries, %d KB of %d KB, %d evictions",
+                hits, misses, lookups == 0 ? 0.0 : hits * 100.0 / lookups,
+                entries.size(), bytes / 1024, maxBytes / 1024, evictions);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().getValue().size;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            bytes -= entry.size;
+        }
+    }
+}
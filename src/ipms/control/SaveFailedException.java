@@ -0,0 +1,14 @@
+// ========== SaveFailedException.java ==========
+package ipms.control;
+
+/**
+ * Thrown to a caller whose change was applied in memory but could not be
+ * saved. The change stays marked dirty and is saved by a later batch.
+ */
+public class SaveFailedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public SaveFailedException() {
+        super("Change applied but not saved yet; see the error log");
+    }
+}
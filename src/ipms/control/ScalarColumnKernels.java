@@ -0,0 +1,26 @@
+// ========== ScalarColumnKernels.java ==========
+package ipms.control;
+
+/**
+ * Portable one-row-at-a-time implementation of the column kernels
+ */
+public class ScalarColumnKernels implements ColumnKernels {
+
+    @Override
+    public long[] matchBytes(byte[] column, byte value, int size) {
+        long[] words = new long[(size + 63) >>> 6];
+        for (int r = 0; r < size; r++) {
+            words[r >>> 6] |= (column[r] == value ? 1L : 0L) << r;
+        }
+        return words;
+    }
+
+    @Override
+    public long[] matchInts(int[] column, int value, int size) {
+        long[] words = new long[(size + 63) >>> 6];
+        for (int r = 0; r < size; r++) {
+            words[r >>> 6] |= (column[r] == value ? 1L : 0L) << r;
+        }
+        return words;
+    }
+}
@@ -0,0 +1,39 @@
+// ========== ShortlistOrder.java ==========
+package ipms.control;
+
+import ipms.entity.Application;
+import java.util.Comparator;
+
+/**
+ * Orderings a company representative can shortlist applicants by
+ */
+public enum ShortlistOrder {
+    EARLIEST_APPLIED("Earliest applied",
+            Comparator.comparing(Application::getApplicationDate)
+                    .thenComparing(Application::getApplicationID)),
+    SENIORITY("Most senior (year of study)",
+            Comparator.comparingInt((Application a) -> a.getStudent().getYearOfStudy()).reversed()
+                    .thenComparing(Application::getApplicationDate)
+                    .thenComparing(Application::getApplicationID));
+
+    private final String displayName;
+    private final Comparator<Application> comparator;
+
+    ShortlistOrder(String displayName, Comparator<Application> comparator) {
+        this.displayName = displayName;
+        this.comparator = comparator;
+    }
+
+    public Comparator<Application> getComparator() {
+        return comparator;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
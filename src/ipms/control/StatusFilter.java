@@ -33,4 +33,15 @@ public class StatusFilter implements FilterStrategy {
             .filter(i -> i.getStatus() == status)
             .collect(Collectors.toList());
     }
+
+    @Override
+    public boolean filterColumns(CatalogColumns columns, BitSet rows) {
+        columns.retainStatus(rows, status);
+        return true;
+    }
+
+    @Override
+    public String canonicalKey() {
+        return "status=" + status.name();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+// ========== SystemBusyException.java ==========
+package ipms.control;
+
+/**
+ * Thrown when a request is turned away by admission control
+ */
+public class SystemBusyException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    private final long retryAfterSeconds;
+
+    public SystemBusyException(long retryAfterSeconds) {
+        super("System busy, retry in " + retryAfterSeconds + " s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
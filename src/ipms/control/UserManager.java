@@ -3,20 +3,63 @@ package ipms.control;
 
 import ipms.entity.*;
 import java.io.*;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
- * Manages all users in the system
+ * Manages all users in the system.
+ * Only the index of the user store is read at startup; each user is read
+ * on first use and kept in a bounded cache of recently used users. A user
+ * still referenced elsewhere (e.g. by an application or a session) stays
+ * the same object when looked up again, even after leaving the cache.
+ * Changes are tracked explicitly: whoever changes a user marks it dirty,
+ * and only dirty users are written on save. Dirty users are held until
+ * saved, so they are never collected with unsaved changes.
  * Implements SINGLETON pattern
  */
 public final class UserManager {
     private static UserManager instance;
-    private Map<String, User> users;
-    private static final String USERS_FILE = "src/data/users.dat";
+    private static final String USERS_DIRECTORY = "src/data";
+    private static final String LEGACY_USERS_FILE = "src/data/users.dat";
+    private static final int CACHE_SIZE = Integer.getInteger("ipms.userCacheSize", 1000);
+
+    private final UserStore store;
+    private final Map<String, UserReference> live; // Every user read and not yet collected
+    private final ReferenceQueue<User> collected;
+    private final LinkedHashMap<String, User> cache;
+    private final Map<String, User> dirty; // Changed since last saved
+    private Consumer<Student> studentLoader; // Attaches applications to students read from the store
+    private long version; // Bumped on every save
+
+    /**
+     * Weak reference that remembers which user it was for
+     */
+    private static class UserReference extends WeakReference<User> {
+        final String userID;
+
+        UserReference(User user, ReferenceQueue<User> queue) {
+            super(user, queue);
+            this.userID = user.getUserID();
+        }
+    }
 
     private UserManager() {
-        this.users = new HashMap<>();
+        this.store = new UserStore(new File(USERS_DIRECTORY));
+        this.live = new HashMap<>();
+        this.collected = new ReferenceQueue<>();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) { // Access order for LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, User> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+        this.dirty = new LinkedHashMap<>();
+        this.studentLoader = student -> { };
         loadUsers();
+        Application.setStudentResolver(userID -> getUser(userID) instanceof Student student ? student : null);
     }
 
     public static UserManager getInstance() {
@@ -27,30 +70,39 @@ public final class UserManager {
     }
 
     /**
-     * Load users from file or initialize from CSV
+     * Load the user index, or initialize users from CSV
      */
-    public void loadUsers() {
-        File file = new File(USERS_FILE);
-
-        if (file.exists()) {
-            loadFromSerialized();
+    public synchronized void loadUsers() {
+        if (store.open()) {
+            System.out.println("Indexed " + store.size() + " users from file.");
+        } else if (new File(LEGACY_USERS_FILE).exists()) {
+            migrateLegacyFile();
         } else {
             initializeFromCSV();
         }
     }
 
     /**
-     * Load users from serialized file
+     * Move users from the single users.dat of older versions into the store.
+     * The old file is deleted only once the store has been written, so a
+     * failed migration is retried on the next start.
      */
     @SuppressWarnings("unchecked")
-    private void loadFromSerialized() {
+    private void migrateLegacyFile() {
+        Map<String, User> users;
         try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(USERS_FILE))) {
+                new FileInputStream(LEGACY_USERS_FILE))) {
             users = (Map<String, User>) ois.readObject();
-            System.out.println("Loaded " + users.size() + " users from file.");
         } catch (IOException | ClassNotFoundException e) {
             System.err.println("Error loading users: " + e.getMessage());
             initializeFromCSV();
+            return;
+        }
+        if (store.create(users.values())) {
+            System.out.println("Loaded " + users.size() + " users from file.");
+            new File(LEGACY_USERS_FILE).delete();
+        } else {
+            System.err.println("Kept " + LEGACY_USERS_FILE + " to migrate on the next start.");
         }
     }
 
@@ -58,19 +110,20 @@ public final class UserManager {
      * Initialize users from CSV files
      */
     private void initializeFromCSV() {
+        Map<String, User> users = new LinkedHashMap<>();
         // Load students
-        loadStudentsFromCSV("src/data/sample_student_list.csv");
+        loadStudentsFromCSV("src/data/sample_student_list.csv", users);
         // Load staff
-        loadStaffFromCSV("src/data/sample_staff_list.csv");
+        loadStaffFromCSV("src/data/sample_staff_list.csv", users);
 
         System.out.println("Initialized " + users.size() + " users from CSV files.");
-        saveUsers();
+        store.create(users.values());
     }
 
     /**
      * Load students from CSV
      */
-    private void loadStudentsFromCSV(String filename) {
+    private void loadStudentsFromCSV(String filename, Map<String, User> users) {
         try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             String line;
             boolean firstLine = true;
@@ -102,7 +155,7 @@ public final class UserManager {
     /**
      * Load staff from CSV
      */
-    private void loadStaffFromCSV(String filename) {
+    private void loadStaffFromCSV(String filename, Map<String, User> users) {
         try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             String line;
             boolean firstLine = true;
@@ -132,71 +185,210 @@ public final class UserManager {
     }
 
     /**
-     * Save users to file
+     * Record that a user was changed, so the next save writes it
      */
-    public void saveUsers() {
-        try {
-            File file = new File(USERS_FILE);
-            file.getParentFile().mkdirs(); // Create directory if not exists
+    public synchronized void markDirty(User user) {
+        dirty.put(user.getUserID(), user);
+    }
 
-            try (ObjectOutputStream oos = new ObjectOutputStream(
-                    new FileOutputStream(file))) {
-                oos.writeObject(users);
+    /**
+     * Save the users marked dirty since the last save
+     *
+     * @return true if saved; otherwise they stay dirty
+     */
+    public synchronized boolean saveUsers() {
+        version++;
+        try {
+            for (User user : dirty.values()) {
+                store.write(user);
             }
         } catch (IOException e) {
             System.err.println("Error saving users: " + e.getMessage());
+            return false;
         }
+        dirty.clear();
+        store.commit();
+        return true;
+    }
+
+    /**
+     * Get a number that changes whenever users are saved, and so after
+     * every change to a user
+     */
+    public synchronized long getVersion() {
+        return version;
     }
 
     /**
      * Register a new company representative
      */
-    public boolean registerCompanyRep(String email, String name, String password,
+    public synchronized boolean registerCompanyRep(String email, String name, String password,
             String companyName, String department,
             String position) {
-        if (users.containsKey(email)) {
+        if (store.contains(email)) {
             return false; // User already exists
         }
 
         CompanyRepresentative rep = new CompanyRepresentative(
                 email, name, password, companyName, department, position, email);
-        users.put(email, rep);
+        remember(rep);
+        markDirty(rep);
         saveUsers();
         return true;
     }
 
     /**
-     * Get user by ID
+     * Approve a pending company representative so they can log in
+     *
+     * @param staff Staff member approving, for the audit log
+     * @return true if the approval was saved
      */
-    public User getUser(String userID) {
-        return users.get(userID);
+    public synchronized boolean approveRepresentative(User staff, CompanyRepresentative rep) {
+        rep.setApproved(true);
+        markDirty(rep);
+        boolean saved = saveUsers();
+        EventBus.getInstance().publish(new DomainEvent.RepresentativeReviewed(DomainEvent.actorOf(staff),
+                rep.getUserID(), rep.getCompanyName(), true, false));
+        return saved;
     }
 
     /**
-     * Get all users of a specific type
+     * Reject a pending company representative; the account stays but cannot log in
+     *
+     * @param staff Staff member rejecting, for the audit log
      */
-    public List<User> getUsersByType(Class<? extends User> userType) {
-        List<User> result = new ArrayList<>();
-        for (User user : users.values()) {
-            if (userType.isInstance(user)) {
-                result.add(user);
+    public synchronized void rejectRepresentative(User staff, CompanyRepresentative rep) {
+        EventBus.getInstance().publish(new DomainEvent.RepresentativeReviewed(DomainEvent.actorOf(staff),
+                rep.getUserID(), rep.getCompanyName(), false, false));
+    }
+
+    /**
+     * Get user by ID, reading it from the store if not in memory
+     */
+    public synchronized User getUser(String userID) {
+        User user = cache.get(userID);
+        if (user != null) {
+            return user;
+        }
+        expunge();
+        UserReference reference = live.get(userID);
+        user = reference == null ? null : reference.get();
+        if (user == null) {
+            user = store.read(userID);
+            if (user == null) {
+                return null;
+            }
+            remember(user);
+            if (user instanceof Student student) {
+                studentLoader.accept(student);
+            }
+        } else {
+            cache.put(userID, user);
+        }
+        return user;
+    }
+
+    /**
+     * Get the IDs of all users, without reading them
+     */
+    public synchronized List<String> getUserIDs() {
+        return new ArrayList<>(store.getUserIDs());
+    }
+
+    /**
+     * Check whether a user ID belongs to a student, from the index alone
+     */
+    public synchronized boolean isStudent(String userID) {
+        UserStore.Entry entry = userID == null ? null : store.getEntry(userID);
+        return entry != null && entry.kind() == 'S';
+    }
+
+    /**
+     * Get the IDs of all users of a specific type, from the index alone
+     */
+    public synchronized List<String> getUserIDsByType(Class<? extends User> userType) {
+        List<String> result = new ArrayList<>();
+        for (String userID : store.getUserIDs()) {
+            if (userType.isAssignableFrom(classOf(store.getEntry(userID).kind()))) {
+                result.add(userID);
             }
         }
         return result;
     }
 
     /**
-     * Get all pending company representatives
+     * Get all users of a specific type, as a view that reads each user from
+     * the store only when it is accessed (null if it cannot be read)
+     */
+    public List<User> getUsersByType(Class<? extends User> userType) {
+        List<String> userIDs = getUserIDsByType(userType);
+        return new AbstractList<>() {
+            @Override
+            public User get(int i) {
+                return getUser(userIDs.get(i));
+            }
+
+            @Override
+            public int size() {
+                return userIDs.size();
+            }
+        };
+    }
+
+    /**
+     * Set what is done with each student read from the store, and do it
+     * now for the students already in memory
      */
-    public List<CompanyRepresentative> getPendingRepresentatives() {
+    public synchronized void setStudentLoader(Consumer<Student> loader) {
+        this.studentLoader = loader;
+        expunge();
+        for (UserReference reference : live.values()) {
+            if (reference.get() instanceof Student student) {
+                loader.accept(student);
+            }
+        }
+    }
+
+    /**
+     * Get all pending company representatives. Only those the index marks
+     * as pending are read.
+     */
+    public synchronized List<CompanyRepresentative> getPendingRepresentatives() {
         List<CompanyRepresentative> pending = new ArrayList<>();
-        for (User user : users.values()) {
-            if (user instanceof CompanyRepresentative rep) {
-                if (!rep.isApproved()) {
-                    pending.add(rep);
-                }
+        for (String userID : getUserIDs()) {
+            UserStore.Entry entry = store.getEntry(userID);
+            if (entry.kind() == 'R' && entry.pending()
+                    && getUser(userID) instanceof CompanyRepresentative rep && !rep.isApproved()) {
+                pending.add(rep);
             }
         }
         return pending;
     }
-}
\ No newline at end of file
+
+    /**
+     * Track a user now in memory
+     */
+    private void remember(User user) {
+        live.put(user.getUserID(), new UserReference(user, collected));
+        cache.put(user.getUserID(), user);
+    }
+
+    /**
+     * Forget users that have been garbage collected
+     */
+    private void expunge() {
+        Reference<? extends User> reference;
+        while ((reference = collected.poll()) != null) {
+            UserReference stale = (UserReference) reference;
+            live.remove(stale.userID, stale);
+        }
+    }
+
+    private static Class<? extends User> classOf(char kind) {
+        return switch (kind) {
+            case 'S' -> Student.class;
+            case 'R' -> CompanyRepresentative.class;
+            default -> CareerCenterStaff.class;
+        };
+    }
+}
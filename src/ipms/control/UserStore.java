@@ -0,0 +1,336 @@
+// ========== UserStore.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * File layer of the user store: each user is serialized on its own into an
+ * append-only data file, and an index maps user IDs to record offsets.
+ * Only the index is read at startup; a record is read when its user is
+ * first needed. Changed users are appended again and the index is
+ * replaced atomically on commit. Once most of the data file is superseded
+ * records, commit copies the live ones into a new generation of the file.
+ * Applications and internships are not stored with users: applications are
+ * rebuilt from the application shards, and internships are saved as
+ * display IDs and resolved to the live objects when read.
+ */
+class UserStore {
+    private static final String INDEX_FILE = "users.idx";
+    private static final int FORMAT = 1;
+    private static final long MIN_COMPACT_BYTES = 1024 * 1024;
+
+    /**
+     * Where a user's record is, plus what is needed to answer queries
+     * without reading it
+     *
+     * @param kind     'S' student, 'C' career center staff, 'R' company representative
+     * @param pending  Representative awaiting approval
+     * @param checksum CRC of the record, to skip rewriting unchanged users
+     */
+    record Entry(long offset, int length, int checksum, char kind, boolean pending) {
+    }
+
+    /**
+     * Reference to an internship stored in place of the object
+     */
+    private record InternshipRef(String id) implements Serializable {
+    }
+
+    private final File directory;
+    private final Map<String, Entry> index;
+    private FileChannel data;
+    private int generation;
+    private long dataLength;
+    private long liveBytes;
+    private boolean changed; // Records appended since the index was written
+
+    UserStore(File directory) {
+        this.directory = directory;
+        this.index = new LinkedHashMap<>();
+    }
+
+    /**
+     * Read the index and open the data file it refers to
+     *
+     * @return false if there is no usable store
+     */
+    boolean open() {
+        File file = new File(directory, INDEX_FILE);
+        if (!file.exists()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT) {
+                throw new IOException("unknown index format");
+            }
+            generation = in.readInt();
+            dataLength = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                Entry entry = new Entry(in.readLong(), in.readInt(), in.readInt(), in.readChar(), in.readBoolean());
+                index.put(id, entry);
+                liveBytes += entry.length();
+            }
+            data = FileChannel.open(dataFile(generation).toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (data.size() < dataLength) {
+                throw new IOException("data file is shorter than its index");
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error loading user index: " + e.getMessage());
+            close();
+            index.clear();
+            liveBytes = 0;
+            return false;
+        }
+    }
+
+    /**
+     * Start a new store holding the given users, replacing any old one
+     *
+     * @return true if the users and index were written
+     */
+    boolean create(Collection<? extends User> users) {
+        close();
+        index.clear();
+        liveBytes = 0;
+        dataLength = 0;
+        File previous = dataFile(generation);
+        generation++;
+        try {
+            directory.mkdirs();
+            data = FileChannel.open(dataFile(generation).toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            for (User user : users) {
+                write(user);
+            }
+            writeIndex();
+            previous.delete();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving users: " + e.getMessage());
+            return false;
+        }
+    }
+
+    boolean contains(String userID) {
+        return index.containsKey(userID);
+    }
+
+    Entry getEntry(String userID) {
+        return index.get(userID);
+    }
+
+    Set<String> getUserIDs() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Read a user's record
+     *
+     * @return The user, or null if unknown or unreadable
+     */
+    User read(String userID) {
+        Entry entry = index.get(userID);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+            while (buffer.hasRemaining()
+                    && data.read(buffer, entry.offset() + buffer.position()) >= 0) {
+                // Read the whole record
+            }
+            try (ObjectInputStream in = new RecordInputStream(new ByteArrayInputStream(buffer.array()))) {
+                User user = (User) in.readObject();
+                if (user instanceof CompanyRepresentative rep) {
+                    rep.getCreatedInternships().removeIf(Objects::isNull); // Archived or gone
+                } else if (user instanceof Student student) {
+                    student.getApplications().removeIf(Objects::isNull);
+                }
+                return user;
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error loading user " + userID + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Append a user's record if it changed since it was last written
+     *
+     * @return true if anything was written
+     */
+    boolean write(User user) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream out = new RecordOutputStream(bytes)) {
+            out.writeObject(user);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        int checksum = (int) crc.getValue();
+        Entry old = index.get(user.getUserID());
+        boolean pending = user instanceof CompanyRepresentative rep && !rep.isApproved();
+        if (old != null && old.checksum() == checksum && old.length() == bytes.size()) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        long offset = dataLength;
+        while (buffer.hasRemaining()) {
+            data.write(buffer, offset + buffer.position());
+        }
+        dataLength += bytes.size();
+        if (old != null) {
+            liveBytes -= old.length();
+        }
+        liveBytes += bytes.size();
+        index.put(user.getUserID(), new Entry(offset, bytes.size(), checksum, kindOf(user), pending));
+        changed = true;
+        return true;
+    }
+
+    /**
+     * Make appended records durable by replacing the index, compacting the
+     * data file first if it is mostly superseded records
+     */
+    void commit() {
+        if (!changed) {
+            return;
+        }
+        try {
+            if (dataLength > MIN_COMPACT_BYTES && liveBytes * 2 < dataLength) {
+                compact();
+                return;
+            }
+            data.force(false);
+            writeIndex();
+        } catch (IOException e) {
+            System.err.println("Error saving users: " + e.getMessage());
+        }
+    }
+
+    void close() {
+        if (data != null) {
+            try {
+                data.close();
+            } catch (IOException e) {
+                System.err.println("Error closing user store: " + e.getMessage());
+            }
+            data = null;
+        }
+    }
+
+    static char kindOf(User user) {
+        if (user instanceof Student) {
+            return 'S';
+        }
+        return user instanceof CompanyRepresentative ? 'R' : 'C';
+    }
+
+    /**
+     * Copy the current records into the next generation of the data file
+     */
+    private void compact() throws IOException {
+        File previous = dataFile(generation);
+        FileChannel old = data;
+        File next = dataFile(generation + 1);
+        long offset = 0;
+        Map<String, Entry> moved = new LinkedHashMap<>();
+        try (FileChannel copy = FileChannel.open(next.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<String, Entry> e : index.entrySet()) {
+                Entry entry = e.getValue();
+                long copied = 0;
+                while (copied < entry.length()) {
+                    copied += old.transferTo(entry.offset() + copied, entry.length() - copied, copy);
+                }
+                moved.put(e.getKey(), new Entry(offset, entry.length(), entry.checksum(), entry.kind(),
+                        entry.pending()));
+                offset += entry.length();
+            }
+            copy.force(false);
+        }
+        index.putAll(moved);
+        generation++;
+        dataLength = offset;
+        data = FileChannel.open(next.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeIndex();
+        old.close();
+        previous.delete();
+    }
+
+    private void writeIndex() throws IOException {
+        File temp = new File(directory, INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(FORMAT);
+            out.writeInt(generation);
+            out.writeLong(dataLength);
+            out.writeInt(index.size());
+            for (Map.Entry<String, Entry> e : index.entrySet()) {
+                Entry entry = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeLong(entry.offset());
+                out.writeInt(entry.length());
+                out.writeInt(entry.checksum());
+                out.writeChar(entry.kind());
+                out.writeBoolean(entry.pending());
+            }
+        }
+        Files.move(temp.toPath(), new File(directory, INDEX_FILE).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        changed = false;
+    }
+
+    private File dataFile(int generation) {
+        return new File(directory, String.format("users-%03d.dat", generation));
+    }
+
+    /**
+     * Leaves out applications and writes internships as IDs
+     */
+    private static class RecordOutputStream extends ObjectOutputStream {
+        RecordOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj instanceof Application) {
+                return null;
+            }
+            if (obj instanceof InternshipOpportunity opp) {
+                return new InternshipRef(opp.getOpportunityID());
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * Resolves internship IDs back to the live internships
+     */
+    private static class RecordInputStream extends ObjectInputStream {
+        RecordInputStream(InputStream in) throws IOException {
+            super(in);
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            return obj instanceof InternshipRef ref
+                    ? InternshipManager.getInstance().getInternship(InternshipOpportunity.parseID(ref.id()))
+                    : obj;
+        }
+    }
+}
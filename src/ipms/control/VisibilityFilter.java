@@ -18,4 +18,15 @@ public class VisibilityFilter implements FilterStrategy {
                 .filter(i -> i.isVisible() == visible)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public boolean filterColumns(CatalogColumns columns, BitSet rows) {
+        columns.retainVisible(rows, visible);
+        return true;
+    }
+
+    @Override
+    public String canonicalKey() {
+        return "visible=" + visible;
+    }
 }
\ No newline at end of file
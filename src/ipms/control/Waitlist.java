@@ -0,0 +1,153 @@
+// ========== Waitlist.java ==========
+package ipms.control;
+
+import ipms.entity.*;
+import java.io.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Ranked per-internship waitlists used to refill slots freed by withdrawals.
+ * Each internship has a priority queue ordered by the rank its company
+ * representative gave each application, then by application date, so the
+ * top candidate is found in O(log n). Unranked applications (waitlisted
+ * before ranks were kept) come after ranked ones. Stale entries (reviewed
+ * or withdrawn applications) are skipped lazily when polled.
+ * Promotions are logged from WaitlistPromoted events on the EventBus,
+ * buffered and appended to a log in batches; the owner flushes them at
+ * shutdown. Events carry the lifecycle date, so promotions agree with
+ * open/close transitions under a test clock.
+ */
+public class Waitlist {
+    private static final String PROMOTIONS_FILE = "data/promotions.log";
+    private static final int FLUSH_BATCH_SIZE = 32;
+    private static final Comparator<Application> RANKING =
+            Comparator.comparingInt((Application app) -> app.getWaitlistRank() == 0
+                    ? Integer.MAX_VALUE : app.getWaitlistRank())
+                    .thenComparing(Application::getApplicationDate)
+                    .thenComparingInt(Application::getKey);
+
+    private final IntMap<PriorityQueue<Application>> queues;
+    private final List<String> pendingEvents;
+
+    public Waitlist() {
+        this.queues = new IntMap<>();
+        this.pendingEvents = new ArrayList<>();
+    }
+
+    /**
+     * Rebuild the queues from the waitlisted flags of loaded applications
+     */
+    public void rebuild(Iterable<Application> applications) {
+        queues.clear();
+        for (Application app : applications) {
+            if (app.isWaitlisted()) {
+                add(app);
+            }
+        }
+    }
+
+    /**
+     * Add an application to its internship's waitlist
+     */
+    public void add(Application app) {
+        queues.computeIfAbsent(app.getOpportunity().getKey(), key -> new PriorityQueue<>(RANKING)).add(app);
+    }
+
+    /**
+     * Take an application off its internship's waitlist, e.g. before re-ranking it
+     */
+    public void remove(Application app) {
+        PriorityQueue<Application> queue = queues.get(app.getOpportunity().getKey());
+        if (queue != null) {
+            queue.remove(app);
+        }
+    }
+
+    /**
+     * Get the current waitlist of an internship in rank order
+     */
+    public List<Application> getWaitlist(InternshipOpportunity internship) {
+        PriorityQueue<Application> queue = queues.get(internship.getKey());
+        List<Application> result = new ArrayList<>();
+        if (queue != null) {
+            for (Application app : queue) {
+                if (isCandidate(app)) {
+                    result.add(app);
+                }
+            }
+            result.sort(RANKING);
+        }
+        return result;
+    }
+
+    /**
+     * Remove and return the top valid candidate for an internship
+     *
+     * @return The promoted application, or null if the waitlist is empty
+     */
+    public Application promote(InternshipOpportunity internship) {
+        PriorityQueue<Application> queue = queues.get(internship.getKey());
+        if (queue == null) {
+            return null;
+        }
+
+        Application candidate;
+        while ((candidate = queue.poll()) != null) {
+            if (isCandidate(candidate)) {
+                candidate.setWaitlisted(false);
+                candidate.setStatus(ApplicationStatus.SUCCESSFUL);
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Write buffered promotion events to the log
+     */
+    public synchronized void flush() {
+        if (pendingEvents.isEmpty()) {
+            return;
+        }
+        File file = new File(PROMOTIONS_FILE);
+        file.getParentFile().mkdirs();
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
+            for (String event : pendingEvents) {
+                writer.write(event);
+                writer.newLine();
+            }
+            pendingEvents.clear();
+        } catch (IOException e) {
+            System.err.println("Error saving promotions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Log promotions (EventBus subscriber)
+     */
+    public void onEvent(DomainEvent event) {
+        if (event instanceof DomainEvent.WaitlistPromoted promoted) {
+            record(promoted.application(), promoted.date());
+        }
+    }
+
+    private synchronized void record(DomainEvent.ApplicationInfo app, LocalDate date) {
+        pendingEvents.add(String.join(",", date.toString(),
+                app.opportunityID(),
+                app.applicationID(),
+                app.studentID()));
+        if (pendingEvents.size() >= FLUSH_BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    private static boolean isCandidate(Application app) {
+        WithdrawalRequest request = app.getWithdrawalRequest();
+        return app.isWaitlisted()
+                && app.getStatus() == ApplicationStatus.PENDING
+                && app.getStudent().getAcceptedPlacement() == null
+                && (request == null || request.getStatus() == WithdrawalStatus.REJECTED);
+    }
+}
@@ -1,54 +1,147 @@
 package ipms.entity;
 
-import java.io.Serializable;
+import java.io.*;
 import java.time.LocalDate;
+import java.util.function.Function;
 
 /**
  * Represents a student's application to an internship opportunity.
+ * The student is saved as a user ID and resolved on first use, so loading
+ * applications does not read every applicant from the user store.
  */
 public class Application implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    private final String applicationID;
-    private final Student student;
-    private final InternshipOpportunity opportunity;
+    private static volatile Function<String, Student> studentResolver = userID -> null;
+
+    // Not final only because readObject assigns them
+    private int key;
+    private String studentID;
+    private int studentMajorCode; // Major when applying, -1 until known for applications saved without it
+    private transient volatile Student student; // Resolved from studentID on first use
+    private InternshipOpportunity opportunity;
     private ApplicationStatus status;
-    private final LocalDate applicationDate;
+    private LocalDate applicationDate;
     private WithdrawalRequest withdrawalRequest;
+    private boolean waitlisted;
+    private int waitlistRank;
+    private LocalDate acceptedDate;
+    private transient boolean acceptedPlacement; // Kept in step by Student.acceptPlacement
+    private transient boolean legacyFormat; // Read with the student saved in place
 
     /**
      * Constructor for Application.
      * 
-     * @param applicationID Unique identifier for the application
-     * @param student       Student who is applying
-     * @param opportunity   Internship opportunity being applied to
+     * @param key         Unique surrogate key for the application
+     * @param student     Student who is applying
+     * @param opportunity Internship opportunity being applied to
      */
-    public Application(String applicationID, Student student,
+    public Application(int key, Student student,
             InternshipOpportunity opportunity) {
-        this.applicationID = applicationID;
+        this(key, student, opportunity, LocalDate.now());
+    }
+
+    /**
+     * Constructor for an application submitted on a given date, e.g. when
+     * replaying logged events.
+     * 
+     * @param key             Unique surrogate key for the application
+     * @param student         Student who is applying
+     * @param opportunity     Internship opportunity being applied to
+     * @param applicationDate Date the application was submitted
+     */
+    public Application(int key, Student student,
+            InternshipOpportunity opportunity, LocalDate applicationDate) {
+        this.key = key;
+        this.studentID = student.getUserID();
+        this.studentMajorCode = student.getMajorCode();
         this.student = student;
         this.opportunity = opportunity;
         this.status = ApplicationStatus.PENDING;
-        this.applicationDate = LocalDate.now();
+        this.applicationDate = applicationDate;
         this.withdrawalRequest = null;
     }
 
     /**
-     * Gets the application ID.
+     * Gets the surrogate key, used for comparisons and indexes.
+     * 
+     * @return Application key
+     */
+    public int getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the application ID for display, e.g. APP00012.
      * 
      * @return Application ID
      */
     public String getApplicationID() {
-        return applicationID;
+        return formatID(key);
+    }
+
+    /**
+     * Formats a key as a display ID.
+     * 
+     * @param key Application key
+     * @return Application ID
+     */
+    public static String formatID(int key) {
+        return String.format("APP%05d", key);
+    }
+
+    /**
+     * Parses a display ID back to its key.
+     * 
+     * @param applicationID Application ID, e.g. APP00012
+     * @return Application key
+     */
+    public static int parseID(String applicationID) {
+        return Integer.parseInt(applicationID.substring(3));
+    }
+
+    /**
+     * Sets how students are looked up by user ID when first used.
+     * 
+     * @param resolver Returns the live student, or null if unknown
+     */
+    public static void setStudentResolver(Function<String, Student> resolver) {
+        studentResolver = resolver;
     }
 
     /**
-     * Gets the student who applied.
+     * Gets the student who applied, reading it on first use.
      * 
-     * @return Student object
+     * @return Student object, or null if the student no longer exists
      */
     public Student getStudent() {
-        return student;
+        Student resolved = student;
+        if (resolved == null && studentID != null) {
+            resolved = studentResolver.apply(studentID);
+            student = resolved;
+        }
+        return resolved;
+    }
+
+    /**
+     * Gets the ID of the student who applied, without reading the student.
+     * 
+     * @return Student user ID
+     */
+    public String getStudentID() {
+        return studentID;
+    }
+
+    /**
+     * Gets the dictionary code of the student's major when applying.
+     * 
+     * @return Major code
+     */
+    public int getStudentMajorCode() {
+        if (studentMajorCode < 0 && getStudent() != null) {
+            studentMajorCode = getStudent().getMajorCode(); // Saved before the code was kept
+        }
+        return studentMajorCode;
     }
 
     /**
@@ -87,6 +180,53 @@ public class Application implements Serializable {
         return withdrawalRequest;
     }
 
+    /**
+     * Checks if the application is on its internship's waitlist.
+     * 
+     * @return true if waitlisted
+     */
+    public boolean isWaitlisted() {
+        return waitlisted;
+    }
+
+    /**
+     * Gets the waitlist rank set by the company representative.
+     * 
+     * @return Rank, 1 for the first to be offered a slot, or 0 if unranked
+     */
+    public int getWaitlistRank() {
+        return waitlistRank;
+    }
+
+    /**
+     * Gets the date the placement was accepted.
+     * 
+     * @return LocalDate of acceptance, or null if never accepted
+     */
+    public LocalDate getAcceptedDate() {
+        return acceptedDate;
+    }
+
+    /**
+     * Checks if this is the student's accepted placement, without reading
+     * the student.
+     * 
+     * @return true if accepted
+     */
+    public boolean isAcceptedPlacement() {
+        return acceptedPlacement;
+    }
+
+    /**
+     * Checks if the application was read in the format that saved the
+     * student in place, and should be saved again.
+     * 
+     * @return true if read from an older format
+     */
+    public boolean isLegacyFormat() {
+        return legacyFormat;
+    }
+
     /**
      * Sets the application status.
      * 
@@ -105,10 +245,72 @@ public class Application implements Serializable {
         this.withdrawalRequest = request;
     }
 
+    /**
+     * Sets whether the application is waitlisted.
+     * 
+     * @param waitlisted true to place on the waitlist
+     */
+    public void setWaitlisted(boolean waitlisted) {
+        this.waitlisted = waitlisted;
+    }
+
+    /**
+     * Sets the waitlist rank.
+     * 
+     * @param waitlistRank Rank, 1 for the first to be offered a slot
+     */
+    public void setWaitlistRank(int waitlistRank) {
+        this.waitlistRank = waitlistRank;
+    }
+
+    /**
+     * Sets the date the placement was accepted.
+     * 
+     * @param acceptedDate Date of acceptance
+     */
+    public void setAcceptedDate(LocalDate acceptedDate) {
+        this.acceptedDate = acceptedDate;
+    }
+
+    /**
+     * Marks whether this is the student's accepted placement. Set by
+     * Student.acceptPlacement, and on load for students not yet read.
+     * 
+     * @param acceptedPlacement true if accepted
+     */
+    public void setAcceptedPlacement(boolean acceptedPlacement) {
+        this.acceptedPlacement = acceptedPlacement;
+    }
+
     @Override
     public String toString() {
         return String.format("Application[ID=%s, Student=%s, Internship=%s, Status=%s]",
-                applicationID, student.getName(),
+                getApplicationID(), getStudent() != null ? getStudent().getName() : studentID,
                 opportunity.getTitle(), status);
     }
-}
\ No newline at end of file
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        key = fields.getObjectStreamClass().getField("applicationID") != null
+                ? parseID((String) fields.get("applicationID", null)) // Written before surrogate keys
+                : fields.get("key", 0);
+        if (fields.getObjectStreamClass().getField("student") != null) {
+            // Saved the student in place: the object, or a reference the reader resolved to its ID
+            Object saved = fields.get("student", null);
+            student = saved instanceof Student s ? s : null;
+            studentID = student != null ? student.getUserID() : (String) saved;
+            studentMajorCode = student != null ? student.getMajorCode() : -1;
+            legacyFormat = true;
+        } else {
+            studentID = (String) fields.get("studentID", null);
+            studentMajorCode = fields.get("studentMajorCode", -1);
+        }
+        opportunity = (InternshipOpportunity) fields.get("opportunity", null);
+        status = (ApplicationStatus) fields.get("status", null);
+        applicationDate = (LocalDate) fields.get("applicationDate", null);
+        withdrawalRequest = (WithdrawalRequest) fields.get("withdrawalRequest", null);
+        waitlisted = fields.get("waitlisted", false);
+        waitlistRank = fields.get("waitlistRank", 0);
+        acceptedDate = (LocalDate) fields.get("acceptedDate", null);
+    }
+}
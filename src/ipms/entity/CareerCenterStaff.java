@@ -1,25 +1,32 @@
 // ========== CareerCenterStaff.java ==========
 package ipms.entity;
 
+import java.io.*;
+
 /**
  * Career Center Staff class
  */
 public class CareerCenterStaff extends User {
     private static final long serialVersionUID = 1L;
 
-    private final String staffDepartment;
-    private final String email;
+    // Not final only because readObject assigns them
+    private int staffDepartmentCode;
+    private String email;
 
     public CareerCenterStaff(String userID, String name, String password,
             String staffDepartment, String email) {
         super(userID, name, password);
-        this.staffDepartment = staffDepartment;
+        this.staffDepartmentCode = StringDictionary.getInstance().encode(staffDepartment);
         this.email = email;
     }
 
     // Getters
     public String getStaffDepartment() {
-        return staffDepartment;
+        return StringDictionary.getInstance().decode(staffDepartmentCode);
+    }
+
+    public int getStaffDepartmentCode() {
+        return staffDepartmentCode;
     }
 
     public String getEmail() {
@@ -34,8 +41,10 @@ public class CareerCenterStaff extends User {
         System.out.println("3. Approve Withdrawal Requests");
         System.out.println("4. Generate Reports");
         System.out.println("5. View All Internships");
-        System.out.println("6. Change Password");
-        System.out.println("7. Logout");
+        System.out.println("6. Batch Placement Allocation");
+        System.out.println("7. Undo Last Bulk Approval");
+        System.out.println("8. Change Password");
+        System.out.println("9. Logout");
     }
 
     @Override
@@ -46,6 +55,12 @@ public class CareerCenterStaff extends User {
     @Override
     public String toString() {
         return String.format("Staff[ID=%s, Name=%s, Dept=%s]",
-                userID, name, staffDepartment);
+                userID, name, getStaffDepartment());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        staffDepartmentCode = StringDictionary.readCode(fields, "staffDepartmentCode", "staffDepartment");
+        email = (String) fields.get("email", null);
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 // ========== CompanyRepresentative.java ==========
 package ipms.entity;
 
+import java.io.*;
 import java.util.*;
 
 /**
@@ -9,19 +10,22 @@ import java.util.*;
 public class CompanyRepresentative extends User {
     private static final long serialVersionUID = 1L;
     
-    private final String companyName;
-    private final String department;
-    private final String position;
-    private final String email;
+    // Not final only because readObject assigns them
+    private int companyNameCode;
+    private int departmentCode;
+    private String position;
+    private String email;
     private boolean isApproved;
-    private final List<InternshipOpportunity> createdInternships;
+    private List<InternshipOpportunity> createdInternships;
+    private int archivedInternships;
     
     public CompanyRepresentative(String userID, String name, String password,
                                 String companyName, String department, 
                                 String position, String email) {
         super(userID, name, password);
-        this.companyName = companyName;
-        this.department = department;
+        StringDictionary dictionary = StringDictionary.getInstance();
+        this.companyNameCode = dictionary.encode(companyName);
+        this.departmentCode = dictionary.encode(department);
         this.position = position;
         this.email = email;
         this.isApproved = false;
@@ -29,25 +33,38 @@ public class CompanyRepresentative extends User {
     }
     
     // Getters
-    public String getCompanyName() { return companyName; }
-    public String getDepartment() { return department; }
+    public String getCompanyName() { return StringDictionary.getInstance().decode(companyNameCode); }
+    public int getCompanyNameCode() { return companyNameCode; }
+    public String getDepartment() { return StringDictionary.getInstance().decode(departmentCode); }
+    public int getDepartmentCode() { return departmentCode; }
     public String getPosition() { return position; }
     public String getEmail() { return email; }
     public boolean isApproved() { return isApproved; }
     public List<InternshipOpportunity> getCreatedInternships() { 
         return createdInternships; 
     }
+    public int getArchivedInternshipCount() { return archivedInternships; }
     
     // Setters
     public void setApproved(boolean approved) { this.isApproved = approved; }
     
     /**
      * Check if rep can create more internships
-     * Business rule: Maximum 5 internships
+     * Business rule: Maximum 5 internships, including archived ones
      */
     public boolean canCreateInternship() {
-        return createdInternships.size() < 5;
+        return createdInternships.size() + archivedInternships < 5;
     }
+
+    /**
+     * Move an internship from the created list to the archived count
+     */
+    public void archiveInternship(InternshipOpportunity internship) {
+        if (createdInternships.remove(internship)) {
+            archivedInternships++;
+        }
+    }
+
     
     /**
      * Add internship to rep's created list
@@ -78,6 +95,18 @@ public class CompanyRepresentative extends User {
     @Override
     public String toString() {
         return String.format("CompanyRep[ID=%s, Name=%s, Company=%s, Approved=%b]",
-                           userID, name, companyName, isApproved);
+                           userID, name, getCompanyName(), isApproved);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        companyNameCode = StringDictionary.readCode(fields, "companyNameCode", "companyName");
+        departmentCode = StringDictionary.readCode(fields, "departmentCode", "department");
+        position = (String) fields.get("position", null);
+        email = (String) fields.get("email", null);
+        isApproved = fields.get("isApproved", false);
+        createdInternships = (List<InternshipOpportunity>) fields.get("createdInternships", null);
+        archivedInternships = fields.get("archivedInternships", 0);
     }
 }
@@ -1,8 +1,9 @@
 package ipms.entity;
 
-import java.io.Serializable;
+import java.io.*;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Represents an internship opportunity in the system.
@@ -10,25 +11,31 @@ import java.util.*;
 public class InternshipOpportunity implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    private final String opportunityID;
-    private final String title;
-    private final String description;
-    private final InternshipLevel level;
-    private final String preferredMajor;
-    private final LocalDate openingDate;
-    private final LocalDate closingDate;
+    private static volatile Function<InternshipOpportunity, List<Application>> applicationSource =
+            internship -> new ArrayList<>();
+
+    // Not final only because readObject assigns them
+    private int key;
+    private String title;
+    private long descriptionOffset; // In the TextSegment
+    private int descriptionLength;
+    private InternshipLevel level;
+    private int preferredMajorCode;
+    private LocalDate openingDate;
+    private LocalDate closingDate;
     private OpportunityStatus status;
-    private final String companyName;
-    private final CompanyRepresentative representative;
-    private final int numSlots;
+    private int companyNameCode;
+    private CompanyRepresentative representative;
+    private int numSlots;
     private int filledSlots;
     private boolean isVisible;
-    private final List<Application> applications;
+    private OpportunityPhase phase;
+    private transient boolean legacyFormat;
 
     /**
      * Constructor for InternshipOpportunity.
      * 
-     * @param opportunityID  Unique identifier
+     * @param key            Unique surrogate key
      * @param title          Job title
      * @param description    Job description
      * @param level          Internship level (BASIC, INTERMEDIATE, ADVANCED)
@@ -39,38 +46,67 @@ public class InternshipOpportunity implements Serializable {
      * @param rep            Company representative in charge
      * @param numSlots       Number of available slots
      */
-    public InternshipOpportunity(String opportunityID, String title,
+    public InternshipOpportunity(int key, String title,
             String description, InternshipLevel level,
             String preferredMajor, LocalDate openingDate,
             LocalDate closingDate, String companyName,
             CompanyRepresentative rep, int numSlots) {
-        this.opportunityID = opportunityID;
+        this.key = key;
         this.title = title;
-        this.description = description;
+        byte[] text = TextSegment.encode(description);
+        this.descriptionOffset = TextSegment.getInstance().append(text);
+        this.descriptionLength = text == null ? TextSegment.NONE : text.length;
         this.level = level;
-        this.preferredMajor = preferredMajor;
+        this.preferredMajorCode = StringDictionary.getInstance().encode(preferredMajor);
         this.openingDate = openingDate;
         this.closingDate = closingDate;
         this.status = OpportunityStatus.PENDING;
-        this.companyName = companyName;
+        this.companyNameCode = StringDictionary.getInstance().encode(companyName);
         this.representative = rep;
         this.numSlots = numSlots;
         this.filledSlots = 0;
         this.isVisible = false;
-        this.applications = new ArrayList<>();
+        this.phase = OpportunityPhase.NOT_YET_OPEN;
     }
 
     // Getters
+    /**
+     * Gets the surrogate key, used for comparisons and indexes.
+     * 
+     * @return Internship key
+     */
+    public int getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the internship ID for display, e.g. INT0007.
+     * 
+     * @return Internship ID
+     */
     public String getOpportunityID() {
-        return opportunityID;
+        return formatID(key);
+    }
+
+    public static String formatID(int key) {
+        return String.format("INT%04d", key);
+    }
+
+    public static int parseID(String opportunityID) {
+        return Integer.parseInt(opportunityID.substring(3));
     }
 
     public String getTitle() {
         return title;
     }
 
+    /**
+     * Gets the description, decoded from the text segment on each call.
+     *
+     * @return Job description
+     */
     public String getDescription() {
-        return description;
+        return TextSegment.getInstance().read(descriptionOffset, descriptionLength);
     }
 
     public InternshipLevel getLevel() {
@@ -78,7 +114,11 @@ public class InternshipOpportunity implements Serializable {
     }
 
     public String getPreferredMajor() {
-        return preferredMajor;
+        return StringDictionary.getInstance().decode(preferredMajorCode);
+    }
+
+    public int getPreferredMajorCode() {
+        return preferredMajorCode;
     }
 
     public LocalDate getOpeningDate() {
@@ -94,7 +134,11 @@ public class InternshipOpportunity implements Serializable {
     }
 
     public String getCompanyName() {
-        return companyName;
+        return StringDictionary.getInstance().decode(companyNameCode);
+    }
+
+    public int getCompanyNameCode() {
+        return companyNameCode;
     }
 
     public CompanyRepresentative getRepresentative() {
@@ -113,8 +157,59 @@ public class InternshipOpportunity implements Serializable {
         return isVisible;
     }
 
+    /**
+     * Gets the applications to this internship from the application store.
+     * 
+     * @return A copy, in submission order
+     */
     public List<Application> getApplications() {
-        return applications;
+        return applicationSource.apply(this);
+    }
+
+    /**
+     * Sets where internships get their applications from, so they do not
+     * hold them (set by the application store once loaded).
+     * 
+     * @param source Returns a copy of an internship's applications
+     */
+    public static void setApplicationSource(Function<InternshipOpportunity, List<Application>> source) {
+        applicationSource = source;
+    }
+
+    /**
+     * Checks if this was read from a file in an older format, with a string
+     * ID, inline description or its applications, which should be rewritten.
+     * 
+     * @return true if read from an older format
+     */
+    public boolean isLegacyFormat() {
+        return legacyFormat;
+    }
+
+    /**
+     * Gets the application period phase, kept current by the lifecycle scheduler.
+     * 
+     * @return Current phase
+     */
+    public OpportunityPhase getPhase() {
+        return phase == null ? OpportunityPhase.NOT_YET_OPEN : phase;
+    }
+
+    /**
+     * Computes the application period phase on a given day from the
+     * opening and closing dates, without changing anything
+     *
+     * @param day Day to compute the phase for
+     * @return Phase on that day
+     */
+    public OpportunityPhase getPhaseOn(LocalDate day) {
+        if (day.isBefore(openingDate)) {
+            return OpportunityPhase.NOT_YET_OPEN;
+        }
+        if (day.isAfter(closingDate)) {
+            return OpportunityPhase.CLOSED;
+        }
+        return OpportunityPhase.OPEN;
     }
 
     // Setters
@@ -126,6 +221,10 @@ public class InternshipOpportunity implements Serializable {
         this.isVisible = visible;
     }
 
+    public void setPhase(OpportunityPhase phase) {
+        this.phase = phase;
+    }
+
     /**
      * Increments filled slots when a student accepts placement.
      */
@@ -155,10 +254,8 @@ public class InternshipOpportunity implements Serializable {
      * return true if open, false otherwise
      */
     public boolean isOpen() {
-        LocalDate today = LocalDate.now();
         return status == OpportunityStatus.APPROVED &&
-                !today.isBefore(openingDate) &&
-                !today.isAfter(closingDate) &&
+                getPhase() == OpportunityPhase.OPEN &&
                 filledSlots < numSlots;
     }
 
@@ -166,11 +263,12 @@ public class InternshipOpportunity implements Serializable {
      * Checks if a student is eligible for this internship.
      * 
      * param student Student to check
+     * param today   Today's date, for the application period
      * return true if eligible, false otherwise
      */
-    public boolean isEligibleStudent(Student student) {
+    public boolean isEligibleStudent(Student student, LocalDate today) {
         // Check major
-        if (!student.getMajor().equalsIgnoreCase(preferredMajor)) {
+        if (student.getMajorCode() != preferredMajorCode) {
             return false;
         }
 
@@ -182,22 +280,12 @@ public class InternshipOpportunity implements Serializable {
         // Check if internship is approved and visible, or if student already applied
         if (status != OpportunityStatus.APPROVED && status != OpportunityStatus.FILLED) {
             // If not approved, check if student already applied
-            for (Application app : applications) {
-                if (app.getStudent().getUserID().equals(student.getUserID())) {
-                    return true; // Can still view if already applied
-                }
-            }
-            return false;
+            return hasApplied(student);
         }
 
         // If not visible, check if student already applied
         if (!isVisible) {
-            for (Application app : applications) {
-                if (app.getStudent().getUserID().equals(student.getUserID())) {
-                    return true; // Can still view if already applied
-                }
-            }
-            return false;
+            return hasApplied(student);
         }
 
         // Check if slots are available (for open status)
@@ -206,8 +294,7 @@ public class InternshipOpportunity implements Serializable {
         }
 
         // Check if still within application period
-        LocalDate today = LocalDate.now();
-        if (today.isBefore(openingDate) || today.isAfter(closingDate)) {
+        if (getPhaseOn(today) != OpportunityPhase.OPEN) {
             return false;
         }
 
@@ -216,17 +303,56 @@ public class InternshipOpportunity implements Serializable {
 
 
     /**
-     * Adds an application to this internship.
-     * 
-     * param app Application to add
+     * Checks if a student has applied, so can still view the internship.
      */
-    public void addApplication(Application app) {
-        applications.add(app);
+    private boolean hasApplied(Student student) {
+        for (Application app : getApplications()) {
+            if (student.getUserID().equals(app.getStudentID())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public String toString() {
         return String.format("Internship[ID=%s, Title=%s, Company=%s, Level=%s, Status=%s, Slots=%d/%d]",
-                opportunityID, title, companyName, level, status, filledSlots, numSlots);
+                getOpportunityID(), title, getCompanyName(), level, status, filledSlots, numSlots);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        if (fields.getObjectStreamClass().getField("opportunityID") != null) {
+            key = parseID((String) fields.get("opportunityID", null)); // Written before surrogate keys
+            legacyFormat = true;
+        } else {
+            key = fields.get("key", 0);
+        }
+        title = (String) fields.get("title", null);
+        if (fields.getObjectStreamClass().getField("description") != null) {
+            // Written before the text segment
+            byte[] text = TextSegment.encode((String) fields.get("description", null));
+            descriptionOffset = TextSegment.getInstance().append(text);
+            descriptionLength = text == null ? TextSegment.NONE : text.length;
+            legacyFormat = true;
+        } else {
+            descriptionOffset = fields.get("descriptionOffset", 0L);
+            descriptionLength = fields.get("descriptionLength", TextSegment.NONE);
+        }
+        level = (InternshipLevel) fields.get("level", null);
+        preferredMajorCode = StringDictionary.readCode(fields, "preferredMajorCode", "preferredMajor");
+        openingDate = (LocalDate) fields.get("openingDate", null);
+        closingDate = (LocalDate) fields.get("closingDate", null);
+        status = (OpportunityStatus) fields.get("status", null);
+        companyNameCode = StringDictionary.readCode(fields, "companyNameCode", "companyName");
+        representative = (CompanyRepresentative) fields.get("representative", null);
+        numSlots = fields.get("numSlots", 0);
+        filledSlots = fields.get("filledSlots", 0);
+        isVisible = fields.get("isVisible", false);
+        phase = (OpportunityPhase) fields.get("phase", null);
+        if (fields.getObjectStreamClass().getField("applications") != null) {
+            fields.get("applications", null); // Held in place before the application store paged them
+            legacyFormat = true;
+        }
     }
-}
\ No newline at end of file
+}
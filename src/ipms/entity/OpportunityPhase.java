@@ -0,0 +1,26 @@
+// ========== OpportunityPhase.java ==========
+package ipms.entity;
+
+/**
+ * Enum for where an internship opportunity is in its application period
+ */
+public enum OpportunityPhase {
+    NOT_YET_OPEN("Not Yet Open"),
+    OPEN("Open"),
+    CLOSED("Closed");
+
+    private final String displayName;
+
+    OpportunityPhase(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
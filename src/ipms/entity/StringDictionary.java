@@ -0,0 +1,169 @@
+// ========== StringDictionary.java (SINGLETON) ==========
+package ipms.entity;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Global dictionary for low-cardinality strings such as majors,
+ * company names and departments.
+ * Values are case-folded and mapped to compact int codes, so entities
+ * store and compare ints, and each distinct string is kept only once.
+ * The first spelling seen for a value is the one displayed.
+ * Every stored code depends on this file, so it is replaced atomically,
+ * and an unreadable dictionary or an unknown code is an error rather than
+ * a silently wrong value.
+ * Implements SINGLETON pattern
+ */
+public final class StringDictionary {
+    /** Code used for a missing (null) value */
+    public static final int NONE = -1;
+
+    private static StringDictionary instance;
+    private static final String DICTIONARY_FILE = "data/dictionary.dat";
+
+    private final Map<String, Integer> codes;
+    private List<String> values;
+
+    private StringDictionary() {
+        this.codes = new HashMap<>();
+        this.values = new ArrayList<>();
+        loadDictionary();
+    }
+
+    public static synchronized StringDictionary getInstance() {
+        if (instance == null) {
+            instance = new StringDictionary();
+        }
+        return instance;
+    }
+
+    /**
+     * Load dictionary from file
+     *
+     * @throws IllegalStateException if the file exists but cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    private void loadDictionary() {
+        File file = new File(DICTIONARY_FILE);
+        if (file.exists()) {
+            try (ObjectInputStream ois = new ObjectInputStream(
+                    new FileInputStream(file))) {
+                values = (List<String>) ois.readObject();
+                for (int code = 0; code < values.size(); code++) {
+                    codes.put(fold(values.get(code)), code);
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalStateException("Error loading dictionary " + file + ": " + e.getMessage()
+                        + "; every saved code depends on it, so restore it before starting", e);
+            }
+        }
+    }
+
+    /**
+     * Save dictionary to a temporary file and move it into place, so a
+     * crash leaves either the old dictionary or the new one
+     */
+    private void saveDictionary() {
+        File file = new File(DICTIONARY_FILE);
+        File temp = new File(DICTIONARY_FILE + ".tmp");
+        try {
+            file.getParentFile().mkdirs();
+
+            try (FileOutputStream out = new FileOutputStream(temp);
+                    ObjectOutputStream oos = new ObjectOutputStream(out)) {
+                oos.writeObject(values);
+                oos.flush();
+                out.getFD().sync();
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving dictionary: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the code for a value, adding it to the dictionary if new
+     *
+     * @param value String to encode
+     * @return Its code, or NONE for null
+     */
+    public synchronized int encode(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        String key = fold(value);
+        Integer code = codes.get(key);
+        if (code == null) {
+            code = values.size();
+            values.add(value.trim());
+            codes.put(key, code);
+            saveDictionary(); // New values are rare, so save eagerly
+        }
+        return code;
+    }
+
+    /**
+     * Get the code for a value without adding it
+     *
+     * @param value String to look up
+     * @return Its code, or NONE if unknown
+     */
+    public synchronized int lookup(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        return codes.getOrDefault(fold(value), NONE);
+    }
+
+    /**
+     * Get the display string for a code
+     *
+     * @param code Code to decode
+     * @return The string, or null for NONE
+     * @throws IllegalStateException if the code is not in the dictionary,
+     *                               i.e. the dictionary file is missing or short
+     */
+    public synchronized String decode(int code) {
+        if (code == NONE) {
+            return null;
+        }
+        if (code < 0 || code >= values.size()) {
+            throw new IllegalStateException("Code " + code + " is not in " + DICTIONARY_FILE + " ("
+                    + values.size() + " values); the dictionary is missing or out of date");
+        }
+        return values.get(code);
+    }
+
+    /**
+     * Get the number of distinct values, i.e. one past the highest code
+     */
+    public synchronized int size() {
+        return values.size();
+    }
+
+    /**
+     * Read a coded field while deserializing an entity. Files written before
+     * the dictionary hold the plain string under its old field name instead,
+     * which is encoded here.
+     *
+     * @param fields     Fields read from the stream
+     * @param name       Name of the code field
+     * @param legacyName Name the plain string field had
+     * @return The code
+     */
+    public static int readCode(ObjectInputStream.GetField fields, String name, String legacyName)
+            throws IOException, ClassNotFoundException {
+        if (fields.getObjectStreamClass().getField(legacyName) != null) {
+            return getInstance().encode((String) fields.get(legacyName, null));
+        }
+        return fields.get(name, NONE);
+    }
+
+    private static String fold(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
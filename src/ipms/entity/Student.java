@@ -1,6 +1,7 @@
 // ========== Student.java ==========
 package ipms.entity;
 
+import java.io.*;
 import java.util.*;
 
 /**
@@ -11,10 +12,13 @@ public class Student extends User {
     private static final long serialVersionUID = 1L;
     
     private int yearOfStudy;
-    private String major;
-    private final String email;
-    private final List<Application> applications;
+    private int majorCode;
+    // Not final only because readObject assigns them
+    private String email;
+    private List<Application> applications;
     private Application acceptedPlacement;
+    private int archivedApplications;
+    private boolean placementArchived; // The accepted placement was moved to the archive
     
     /**
      * Constructor for Student
@@ -23,7 +27,7 @@ public class Student extends User {
                    int yearOfStudy, String major, String email) {
         super(userID, name, password);
         this.yearOfStudy = yearOfStudy;
-        this.major = major;
+        this.majorCode = StringDictionary.getInstance().encode(major);
         this.email = email;
         this.applications = new ArrayList<>();
         this.acceptedPlacement = null;
@@ -31,21 +35,39 @@ public class Student extends User {
     
     // Getters
     public int getYearOfStudy() { return yearOfStudy; }
-    public String getMajor() { return major; }
+    public String getMajor() { return StringDictionary.getInstance().decode(majorCode); }
+    public int getMajorCode() { return majorCode; }
     public String getEmail() { return email; }
     public List<Application> getApplications() { return applications; }
     public Application getAcceptedPlacement() { return acceptedPlacement; }
+    public int getArchivedApplicationCount() { return archivedApplications; }
+    public boolean hasArchivedPlacement() { return placementArchived; }
     
     // Setters
     public void setYearOfStudy(int year) { this.yearOfStudy = year; }
-    public void setMajor(String major) { this.major = major; }
-    
+    public void setMajor(String major) { this.majorCode = StringDictionary.getInstance().encode(major); }
     /**
      * Check if student can apply for more internships
-     * Business rule: Maximum 3 applications
+     * Business rule: Maximum 3 applications, including archived ones,
+     * and none once a placement is accepted
      */
     public boolean canApply() {
-        return applications.size() < 3 && acceptedPlacement == null;
+        return applications.size() + archivedApplications < 3 && acceptedPlacement == null
+                && !placementArchived;
+    }
+
+    /**
+     * Move an application from the list to the archived count
+     */
+    public void archiveApplication(Application app) {
+        if (applications.remove(app)) {
+            archivedApplications++;
+        }
+        if (app == acceptedPlacement) {
+            acceptedPlacement.setAcceptedPlacement(false);
+            acceptedPlacement = null;
+            placementArchived = true;
+        }
     }
     
     /**
@@ -63,11 +85,13 @@ public class Student extends User {
      */
     public boolean acceptPlacement(Application app) {
         if (app == null) {
-            this.acceptedPlacement = null;
+            clearAcceptedPlacement();
             return true;
         }
-        if (app.getStatus() == ApplicationStatus.SUCCESSFUL) {
+        if (app.getStatus() == ApplicationStatus.SUCCESSFUL && !placementArchived) {
+            clearAcceptedPlacement();
             this.acceptedPlacement = app;
+            app.setAcceptedPlacement(true);
             // Withdraw all other applications
             for (Application a : applications) {
                 if (a != app && a.getStatus() != ApplicationStatus.WITHDRAWN) {
@@ -79,6 +103,13 @@ public class Student extends User {
         return false;
     }
     
+    private void clearAcceptedPlacement() {
+        if (acceptedPlacement != null) {
+            acceptedPlacement.setAcceptedPlacement(false);
+            acceptedPlacement = null;
+        }
+    }
+    
     /**
      * Check eligibility for internship level
      */
@@ -109,6 +140,21 @@ public class Student extends User {
     @Override
     public String toString() {
         return String.format("Student[ID=%s, Name=%s, Year=%d, Major=%s]",
-                           userID, name, yearOfStudy, major);
+                           userID, name, yearOfStudy, getMajor());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        yearOfStudy = fields.get("yearOfStudy", 0);
+        majorCode = StringDictionary.readCode(fields, "majorCode", "major");
+        email = (String) fields.get("email", null);
+        applications = (List<Application>) fields.get("applications", null);
+        acceptedPlacement = (Application) fields.get("acceptedPlacement", null); // Only in older files
+        if (acceptedPlacement != null) {
+            acceptedPlacement.setAcceptedPlacement(true);
+        }
+        archivedApplications = fields.get("archivedApplications", 0);
+        placementArchived = fields.get("placementArchived", false);
     }
-}
\ No newline at end of file
+}
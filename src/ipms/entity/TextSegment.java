@@ -0,0 +1,167 @@
+// ========== TextSegment.java (SINGLETON) ==========
+package ipms.entity;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only store for long free text such as internship descriptions
+ * and withdrawal reasons.
+ * The text lives in a memory-mapped file outside the Java heap; entities
+ * keep only its offset and length and decode it when it is shown, so the
+ * text is neither garbage collected nor written into snapshots.
+ * The file starts with the offset of its logical end. When full, its
+ * mapping is doubled (by at least a megabyte), so a growing file is
+ * remapped only a few times; Java cannot unmap a buffer explicitly, so
+ * each mapping replaced is released when it is garbage collected.
+ * Text is never removed: text no records refer to any more, e.g. of a
+ * deleted request, stays in the file, as there is no compaction.
+ * Compacting would move text that immutable archive segments refer to by
+ * offset. The file grows only by text appended, and records read in an
+ * older format with inline text are saved again so it is appended once.
+ * If it cannot be opened, or its header is damaged,
+ * getInstance() fails: offsets handed out without the file would be saved
+ * in snapshots but point at nothing in the next session.
+ * Implements SINGLETON pattern
+ */
+public final class TextSegment {
+    /** Length recorded for a missing (null) text */
+    public static final int NONE = -1;
+
+    private static TextSegment instance;
+    private static final String SEGMENT_FILE = "data/text.seg";
+    private static final int HEADER_BYTES = Long.BYTES;
+    private static final int GROWTH = 1 << 20; // Minimum growth, and the unit file sizes are rounded to
+
+    private FileChannel channel;
+    private volatile ByteBuffer buffer; // Replaced by one twice the size when the file grows
+    private volatile int end;           // Logical end of the text
+
+    private TextSegment() {
+        openSegment();
+    }
+
+    /**
+     * Get the segment, opening it on first use
+     *
+     * @throws IllegalStateException if the segment file cannot be used
+     */
+    public static synchronized TextSegment getInstance() {
+        if (instance == null) {
+            instance = new TextSegment();
+        }
+        return instance;
+    }
+
+    /**
+     * Map the segment file, creating it if needed
+     */
+    private void openSegment() {
+        File file = new File(SEGMENT_FILE);
+        try {
+            file.getParentFile().mkdirs();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, roundUp(Math.max(size, HEADER_BYTES)));
+            long header = size < HEADER_BYTES ? HEADER_BYTES : buffer.getLong(0);
+            if (header < HEADER_BYTES || header > Math.max(size, HEADER_BYTES)) {
+                // Appending from a guessed end would overwrite saved text
+                channel.close();
+                throw new IllegalStateException("Error loading text segment: bad header in " + file);
+            }
+            end = (int) header;
+            buffer.putLong(0, end);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error loading text segment: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Encode text for storage
+     *
+     * @return UTF-8 bytes, or null for null
+     */
+    public static byte[] encode(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Append encoded text
+     *
+     * @param text Bytes from encode()
+     * @return Offset to read it back from (meaningless for null or empty text)
+     */
+    public synchronized long append(byte[] text) {
+        if (text == null || text.length == 0) {
+            return 0;
+        }
+        if ((long) end + text.length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Text segment is full");
+        }
+        int offset = end;
+        ensureCapacity(offset + text.length);
+        buffer.put(offset, text);
+        end = offset + text.length;
+        buffer.putLong(0, end); // Only after the text, so a crash never exposes a partial entry
+        return offset;
+    }
+
+    /**
+     * Decode text previously appended
+     *
+     * @param offset Offset returned by append()
+     * @param length Number of bytes, or NONE
+     * @return The text, or null for NONE or an offset outside the segment
+     */
+    public String read(long offset, int length) {
+        if (length == NONE) {
+            return null;
+        }
+        if (length == 0) {
+            return "";
+        }
+        if (offset < HEADER_BYTES || length < 0 || offset + length > end) {
+            return null; // Not in this segment, e.g. a snapshot copied without its text.seg
+        }
+        byte[] text = new byte[length];
+        buffer.get((int) offset, text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write appended text through to disk. Called before saving snapshots
+     * that refer to it.
+     */
+    public synchronized void force() {
+        ((MappedByteBuffer) buffer).force();
+    }
+
+    /**
+     * Get the number of bytes of text stored
+     */
+    public synchronized long size() {
+        return end - HEADER_BYTES;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        long doubled = Math.max(roundUp(required), 2L * buffer.capacity());
+        int capacity = (int) Math.min(doubled, Integer.MAX_VALUE);
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error growing text segment", e);
+        }
+    }
+
+    private static long roundUp(long size) {
+        return (size + GROWTH - 1) / GROWTH * GROWTH;
+    }
+}
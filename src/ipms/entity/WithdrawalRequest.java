@@ -1,34 +1,59 @@
 // ========== WithdrawalRequest.java ==========
 package ipms.entity;
 
+import java.io.*;
 import java.time.LocalDate;
 
 /**
  * Represents a withdrawal request from student
  */
-public class WithdrawalRequest implements java.io.Serializable {
+public class WithdrawalRequest implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    private String requestID;
+    private int key;
     private Application application;
-    private String reason;
+    private long reasonOffset; // In the TextSegment
+    private int reasonLength;
     private LocalDate requestDate;
     private WithdrawalStatus status;
     private boolean isAfterPlacement;
+    private transient boolean legacyFormat;
 
-    public WithdrawalRequest(String requestID, Application application,
+    public WithdrawalRequest(int key, Application application,
             String reason, boolean isAfterPlacement) {
-        this.requestID = requestID;
+        this(key, application, reason, isAfterPlacement, LocalDate.now());
+    }
+
+    public WithdrawalRequest(int key, Application application,
+            String reason, boolean isAfterPlacement, LocalDate requestDate) {
+        this.key = key;
         this.application = application;
-        this.reason = reason;
-        this.requestDate = LocalDate.now();
+        byte[] text = TextSegment.encode(reason);
+        this.reasonOffset = TextSegment.getInstance().append(text);
+        this.reasonLength = text == null ? TextSegment.NONE : text.length;
+        this.requestDate = requestDate;
         this.status = WithdrawalStatus.PENDING;
         this.isAfterPlacement = isAfterPlacement;
     }
 
     // Getters
+    public int getKey() {
+        return key;
+    }
+
+    /**
+     * Get the request ID for display, e.g. WR00003
+     */
     public String getRequestID() {
-        return requestID;
+        return formatID(key);
+    }
+
+    public static String formatID(int key) {
+        return String.format("WR%05d", key);
+    }
+
+    public static int parseID(String requestID) {
+        return Integer.parseInt(requestID.substring(2));
     }
 
     public Application getApplication() {
@@ -36,7 +61,7 @@ public class WithdrawalRequest implements java.io.Serializable {
     }
 
     public String getReason() {
-        return reason;
+        return TextSegment.getInstance().read(reasonOffset, reasonLength);
     }
 
     public LocalDate getRequestDate() {
@@ -51,6 +76,17 @@ public class WithdrawalRequest implements java.io.Serializable {
         return isAfterPlacement;
     }
 
+    /**
+     * Checks if this was read from a file in an older format, with a string
+     * ID or inline reason, which should be rewritten. Each read of an inline
+     * reason appends it to the text segment again.
+     *
+     * @return true if read from an older format
+     */
+    public boolean isLegacyFormat() {
+        return legacyFormat;
+    }
+
     // Setters
     public void setStatus(WithdrawalStatus status) {
         this.status = status;
@@ -59,6 +95,30 @@ public class WithdrawalRequest implements java.io.Serializable {
     @Override
     public String toString() {
         return String.format("WithdrawalRequest[ID=%s, Application=%s, Status=%s, AfterPlacement=%b]",
-                requestID, application.getApplicationID(), status, isAfterPlacement);
+                getRequestID(), application.getApplicationID(), status, isAfterPlacement);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        if (fields.getObjectStreamClass().getField("requestID") != null) {
+            key = parseID((String) fields.get("requestID", null)); // Written before surrogate keys
+            legacyFormat = true;
+        } else {
+            key = fields.get("key", 0);
+        }
+        application = (Application) fields.get("application", null);
+        if (fields.getObjectStreamClass().getField("reason") != null) {
+            // Written before the text segment
+            byte[] text = TextSegment.encode((String) fields.get("reason", null));
+            reasonOffset = TextSegment.getInstance().append(text);
+            reasonLength = text == null ? TextSegment.NONE : text.length;
+            legacyFormat = true;
+        } else {
+            reasonOffset = fields.get("reasonOffset", 0L);
+            reasonLength = fields.get("reasonLength", TextSegment.NONE);
+        }
+        requestDate = (LocalDate) fields.get("requestDate", null);
+        status = (WithdrawalStatus) fields.get("status", null);
+        isAfterPlacement = fields.get("isAfterPlacement", false);
     }
 }
\ No newline at end of file